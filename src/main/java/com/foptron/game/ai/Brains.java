@@ -1,11 +1,12 @@
 package com.foptron.game.ai;
 
 import com.foptron.game.engine.GameSession;
+import com.foptron.game.entity.Cycle;
 import com.foptron.game.entity.EnemyCycle;
+import com.foptron.game.entity.PlayerCycle;
 import com.foptron.game.model.Direction;
 import com.foptron.game.model.Pos;
 
-import java.util.List;
 import java.util.Random;
 
 public final class Brains {
@@ -21,6 +22,41 @@ public final class Brains {
         };
     }
 
+    public static PlayerBrain autopilot() {
+        return Brains::autopilot;
+    }
+
+    private static EnemyAction autopilot(GameSession session, PlayerCycle player) {
+        // Hunts the nearest enemy, dodges walls and trails, throws when an enemy is lined up.
+        Direction dir = player.dir();
+        EnemyCycle target = nearestEnemy(session, player);
+        if (target != null) {
+            Direction toward = steerToward(player.pos(), target.pos());
+            if (!toward.isOpposite(dir)) {
+                dir = toward;
+            }
+        }
+        if (session.willCollide(player, dir)) {
+            dir = safeAlternative(session, player, dir);
+        }
+        boolean throwDisc = session.isEnemyInDiscLine(player, 3);
+        return EnemyAction.of(dir, throwDisc);
+    }
+
+    private static EnemyCycle nearestEnemy(GameSession session, PlayerCycle player) {
+        EnemyCycle best = null;
+        int bestDist = Integer.MAX_VALUE;
+        for (EnemyCycle e : session.enemies()) {
+            if (!e.isAlive()) continue;
+            int dist = Math.abs(e.pos().x - player.pos().x) + Math.abs(e.pos().y - player.pos().y);
+            if (dist < bestDist) {
+                bestDist = dist;
+                best = e;
+            }
+        }
+        return best;
+    }
+
     private static EnemyAction koura(GameSession session, EnemyCycle enemy) {
         // Easy: mostly random, minimal avoidance.
         Direction dir = enemy.dir();
@@ -30,27 +66,26 @@ public final class Brains {
             if (t % 6 == 0) dir = turnLeft(dir);
             if (t % 10 == 0) dir = turnRight(dir);
             boolean throwDisc = (t % 18 == 0) && session.isPlayerInDiscLine(enemy, 3);
-            return new EnemyAction(dir, throwDisc);
+            return EnemyAction.of(dir, throwDisc);
         }
 
         Random rnd = session.rng();
         if (rnd.nextDouble() < 0.25) {
             dir = randomTurn(rnd, dir);
         }
-        return new EnemyAction(dir, rnd.nextDouble() < 0.03);
+        return EnemyAction.of(dir, rnd.nextDouble() < 0.03);
     }
 
     private static EnemyAction sark(GameSession session, EnemyCycle enemy) {
         // Medium: predictable wall-following (turn right when blocked).
         Direction dir = enemy.dir();
-        Pos next = enemy.pos().add(dir);
-        if (session.willCollide(enemy, next)) {
+        if (session.willCollide(enemy, dir)) {
             Direction right = turnRight(dir);
-            if (!session.willCollide(enemy, enemy.pos().add(right))) {
+            if (!session.willCollide(enemy, right)) {
                 dir = right;
             } else {
                 Direction left = turnLeft(dir);
-                if (!session.willCollide(enemy, enemy.pos().add(left))) {
+                if (!session.willCollide(enemy, left)) {
                     dir = left;
                 } else {
                     dir = opposite(dir);
@@ -60,16 +95,16 @@ public final class Brains {
         if (session.isManualStepMode()) {
             long t = session.stepIndex() + Math.floorMod(enemy.id().hashCode(), 11);
             boolean throwDisc = (t % 14 == 0) && session.isPlayerInDiscLine(enemy, 3);
-            return new EnemyAction(dir, throwDisc);
+            return EnemyAction.of(dir, throwDisc);
         }
 
-        return new EnemyAction(dir, session.rng().nextDouble() < 0.05);
+        return EnemyAction.of(dir, session.rng().nextDouble() < 0.05);
     }
 
     private static EnemyAction rinzler(GameSession session, EnemyCycle enemy) {
         // Hard: chase player, basic avoidance.
         Direction dir = steerToward(session, enemy);
-        if (session.willCollide(enemy, enemy.pos().add(dir))) {
+        if (session.willCollide(enemy, dir)) {
             dir = safeAlternative(session, enemy, dir);
         }
         boolean throwDisc;
@@ -79,13 +114,13 @@ public final class Brains {
         } else {
             throwDisc = session.rng().nextDouble() < 0.08 && session.isPlayerInDiscLine(enemy, 3);
         }
-        return new EnemyAction(dir, throwDisc);
+        return EnemyAction.of(dir, throwDisc);
     }
 
     private static EnemyAction clu(GameSession session, EnemyCycle enemy) {
         // Impossible: anticipates player's next cell and prefers cutting paths.
         Direction dir = steerTowardAnticipated(session, enemy);
-        if (session.willCollide(enemy, enemy.pos().add(dir))) {
+        if (session.willCollide(enemy, dir)) {
             dir = safeAlternative(session, enemy, dir);
         }
         boolean throwDisc;
@@ -95,22 +130,25 @@ public final class Brains {
         } else {
             throwDisc = session.rng().nextDouble() < 0.15 && session.isPlayerInDiscLine(enemy, 3);
         }
-        return new EnemyAction(dir, throwDisc);
+        return EnemyAction.of(dir, throwDisc);
     }
 
-    private static Direction safeAlternative(GameSession session, EnemyCycle enemy, Direction preferred) {
-        List<Direction> candidates = List.of(preferred, turnLeft(preferred), turnRight(preferred), opposite(preferred));
-        for (Direction d : candidates) {
-            if (!session.willCollide(enemy, enemy.pos().add(d))) {
-                return d;
-            }
-        }
+    private static Direction safeAlternative(GameSession session, Cycle cycle, Direction preferred) {
+        if (!session.willCollide(cycle, preferred)) return preferred;
+        Direction left = turnLeft(preferred);
+        if (!session.willCollide(cycle, left)) return left;
+        Direction right = turnRight(preferred);
+        if (!session.willCollide(cycle, right)) return right;
+        Direction back = opposite(preferred);
+        if (!session.willCollide(cycle, back)) return back;
         return preferred;
     }
 
     private static Direction steerToward(GameSession session, EnemyCycle enemy) {
-        Pos p = session.player().pos();
-        Pos e = enemy.pos();
+        return steerToward(enemy.pos(), session.player().pos());
+    }
+
+    private static Direction steerToward(Pos e, Pos p) {
         int dx = Integer.compare(p.x, e.x);
         int dy = Integer.compare(p.y, e.y);
 
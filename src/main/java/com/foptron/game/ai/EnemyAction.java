@@ -3,4 +3,21 @@ package com.foptron.game.ai;
 import com.foptron.game.model.Direction;
 
 public record EnemyAction(Direction direction, boolean throwDisc) {
+
+    // Every possible action, so brains can answer without allocating.
+    private static final EnemyAction[] CACHE = new EnemyAction[(Direction.values().length + 1) * 2];
+
+    static {
+        for (int t = 0; t < 2; t++) {
+            CACHE[t] = new EnemyAction(null, t == 1);
+            for (Direction d : Direction.values()) {
+                CACHE[(d.ordinal() + 1) * 2 + t] = new EnemyAction(d, t == 1);
+            }
+        }
+    }
+
+    public static EnemyAction of(Direction direction, boolean throwDisc) {
+        int d = direction == null ? 0 : direction.ordinal() + 1;
+        return CACHE[d * 2 + (throwDisc ? 1 : 0)];
+    }
 }
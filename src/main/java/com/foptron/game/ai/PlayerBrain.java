@@ -0,0 +1,9 @@
+package com.foptron.game.ai;
+
+import com.foptron.game.engine.GameSession;
+import com.foptron.game.entity.PlayerCycle;
+
+/** Scripted stand-in for the human player, used by headless runs. */
+public interface PlayerBrain {
+    EnemyAction decide(GameSession session, PlayerCycle player);
+}
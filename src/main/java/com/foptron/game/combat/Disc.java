@@ -3,28 +3,49 @@ package com.foptron.game.combat;
 import com.foptron.game.model.Direction;
 import com.foptron.game.model.Pos;
 
+/** A thrown disc. Instances are owned and recycled by {@link DiscPool}. */
 public final class Disc {
-    private final String id;
-    private final String ownerCycleId;
-    private final String ownerColor;
+    private final int slot;
+
+    private int id;
+    private String ownerCycleId;
+    private String ownerColor;
 
     private Pos pos;
+    private int cell;
     private Direction dir;
     private int remainingRange;
 
     private boolean flying;
 
-    public Disc(String id, String ownerCycleId, String ownerColor, Pos start, Direction dir, int range) {
+    // Per-cell doubly linked list, by slot; -1 = none.
+    int prevInCell = -1;
+    int nextInCell = -1;
+
+    // Landed discs, oldest first, by slot; -1 = none.
+    int prevLanded = -1;
+    int nextLanded = -1;
+
+    Disc(int slot) {
+        this.slot = slot;
+    }
+
+    void launch(int id, String ownerCycleId, String ownerColor, Pos start, int cell, Direction dir, int range) {
         this.id = id;
         this.ownerCycleId = ownerCycleId;
         this.ownerColor = ownerColor;
         this.pos = start;
+        this.cell = cell;
         this.dir = dir;
         this.remainingRange = range;
         this.flying = true;
     }
 
-    public String id() {
+    int slot() {
+        return slot;
+    }
+
+    public int id() {
         return id;
     }
 
@@ -40,8 +61,27 @@ public final class Disc {
         return pos;
     }
 
-    public void setPos(Pos pos) {
+    public int x() {
+        return pos.x;
+    }
+
+    public int y() {
+        return pos.y;
+    }
+
+    /** Current cell as {@link Pos#pack(int, int)}. */
+    public int packedPos() {
+        return pos.packed();
+    }
+
+    /** Grid index of the current cell. */
+    public int cell() {
+        return cell;
+    }
+
+    void moveTo(Pos pos, int cell) {
         this.pos = pos;
+        this.cell = cell;
     }
 
     public Direction dir() {
@@ -60,7 +100,7 @@ public final class Disc {
         return flying;
     }
 
-    public void land() {
+    void land() {
         flying = false;
     }
 }
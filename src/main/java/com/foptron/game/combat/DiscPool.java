@@ -0,0 +1,232 @@
+package com.foptron.game.combat;
+
+import com.foptron.game.model.Direction;
+import com.foptron.game.model.Pos;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Fixed-capacity disc storage for one session. Slots are reused through a free stack,
+ * ids are per-session ints, and every live disc is linked into a per-cell list so
+ * recapture and hit tests only look at the discs on one cell. Landed discs are also linked
+ * in landing order, so the oldest one is found in O(1) when the landed cap is exceeded.
+ * Not thread-safe; owned by the session's tick thread.
+ */
+public final class DiscPool {
+
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final Disc[] slots;
+    private final boolean[] live;
+    private final int[] freeSlots;
+    private int freeCount;
+    private int liveCount;
+    private int landedCount;
+    private final int maxLanded;
+
+    private int[] cellHead = new int[0];
+    private int landedHead = -1;
+    private int landedTail = -1;
+    private int nextId = 1;
+
+    private final LiveView view = new LiveView();
+
+    public DiscPool(int capacity, int maxLanded) {
+        int cap = Math.max(1, capacity);
+        this.slots = new Disc[cap];
+        this.live = new boolean[cap];
+        this.freeSlots = new int[cap];
+        for (int i = 0; i < cap; i++) {
+            slots[i] = new Disc(i);
+            freeSlots[i] = cap - 1 - i;
+        }
+        this.freeCount = cap;
+        this.maxLanded = Math.max(0, maxLanded);
+    }
+
+    /** Empties the pool and sizes the cell index for a grid of {@code cells} cells. */
+    public void reset(int cells) {
+        clear();
+        if (cellHead.length != cells) {
+            cellHead = new int[cells];
+        }
+        Arrays.fill(cellHead, -1);
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length; i++) {
+            if (live[i]) release(slots[i]);
+        }
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public int size() {
+        return liveCount;
+    }
+
+    public int landedCount() {
+        return landedCount;
+    }
+
+    /** Takes a slot for a new flying disc, or returns null when the pool is full. */
+    public Disc acquire(String ownerCycleId, String ownerColor, Pos start, int cell, Direction dir, int range) {
+        if (freeCount == 0) return null;
+        int slot = freeSlots[--freeCount];
+        Disc d = slots[slot];
+        d.launch(nextId++, ownerCycleId, ownerColor, start, cell, dir, range);
+        live[slot] = true;
+        liveCount++;
+        link(d, cell);
+        return d;
+    }
+
+    public void release(Disc d) {
+        int slot = d.slot();
+        if (!live[slot]) return;
+        unlink(d);
+        if (!d.isFlying()) {
+            unlinkLanded(d);
+            landedCount--;
+        }
+        live[slot] = false;
+        liveCount--;
+        freeSlots[freeCount++] = slot;
+    }
+
+    public void moveTo(Disc d, Pos pos, int cell) {
+        if (d.cell() != cell) {
+            unlink(d);
+            d.moveTo(pos, cell);
+            link(d, cell);
+        } else {
+            d.moveTo(pos, cell);
+        }
+    }
+
+    /**
+     * Marks a disc as landed. When that pushes the landed count over the cap, returns the
+     * oldest landed disc, which the caller should hand back to its owner and release.
+     */
+    public Disc land(Disc d) {
+        if (!d.isFlying()) return null;
+        d.land();
+        linkLanded(d);
+        landedCount++;
+        return landedCount <= maxLanded ? null : slots[landedHead];
+    }
+
+    /** Slot of the first disc on {@code cell}, or -1. */
+    public int firstInCell(int cell) {
+        return cellHead[cell];
+    }
+
+    /** Slot of the next disc on the same cell, or -1. */
+    public int nextInCell(int slot) {
+        return slots[slot].nextInCell;
+    }
+
+    public Disc bySlot(int slot) {
+        return slots[slot];
+    }
+
+    /** Number of slots to scan when iterating; slots with {@code !isLive(i)} are free. */
+    public int slotCount() {
+        return slots.length;
+    }
+
+    public boolean isLive(int slot) {
+        return live[slot];
+    }
+
+    /** Read-only live view, in slot order. */
+    public Collection<Disc> view() {
+        return view;
+    }
+
+    private void link(Disc d, int cell) {
+        int head = cellHead[cell];
+        d.prevInCell = -1;
+        d.nextInCell = head;
+        if (head >= 0) slots[head].prevInCell = d.slot();
+        cellHead[cell] = d.slot();
+    }
+
+    private void unlink(Disc d) {
+        if (d.prevInCell >= 0) {
+            slots[d.prevInCell].nextInCell = d.nextInCell;
+        } else {
+            cellHead[d.cell()] = d.nextInCell;
+        }
+        if (d.nextInCell >= 0) {
+            slots[d.nextInCell].prevInCell = d.prevInCell;
+        }
+        d.prevInCell = -1;
+        d.nextInCell = -1;
+    }
+
+    private void linkLanded(Disc d) {
+        d.prevLanded = landedTail;
+        d.nextLanded = -1;
+        if (landedTail >= 0) {
+            slots[landedTail].nextLanded = d.slot();
+        } else {
+            landedHead = d.slot();
+        }
+        landedTail = d.slot();
+    }
+
+    private void unlinkLanded(Disc d) {
+        if (d.prevLanded >= 0) {
+            slots[d.prevLanded].nextLanded = d.nextLanded;
+        } else {
+            landedHead = d.nextLanded;
+        }
+        if (d.nextLanded >= 0) {
+            slots[d.nextLanded].prevLanded = d.prevLanded;
+        } else {
+            landedTail = d.prevLanded;
+        }
+        d.prevLanded = -1;
+        d.nextLanded = -1;
+    }
+
+    private final class LiveView extends AbstractCollection<Disc> {
+        @Override
+        public int size() {
+            return liveCount;
+        }
+
+        @Override
+        public Iterator<Disc> iterator() {
+            return new Iterator<>() {
+                private int next = advance(0);
+
+                private int advance(int from) {
+                    int i = from;
+                    while (i < slots.length && !live[i]) i++;
+                    return i;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next < slots.length;
+                }
+
+                @Override
+                public Disc next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    Disc d = slots[next];
+                    next = advance(next + 1);
+                    return d;
+                }
+            };
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.foptron.game.data;
 
+/**
+ * @param trigger when the achievement unlocks, or null when only code awards it
+ */
 public record AchievementDefinition(
         String id,
         String title,
-        String description
+        String description,
+        Trigger trigger
 ) {
 }
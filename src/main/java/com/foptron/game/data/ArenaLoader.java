@@ -30,17 +30,19 @@ public final class ArenaLoader {
                 id = attr(first, "id", fallbackId);
                 name = attr(first, "name", fallbackId);
                 open = Boolean.parseBoolean(attr(first, "open", "false"));
+                int width = dimension(first, "width", classpathResource);
+                int height = dimension(first, "height", classpathResource);
 
-                CellType[][] grid = new CellType[Arena.SIZE][Arena.SIZE];
-                for (int y = 0; y < Arena.SIZE; y++) {
+                CellType[][] grid = new CellType[height][width];
+                for (int y = 0; y < height; y++) {
                     String line = br.readLine();
                     if (line == null) {
                         throw new IllegalStateException("Arena grid too short: " + classpathResource);
                     }
-                    if (line.length() < Arena.SIZE) {
+                    if (line.length() < width) {
                         throw new IllegalStateException("Arena line too short at y=" + y + ": " + classpathResource);
                     }
-                    for (int x = 0; x < Arena.SIZE; x++) {
+                    for (int x = 0; x < width; x++) {
                         grid[y][x] = CellType.fromSymbol(line.charAt(x));
                     }
                 }
@@ -53,12 +55,16 @@ public final class ArenaLoader {
     }
 
     public static Arena random(String id, String name, boolean open, Random rng) {
+        return random(id, name, open, Arena.DEFAULT_SIZE, Arena.DEFAULT_SIZE, rng);
+    }
+
+    public static Arena random(String id, String name, boolean open, int width, int height, Random rng) {
         Objects.requireNonNull(rng, "rng");
-        CellType[][] grid = new CellType[Arena.SIZE][Arena.SIZE];
+        CellType[][] grid = new CellType[height][width];
 
-        for (int y = 0; y < Arena.SIZE; y++) {
-            for (int x = 0; x < Arena.SIZE; x++) {
-                boolean boundary = (x == 0 || y == 0 || x == Arena.SIZE - 1 || y == Arena.SIZE - 1);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                boolean boundary = (x == 0 || y == 0 || x == width - 1 || y == height - 1);
                 if (!open && boundary) {
                     grid[y][x] = CellType.WALL;
                     continue;
@@ -75,9 +81,9 @@ public final class ArenaLoader {
             }
         }
 
-        // Carve a central safe zone.
-        for (int y = 16; y <= 23; y++) {
-            for (int x = 16; x <= 23; x++) {
+        // Carve a central 8x8 safe zone.
+        for (int y = height / 2 - 4; y < height / 2 + 4; y++) {
+            for (int x = width / 2 - 4; x < width / 2 + 4; x++) {
                 grid[y][x] = CellType.EMPTY;
             }
         }
@@ -85,6 +91,21 @@ public final class ArenaLoader {
         return new Arena(id, name, open, grid);
     }
 
+    private static int dimension(String header, String key, String resource) {
+        String value = attr(header, key, String.valueOf(Arena.DEFAULT_SIZE));
+        int n;
+        try {
+            n = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Arena " + key + " is not a number: " + resource);
+        }
+        if (n < Arena.MIN_SIZE || n > Arena.MAX_SIZE) {
+            throw new IllegalStateException("Arena " + key + "=" + n + " out of range "
+                    + Arena.MIN_SIZE + ".." + Arena.MAX_SIZE + ": " + resource);
+        }
+        return n;
+    }
+
     private static String attr(String header, String key, String defaultValue) {
         String[] parts = header.replace("#ARENA", "").trim().split(" ");
         for (String p : parts) {
@@ -8,6 +8,7 @@ public record CharacterDefinition(
         double handling,
         double lives,
         int discsOwned,
-        long experiencePoints
+        long experiencePoints,
+        int jetwallLength
 ) {
 }
@@ -7,15 +7,21 @@ import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Component
 public class DataRepository {
 
+    // key=value or key="quoted value" in a [CHAPTER ...] header.
+    private static final Pattern ATTR = Pattern.compile("(\\w+)=(?:\"([^\"]*)\"|(\\S+))");
+
     private final Map<String, CharacterDefinition> characters;
     private final Map<String, EnemyDefinition> enemies;
     private final Map<String, Arena> arenas;
     private final List<StoryChapter> story;
     private final Map<String, AchievementDefinition> achievements;
+    private final Progression progression;
 
     public DataRepository() {
         this.characters = Collections.unmodifiableMap(loadCharacters());
@@ -23,6 +29,7 @@ public class DataRepository {
         this.arenas = Collections.unmodifiableMap(loadArenas());
         this.story = List.copyOf(loadStory());
         this.achievements = Collections.unmodifiableMap(loadAchievements());
+        this.progression = new Progression(story, achievements);
     }
 
     public Map<String, CharacterDefinition> characters() {
@@ -45,6 +52,11 @@ public class DataRepository {
         return achievements;
     }
 
+    /** Story and achievements indexed by trigger, for the sessions. */
+    public Progression progression() {
+        return progression;
+    }
+
     private Map<String, CharacterDefinition> loadCharacters() {
         List<String> lines = readResourceLines("data/characters.txt");
         Map<String, CharacterDefinition> map = new LinkedHashMap<>();
@@ -61,7 +73,8 @@ public class DataRepository {
                     Double.parseDouble(p[4].trim()),
                     Double.parseDouble(p[5].trim()),
                     Integer.parseInt(p[6].trim()),
-                    Long.parseLong(p[7].trim())
+                    Long.parseLong(p[7].trim()),
+                    p.length > 8 ? Integer.parseInt(p[8].trim()) : 0
             );
             map.put(def.id().toUpperCase(), def);
         }
@@ -85,7 +98,8 @@ public class DataRepository {
                     Double.parseDouble(p[5].trim()),
                     Double.parseDouble(p[6].trim()),
                     Double.parseDouble(p[7].trim()),
-                    p[8].trim()
+                    p[8].trim(),
+                    p.length > 9 ? Integer.parseInt(p[9].trim()) : 0
             );
             map.put(def.id().toUpperCase(), def);
         }
@@ -108,28 +122,26 @@ public class DataRepository {
 
         String id = null;
         String title = null;
-        int unlockLevel = 1;
-        String unlockOnDefeat = null;
+        Trigger trigger = null;
+        List<String> choices = List.of();
         StringBuilder text = new StringBuilder();
 
         for (String line : lines) {
             if (line.startsWith("[CHAPTER")) {
-                id = attr(line, "id", "CH?" + chapters.size());
-                title = attr(line, "title", id);
-                unlockLevel = Integer.parseInt(attr(line, "unlockLevel", "1"));
-                unlockOnDefeat = attr(line, "unlockOnDefeat", "").trim();
-                if (unlockOnDefeat.isBlank()) unlockOnDefeat = null;
+                Map<String, String> attrs = attrs(line);
+                id = attrs.getOrDefault("id", "CH?" + chapters.size());
+                title = attrs.getOrDefault("title", id);
+                trigger = chapterTrigger(attrs);
+                String offered = attrs.getOrDefault("choices", "");
+                choices = offered.isBlank() ? List.of() : Arrays.stream(offered.split(",")).map(s -> s.trim().toUpperCase()).toList();
                 text.setLength(0);
                 continue;
             }
             if (line.startsWith("[/CHAPTER]")) {
                 if (id != null) {
-                    chapters.add(new StoryChapter(id, title == null ? id : title, unlockLevel, unlockOnDefeat, text.toString().trim()));
+                    chapters.add(new StoryChapter(id, title, trigger, choices, text.toString().trim()));
                 }
                 id = null;
-                title = null;
-                unlockLevel = 1;
-                unlockOnDefeat = null;
                 text.setLength(0);
                 continue;
             }
@@ -137,11 +149,18 @@ public class DataRepository {
                 text.append(line).append('\n');
             }
         }
-
-        chapters.sort(Comparator.comparingInt(StoryChapter::unlockLevel));
         return chapters;
     }
 
+    /** A defeat or choice trigger wins over the level; a chapter with neither unlocks at unlockLevel (default 1). */
+    private static Trigger chapterTrigger(Map<String, String> attrs) {
+        String onDefeat = attrs.get("unlockOnDefeat");
+        if (onDefeat != null && !onDefeat.isBlank()) return Trigger.defeat(onDefeat);
+        String onChoice = attrs.get("unlockOnChoice");
+        if (onChoice != null && !onChoice.isBlank()) return Trigger.choice(onChoice);
+        return Trigger.level(Integer.parseInt(attrs.getOrDefault("unlockLevel", "1")));
+    }
+
     private Map<String, AchievementDefinition> loadAchievements() {
         List<String> lines = readResourceLines("data/achievements.txt");
         Map<String, AchievementDefinition> out = new LinkedHashMap<>();
@@ -154,20 +173,20 @@ public class DataRepository {
             String id = p[0].trim();
             String title = p[1].trim();
             String desc = p.length >= 3 ? p[2].trim() : "";
+            String trigger = p.length >= 4 ? p[3].trim() : "";
             if (id.isBlank() || title.isBlank()) continue;
-            out.put(id.toUpperCase(), new AchievementDefinition(id, title, desc));
+            out.put(id.toUpperCase(), new AchievementDefinition(id, title, desc, trigger.isEmpty() ? null : Trigger.parse(trigger)));
         }
         return out;
     }
 
-    private static String attr(String header, String key, String defaultValue) {
-        String[] parts = header.replace("[CHAPTER", "").replace("]", "").trim().split(" ");
-        for (String p : parts) {
-            if (p.startsWith(key + "=")) {
-                return p.substring((key + "=").length()).replace('"', ' ').trim();
-            }
+    private static Map<String, String> attrs(String header) {
+        Map<String, String> out = new HashMap<>();
+        Matcher m = ATTR.matcher(header);
+        while (m.find()) {
+            out.put(m.group(1), m.group(2) != null ? m.group(2).trim() : m.group(3).replace("]", "").trim());
         }
-        return defaultValue;
+        return out;
     }
 
     private static List<String> readResourceLines(String path) {
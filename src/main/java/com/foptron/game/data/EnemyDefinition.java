@@ -9,6 +9,7 @@ public record EnemyDefinition(
         double speed,
         double handling,
         double aggression,
-        String intelligence
+        String intelligence,
+        int jetwallLength
 ) {
 }
@@ -0,0 +1,34 @@
+package com.foptron.game.data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Story chapters and achievements compiled into {@link UnlockTable}s once at load time and
+ * shared read-only by every session.
+ */
+public final class Progression {
+
+    private final UnlockTable<StoryChapter> chapters;
+    private final UnlockTable<AchievementDefinition> achievements;
+    private final Map<String, AchievementDefinition> achievementsById;
+
+    public Progression(List<StoryChapter> chapters, Map<String, AchievementDefinition> achievementsById) {
+        this.chapters = new UnlockTable<>(chapters, StoryChapter::trigger);
+        this.achievements = new UnlockTable<>(achievementsById.values(), AchievementDefinition::trigger);
+        this.achievementsById = achievementsById;
+    }
+
+    public UnlockTable<StoryChapter> chapters() {
+        return chapters;
+    }
+
+    public UnlockTable<AchievementDefinition> achievements() {
+        return achievements;
+    }
+
+    /** @param id upper-case achievement id */
+    public AchievementDefinition achievement(String id) {
+        return achievementsById.get(id);
+    }
+}
@@ -1,10 +1,16 @@
 package com.foptron.game.data;
 
+import java.util.List;
+
+/**
+ * @param choices choice ids offered once this chapter unlocks (option 1, 2, ...); empty when
+ *                the chapter asks nothing
+ */
 public record StoryChapter(
         String id,
         String title,
-        int unlockLevel,
-        String unlockOnDefeat,
+        Trigger trigger,
+        List<String> choices,
         String text
 ) {
 }
@@ -0,0 +1,43 @@
+package com.foptron.game.data;
+
+import java.util.Locale;
+
+/**
+ * When a story chapter or achievement unlocks: on reaching a level, on derezzing an enemy
+ * (by enemy id) or on a story choice (by choice id). Written as {@code LEVEL:5},
+ * {@code DEFEAT:CLU} or {@code CHOICE:RESTORE} in the data files.
+ */
+public record Trigger(Kind kind, int level, String key) {
+
+    public enum Kind {
+        LEVEL,
+        DEFEAT,
+        CHOICE
+    }
+
+    public static Trigger level(int level) {
+        return new Trigger(Kind.LEVEL, level, null);
+    }
+
+    public static Trigger defeat(String enemyId) {
+        return new Trigger(Kind.DEFEAT, 0, enemyId.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public static Trigger choice(String choiceId) {
+        return new Trigger(Kind.CHOICE, 0, choiceId.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /** Parses {@code KIND:value}, case-insensitively. */
+    public static Trigger parse(String spec) {
+        int colon = spec.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Trigger must be KIND:value: " + spec);
+        }
+        String value = spec.substring(colon + 1).trim();
+        return switch (Kind.valueOf(spec.substring(0, colon).trim().toUpperCase(Locale.ROOT))) {
+            case LEVEL -> level(Integer.parseInt(value));
+            case DEFEAT -> defeat(value);
+            case CHOICE -> choice(value);
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.foptron.game.data;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Items (chapters, achievements) grouped by their {@link Trigger}, so each game event looks
+ * up only what it can unlock: a level range is a sub-map of a sorted map, a defeat or
+ * choice is one hash lookup. Immutable; items keep their file order within a group.
+ */
+public final class UnlockTable<T> {
+
+    private final NavigableMap<Integer, List<T>> byLevel = new TreeMap<>();
+    private final Map<String, List<T>> byDefeat = new HashMap<>();
+    private final Map<String, List<T>> byChoice = new HashMap<>();
+
+    /** Items whose trigger is null are left out; the session awards them directly. */
+    public UnlockTable(Collection<T> items, Function<T, Trigger> triggerOf) {
+        for (T item : items) {
+            Trigger t = triggerOf.apply(item);
+            if (t == null) continue;
+            List<T> group = switch (t.kind()) {
+                case LEVEL -> byLevel.computeIfAbsent(t.level(), k -> new ArrayList<>());
+                case DEFEAT -> byDefeat.computeIfAbsent(t.key(), k -> new ArrayList<>());
+                case CHOICE -> byChoice.computeIfAbsent(t.key(), k -> new ArrayList<>());
+            };
+            group.add(item);
+        }
+    }
+
+    /** Visits the items for levels {@code (fromExclusive, toInclusive]}, lowest level first. */
+    public void forLevels(int fromExclusive, int toInclusive, Consumer<T> action) {
+        if (toInclusive <= fromExclusive) return;
+        for (List<T> group : byLevel.subMap(fromExclusive, false, toInclusive, true).values()) {
+            group.forEach(action);
+        }
+    }
+
+    /** @param enemyId upper-case enemy id */
+    public List<T> onDefeat(String enemyId) {
+        return byDefeat.getOrDefault(enemyId, List.of());
+    }
+
+    /** @param choiceId upper-case choice id */
+    public List<T> onChoice(String choiceId) {
+        return byChoice.getOrDefault(choiceId, List.of());
+    }
+}
@@ -0,0 +1,57 @@
+package com.foptron.game.engine;
+
+import com.foptron.game.model.Arena;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serialized arena layouts by {@link Arena#contentHash()}, for the layout endpoint. Keyframes
+ * only name the hash, so a client fetches each layout once. Data-file arenas are pinned;
+ * procedural ones, which every session and level can roll afresh, sit in a bounded LRU.
+ */
+final class ArenaLayouts {
+
+    private final Map<String, byte[]> pinned = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> recent;
+
+    ArenaLayouts(Collection<Arena> fixed, int capacity) {
+        for (Arena a : fixed) {
+            pinned.put(a.contentHash(), serialize(a));
+        }
+        int max = Math.max(1, capacity);
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > max;
+            }
+        };
+    }
+
+    /** Makes {@code arena} fetchable by its hash; cheap when it already is. */
+    void remember(Arena arena) {
+        String hash = arena.contentHash();
+        if (pinned.containsKey(hash)) return;
+        synchronized (recent) {
+            if (recent.get(hash) == null) {
+                recent.put(hash, serialize(arena));
+            }
+        }
+    }
+
+    /** The layout for {@code hash}, or null if it was never seen or has been evicted. */
+    byte[] layout(String hash) {
+        byte[] layout = pinned.get(hash);
+        if (layout != null) return layout;
+        synchronized (recent) {
+            return recent.get(hash);
+        }
+    }
+
+    private static byte[] serialize(Arena arena) {
+        return arena.layout().getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,22 @@
+package com.foptron.game.engine;
+
+/**
+ * Broadcast pipeline timings, per stage. Snapshot is building a frame on the tick thread;
+ * handoff is how long a frame waited in the ring; send is serializing it and handing it to
+ * the transports on the sender thread. Averages are over all frames since startup.
+ */
+public record BroadcastStats(
+        boolean pipelined,
+        long sent,
+        long dropped,
+        long errors,
+        int queued,
+        int capacity,
+        double snapshotAvgUs,
+        double snapshotMaxUs,
+        double handoffAvgUs,
+        double handoffMaxUs,
+        double sendAvgUs,
+        double sendMaxUs
+) {
+}
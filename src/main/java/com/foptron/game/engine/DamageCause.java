@@ -0,0 +1,11 @@
+package com.foptron.game.engine;
+
+/** What took the player's last life, for run statistics. */
+public enum DamageCause {
+    BOUNDARY,
+    WALL,
+    JETWALL,
+    CYCLE,
+    DISC,
+    FALL
+}
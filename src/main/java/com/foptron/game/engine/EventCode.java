@@ -0,0 +1,83 @@
+package com.foptron.game.engine;
+
+/**
+ * Every kind of event a session can log. Templates use {@code {s}} for the subject
+ * (a cycle, arena, chapter or achievement name) and {@code {0}}..{@code {2}} for numeric args.
+ */
+public enum EventCode {
+    CHOICE_MADE(Category.SYS, "Choice made: {s}."),
+    DISC_THROWN(Category.PLAYER, "{s} throws a disc."),
+    DISC_BLOCKED(Category.SYS, "Disc throw blocked."),
+    DISC_RECAPTURED(Category.PLAYER, "{s} recaptures a disc — energy restored!"),
+    PLAYER_FELL(Category.SYS, "{s} falls off the open Grid (all lives lost)!"),
+    ENEMY_FELL(Category.ENEMY, "{s} falls off the open Grid (derez)!"),
+    ENEMY_CLIPS_JETWALL(Category.ENEMY, "{s} clips a jetwall (-0.1 lives)!"),
+    ENEMY_SCRAPES_WALL(Category.ENEMY, "{s} scrapes a wall (-0.1 lives)!"),
+    PLAYER_HITS_BOUNDARY(Category.PLAYER, "{s} collides with boundary wall (-0.5 lives)!"),
+    PLAYER_HITS_WALL(Category.PLAYER, "{s} collides with wall (-0.5 lives)!"),
+    PLAYER_HITS_JETWALL(Category.PLAYER, "{s} collides with jetwall (-0.5 lives)!"),
+    PLAYER_HITS_ENEMY(Category.PLAYER, "{s} collides with an enemy (-0.5 lives)!"),
+    ENEMY_BUMPS_PLAYER(Category.ENEMY, "{s} bumps the player (-0.1 lives)!"),
+    ENEMY_RAMS_PLAYER(Category.ENEMY, "{s} collides with the player (-0.1 lives)!"),
+    PLAYER_RAMMED(Category.PLAYER, "{s} is hit by an enemy (-0.5 lives)!"),
+    ENEMY_COLLIDES(Category.ENEMY, "{s} collides (-0.1 lives)!"),
+    PLAYER_DISC_HIT(Category.PLAYER, "{s} is struck by a disc (-1 life)!"),
+    ENEMY_DISC_HIT(Category.ENEMY, "{s} is struck by a disc (-1 life)!"),
+    JETWALLS_CLEARED(Category.SYS, "Jetwalls cleared."),
+    ENEMY_DEREZZED(Category.SYS, "{s} derezzed."),
+    DRONES_DEREZZED(Category.ENEMY, "Drones derezzed: {0} ({1} left)."),
+    LEVEL_START(Category.SYS, "Level Start: L{0} (Chapter {1}, stage {2}) — {s}"),
+    LEVEL_COMPLETE(Category.SYS, "Level {0} complete. +{1} XP."),
+    LEVEL_FAILED(Category.SYS, "Derezzed. Restarting level {0}."),
+    RUN_COMPLETE(Category.SYS, "System: Run complete."),
+    RUN_EXITED(Category.SYS, "System: Exited to main menu."),
+    STORY_UNLOCKED(Category.SYS, "Story unlocked: {s}"),
+    ACHIEVEMENT_UNLOCKED(Category.ACH, "Achievement unlocked: {s}");
+
+    public enum Category {
+        SYS("[SYS]"),
+        PLAYER("[P]"),
+        ENEMY("[E]"),
+        ACH("[ACH]");
+
+        public final String tag;
+
+        Category(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    public final Category category;
+    private final String template;
+
+    EventCode(Category category, String template) {
+        this.category = category;
+        this.template = template;
+    }
+
+    /** Renders the log line, including the category tag, e.g. {@code "[SYS] Jetwalls cleared."}. */
+    public String format(String subject, long a0, long a1, long a2) {
+        StringBuilder sb = new StringBuilder(category.tag.length() + template.length() + 24);
+        sb.append(category.tag).append(' ');
+        for (int i = 0; i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (c == '{' && i + 2 < template.length() && template.charAt(i + 2) == '}') {
+                char k = template.charAt(i + 1);
+                switch (k) {
+                    case 's' -> sb.append(subject);
+                    case '0' -> sb.append(a0);
+                    case '1' -> sb.append(a1);
+                    case '2' -> sb.append(a2);
+                    default -> {
+                        sb.append(c);
+                        continue;
+                    }
+                }
+                i += 2;
+                continue;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.foptron.game.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Preallocated ring of structured session events. Recording stores a code, a subject
+ * reference, three numeric args and the step index; nothing is formatted until a reader
+ * asks for text, and each slot caches its text once built. Sequence numbers start at 1 and
+ * never repeat, so readers can ask for everything after the last one they saw.
+ * Not thread-safe; owned by the session's tick thread.
+ */
+final class EventLog {
+
+    static final int DEFAULT_CAPACITY = 64;
+
+    private final int mask;
+    private final EventCode[] codes;
+    private final String[] subjects;
+    private final long[] args;
+    private final long[] ticks;
+    private final String[] text;
+    private long lastSeq;
+
+    EventLog(int capacity) {
+        int cap = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = cap - 1;
+        this.codes = new EventCode[cap];
+        this.subjects = new String[cap];
+        this.args = new long[cap * 3];
+        this.ticks = new long[cap];
+        this.text = new String[cap];
+    }
+
+    void record(EventCode code, String subject, long tick, long a0, long a1, long a2) {
+        long seq = ++lastSeq;
+        int i = (int) (seq & mask);
+        codes[i] = code;
+        subjects[i] = subject;
+        args[i * 3] = a0;
+        args[i * 3 + 1] = a1;
+        args[i * 3 + 2] = a2;
+        ticks[i] = tick;
+        text[i] = null;
+    }
+
+    long lastSeq() {
+        return lastSeq;
+    }
+
+    /** Oldest sequence number still held. */
+    long firstSeq() {
+        return Math.max(1, lastSeq - mask);
+    }
+
+    EventCode code(long seq) {
+        return codes[(int) (seq & mask)];
+    }
+
+    long tick(long seq) {
+        return ticks[(int) (seq & mask)];
+    }
+
+    String text(long seq) {
+        int i = (int) (seq & mask);
+        String t = text[i];
+        if (t == null) {
+            t = codes[i].format(subjects[i], args[i * 3], args[i * 3 + 1], args[i * 3 + 2]);
+            text[i] = t;
+        }
+        return t;
+    }
+
+    /** Up to {@code n} most recent lines, newest first. */
+    List<String> recent(int n) {
+        long from = Math.max(firstSeq(), lastSeq - n + 1);
+        List<String> out = new ArrayList<>((int) Math.max(0, lastSeq - from + 1));
+        for (long seq = lastSeq; seq >= from; seq--) {
+            out.add(text(seq));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,141 @@
+package com.foptron.game.engine;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Spawn candidates for the current arena, kept in sync by {@link OccupancyGrid}.
+ * "Vacant" cells have no terrain, jetwall or cycle; each quadrant set holds the cells of
+ * that spawn quadrant with no terrain or jetwall. All sets are dense/sparse pairs, so
+ * membership updates, uniform sampling and salted picks are O(1). A cell is in at most one
+ * quadrant, so the four quadrant sets share one sparse array and size their dense arrays to
+ * the quadrant; the whole index costs about 16 bytes per cell.
+ */
+final class FreeCellIndex {
+
+    static final int NONE = -1;
+
+    private final DenseSet vacant;
+    private final DenseSet[] quadrants = new DenseSet[4];
+    private final byte[] quadrantOf;
+
+    FreeCellIndex(int width, int height) {
+        int cells = width * height;
+        vacant = new DenseSet(cells, new int[cells]);
+        quadrantOf = new byte[cells];
+        Arrays.fill(quadrantOf, (byte) NONE);
+        int[] quadrantSize = new int[4];
+
+        // Quadrants 0..3 = top-left, top-right, bottom-left, bottom-right, two cells in from
+        // the border and two cells clear of the centre lines.
+        int loMaxX = width / 2 - 3;
+        int hiMinX = width / 2 + 2;
+        int loMaxY = height / 2 - 3;
+        int hiMinY = height / 2 + 2;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int qx = x >= 2 && x <= loMaxX ? 0 : x >= hiMinX && x <= width - 3 ? 1 : NONE;
+                int qy = y >= 2 && y <= loMaxY ? 0 : y >= hiMinY && y <= height - 3 ? 1 : NONE;
+                if (qx == NONE || qy == NONE) continue;
+                quadrantOf[y * width + x] = (byte) (qy * 2 + qx);
+                quadrantSize[qy * 2 + qx]++;
+            }
+        }
+        int[] sharedSlots = new int[cells];
+        for (int q = 0; q < 4; q++) {
+            quadrants[q] = new DenseSet(quadrantSize[q], sharedSlots);
+        }
+    }
+
+    void clear() {
+        vacant.clear();
+        for (DenseSet q : quadrants) {
+            q.clear();
+        }
+    }
+
+    /**
+     * @param open   no terrain and no jetwall
+     * @param empty  open and no cycle standing there
+     */
+    void update(int idx, boolean open, boolean empty) {
+        vacant.set(idx, empty);
+        int q = quadrantOf[idx];
+        if (q != NONE) {
+            quadrants[q].set(idx, open);
+        }
+    }
+
+    int vacantCount() {
+        return vacant.size;
+    }
+
+    /** Uniformly random vacant cell, or {@link #NONE}. */
+    int sampleVacant(Random rng) {
+        return vacant.sample(rng);
+    }
+
+    /** Vacant cell chosen by {@code salt}; the same history and salt give the same cell. */
+    int pickVacant(int salt) {
+        return vacant.pick(salt);
+    }
+
+    int quadrantCount(int quadrant) {
+        return quadrants[quadrant].size;
+    }
+
+    int sampleInQuadrant(int quadrant, Random rng) {
+        return quadrants[quadrant].sample(rng);
+    }
+
+    int pickInQuadrant(int quadrant, int salt) {
+        return quadrants[quadrant].pick(salt);
+    }
+
+    private static final class DenseSet {
+        private final int[] dense;
+        // 1-based slot in dense, 0 = absent, so a fresh array needs no fill.
+        private final int[] slot;
+        private int size;
+
+        DenseSet(int capacity, int[] slot) {
+            this.dense = new int[capacity];
+            this.slot = slot;
+        }
+
+        void set(int idx, boolean member) {
+            if (member) add(idx);
+            else remove(idx);
+        }
+
+        void add(int idx) {
+            if (slot[idx] != 0) return;
+            dense[size] = idx;
+            slot[idx] = ++size;
+        }
+
+        void remove(int idx) {
+            int s = slot[idx];
+            if (s == 0) return;
+            int last = dense[--size];
+            dense[s - 1] = last;
+            slot[last] = s;
+            slot[idx] = 0;
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                slot[dense[i]] = 0;
+            }
+            size = 0;
+        }
+
+        int sample(Random rng) {
+            return size == 0 ? NONE : dense[rng.nextInt(size)];
+        }
+
+        int pick(int salt) {
+            return size == 0 ? NONE : dense[Math.floorMod(salt, size)];
+        }
+    }
+}
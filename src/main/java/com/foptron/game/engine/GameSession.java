@@ -4,9 +4,10 @@ import com.foptron.game.ai.Brains;
 import com.foptron.game.ai.EnemyAction;
 import com.foptron.game.ai.EnemyBrain;
 import com.foptron.game.combat.Disc;
+import com.foptron.game.combat.DiscPool;
 import com.foptron.game.data.AchievementDefinition;
-import com.foptron.game.data.ArenaLoader;
 import com.foptron.game.data.EnemyDefinition;
+import com.foptron.game.data.Progression;
 import com.foptron.game.data.StoryChapter;
 import com.foptron.game.entity.Cycle;
 import com.foptron.game.entity.EnemyCycle;
@@ -17,6 +18,11 @@ import com.foptron.game.model.Pos;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 public final class GameSession {
 
@@ -28,9 +34,8 @@ public final class GameSession {
     private final PlayerCycle player;
     private final List<EnemyCycle> enemies = new ArrayList<>();
 
-    private final Map<String, Arena> arenasById;
     private final Map<String, EnemyDefinition> enemiesById;
-    private final Map<String, AchievementDefinition> achievementsById;
+    private final Progression progression;
     private final String arenaMode;
     private final boolean manualStepMode;
 
@@ -38,26 +43,50 @@ public final class GameSession {
 
     private final Map<String, EnemyBrain> brainsByEnemyId = new HashMap<>();
 
-    private final Map<Pos, String> trailColors = new HashMap<>();
-    private final Map<String, Disc> discsById = new HashMap<>();
-
-    private final Deque<String> events = new ArrayDeque<>();
+    // Terrain, jetwalls and cycle positions for the current arena; each level brings its own.
+    private OccupancyGrid occupancy;
+    private final LevelPlanner planner;
+    // Builds the next level's plan while this one plays; null builds it on level change.
+    private final Executor levelPrewarm;
+    private CompletableFuture<LevelPlan> nextPlan;
+    // Resolved in slot order, which is reproducible for a given seed.
+    private final DiscPool discs;
+    private final MoveResolver moves = new MoveResolver();
+    // Mass-battle drones; empty (capacity 0) in the story mode.
+    private final Swarm swarm;
+    private int dronesDerezzed;
+    // Set in the limited-length jetwall mode; each owner's oldest cell expires as it lays a new one.
+    private final boolean limitedJetwalls;
+    private final JetwallRings jetwalls = new JetwallRings();
+
+    private final EventLog events = new EventLog(EventLog.DEFAULT_CAPACITY);
 
     private final Set<String> achievementTitles = new LinkedHashSet<>();
     private final Set<String> achievedIds = new HashSet<>();
     private final Set<String> unlockedChapters = new LinkedHashSet<>();
+    // Level triggers are fired once per level, as the level is reached.
+    private int levelTriggersFired;
 
-    private final List<StoryChapter> chapters;
-
+    private final SimulationClock clock;
+    private final long fixedStepMs;
+    private final int maxStepsPerFrame;
     private long lastTickMs;
+    private long accumulatorMs;
     private boolean running;
     private boolean victory;
 
     private int highestLevelAchieved;
     private long totalScore;
 
+    private DamageCause lastPlayerDamageCause;
+    private final Map<DamageCause, Integer> deathsByCause = new EnumMap<>(DamageCause.class);
+    private int playerDeaths;
+    private final Map<String, Integer> derezzesByEnemyId = new TreeMap<>();
+
     private StoryChapter currentStory;
     private boolean awaitingEndingChoice;
+    // Choice ids offered by the chapter awaiting a choice, option 1 first.
+    private List<String> pendingChoices = List.of();
 
     public GameSession(
             String sessionId,
@@ -66,31 +95,61 @@ public final class GameSession {
             PlayerCycle player,
             Map<String, Arena> arenasById,
             Map<String, EnemyDefinition> enemiesById,
-            List<StoryChapter> chapters,
-            Map<String, AchievementDefinition> achievementsById,
+            Progression progression,
             boolean manualStepMode
+    ) {
+        this(sessionId, playerName, arenaMode, player, arenasById, enemiesById, progression,
+                manualStepMode, SimulationSettings.defaults());
+    }
+
+    public GameSession(
+            String sessionId,
+            String playerName,
+            String arenaMode,
+            PlayerCycle player,
+            Map<String, Arena> arenasById,
+            Map<String, EnemyDefinition> enemiesById,
+            Progression progression,
+            boolean manualStepMode,
+            SimulationSettings settings
     ) {
         this.sessionId = sessionId;
         this.playerName = playerName == null || playerName.isBlank() ? "Player" : playerName.trim();
         this.player = player;
-        this.arenasById = arenasById;
         this.enemiesById = enemiesById;
-        this.chapters = chapters;
-        this.achievementsById = achievementsById;
+        this.progression = progression;
         this.arenaMode = arenaMode == null || arenaMode.isBlank() ? "AUTO" : arenaMode.trim().toUpperCase();
         this.manualStepMode = manualStepMode;
 
+        this.clock = settings.clock();
+        this.fixedStepMs = settings.fixedStepMs();
+        this.maxStepsPerFrame = Math.max(1, settings.maxStepsPerFrame());
+        this.discs = new DiscPool(DiscPool.DEFAULT_CAPACITY, settings.maxLandedDiscs());
+        this.swarm = new Swarm(settings.swarmSize());
+        this.limitedJetwalls = settings.limitedJetwalls();
+
         // In manual mode, keep behavior deterministic across runs.
-        this.rng = manualStepMode
-            ? new Random(Objects.hash(sessionId, this.playerName, this.arenaMode))
-            : new Random(Objects.hash(sessionId, Instant.now().toEpochMilli()));
-        this.lastTickMs = System.currentTimeMillis();
+        if (settings.seed() != null) {
+            this.rng = new Random(settings.seed());
+        } else {
+            this.rng = manualStepMode
+                ? new Random(Objects.hash(sessionId, this.playerName, this.arenaMode))
+                : new Random(Objects.hash(sessionId, Instant.now().toEpochMilli()));
+        }
+        long planSeed = settings.seed() != null
+            ? settings.seed()
+            : Objects.hash(sessionId, this.playerName, this.arenaMode, manualStepMode ? 0L : Instant.now().toEpochMilli());
+        this.planner = new LevelPlanner(sessionId, this.playerName, this.arenaMode, arenasById, enemiesById,
+                manualStepMode, swarm.capacity(), planSeed);
+        this.levelPrewarm = settings.levelPrewarm();
+        this.lastTickMs = clock.nowMs();
         this.running = true;
         this.highestLevelAchieved = player.level();
         this.totalScore = 0;
 
         this.stepIndex = 0;
 
+        player.assignSlot(OccupancyGrid.PLAYER_SLOT);
         startLevel(true);
     }
 
@@ -127,14 +186,41 @@ public final class GameSession {
     }
 
     public Collection<Disc> discs() {
-        return discsById.values();
+        return discs.view();
+    }
+
+    /** True when the session fights a drone swarm instead of the story enemies. */
+    public boolean isMassBattle() {
+        return swarm.isEnabled();
+    }
+
+    public int dronesAlive() {
+        return swarm.aliveCount();
+    }
+
+    Swarm swarm() {
+        return swarm;
+    }
+
+    OccupancyGrid occupancy() {
+        return occupancy;
     }
 
+    /** Read-only view over the occupancy grid's jetwall layer. */
     public Map<Pos, String> trailColors() {
-        return trailColors;
+        return occupancy.trailView();
+    }
+
+    /** Up to {@code n} most recent log lines, newest first. */
+    public List<String> recentEvents(int n) {
+        return events.recent(n);
+    }
+
+    public long lastEventSeq() {
+        return events.lastSeq();
     }
 
-    public Deque<String> events() {
+    EventLog eventLog() {
         return events;
     }
 
@@ -152,18 +238,14 @@ public final class GameSession {
 
     public void applyChoice(int option) {
         if (!awaitingEndingChoice) return;
-        if (option != 1 && option != 2) return;
+        if (option < 1 || option > pendingChoices.size()) return;
 
+        String choice = pendingChoices.get(option - 1);
         awaitingEndingChoice = false;
-        if (option == 1) {
-            setStoryById("END_RESTORE");
-            awardAchievementTitle("Ending: Restore the Grid");
-            logSys("Choice made: Restore the Grid.");
-        } else {
-            setStoryById("END_REWRITE");
-            awardAchievementTitle("Ending: Rewrite the System");
-            logSys("Choice made: Rewrite the System.");
-        }
+        pendingChoices = List.of();
+        log(EventCode.CHOICE_MADE, choice);
+        unlockChapters(progression.chapters().onChoice(choice));
+        awardAchievements(progression.achievements().onChoice(choice));
     }
 
     public boolean isRunning() {
@@ -182,6 +264,22 @@ public final class GameSession {
         return totalScore;
     }
 
+    public int playerDeaths() {
+        return playerDeaths;
+    }
+
+    public DamageCause lastPlayerDamageCause() {
+        return lastPlayerDamageCause;
+    }
+
+    public Map<DamageCause, Integer> deathsByCause() {
+        return deathsByCause;
+    }
+
+    public Map<String, Integer> derezzesByEnemyId() {
+        return derezzesByEnemyId;
+    }
+
     public void applyInput(Direction direction, boolean throwDisc) {
         if (!running) return;
 
@@ -199,9 +297,9 @@ public final class GameSession {
 
         if (throwDisc && player.canThrowDisc()) {
             if (spawnDisc(player)) {
-                logPlayer(player.displayName() + " throws a disc.");
+                log(EventCode.DISC_THROWN, player.displayName());
             } else {
-                logSys("Disc throw blocked.");
+                log(EventCode.DISC_BLOCKED);
             }
         }
     }
@@ -223,19 +321,43 @@ public final class GameSession {
         startLevel(true);
     }
 
+    /**
+     * Advances the game by the real (or virtual) time elapsed since the previous call.
+     * With a fixed step the elapsed time is accumulated and spent in whole steps, at most
+     * {@code maxStepsPerFrame} per call; anything beyond that is dropped rather than replayed.
+     */
     public void tick() {
-        long now = System.currentTimeMillis();
-        long dt = Math.min(250, Math.max(16, now - lastTickMs));
+        long now = clock.nowMs();
+        long elapsed = Math.max(0, now - lastTickMs);
         lastTickMs = now;
 
         if (!running) return;
 
+        if (fixedStepMs <= 0) {
+            simulateStep(Math.min(250, Math.max(16, elapsed)));
+            return;
+        }
+
+        accumulatorMs += elapsed;
+        int steps = 0;
+        while (accumulatorMs >= fixedStepMs && steps < maxStepsPerFrame && running) {
+            simulateStep(fixedStepMs);
+            accumulatorMs -= fixedStepMs;
+            steps++;
+        }
+        if (accumulatorMs >= fixedStepMs) {
+            accumulatorMs %= fixedStepMs;
+        }
+    }
+
+    private void simulateStep(long dt) {
         stepIndex++;
 
         player.tickTimers(dt);
         for (EnemyCycle e : enemies) {
             e.tickTimers(dt);
         }
+        swarm.tickTimers(dt);
 
         // AI decisions.
         for (EnemyCycle e : enemies) {
@@ -252,25 +374,22 @@ public final class GameSession {
             }
         }
 
+        swarm.steer(occupancy, player.x(), player.y(), rng);
+
         // Move discs first.
         tickDiscs();
 
-        // Move cycles.
-        tickCycle(player, dt);
-        for (EnemyCycle e : enemies) {
-            tickCycle(e, dt);
-        }
+        // Move cycles; all intents of a round are resolved together.
+        moveCycles(dt);
 
-        enemies.removeIf(e -> !e.isAlive());
-        if (enemies.isEmpty() && running) {
+        removeDefeatedEnemies();
+        reportDroneLosses();
+        if (enemies.isEmpty() && swarm.aliveCount() == 0 && running) {
             onLevelCompleted();
         }
         if (!player.isAlive() && running) {
             onLevelFailed();
         }
-
-        unlockStoryForLevel(player.level());
-        updateAchievements();
     }
 
     public void stepOnce() {
@@ -284,6 +403,7 @@ public final class GameSession {
         for (EnemyCycle e : enemies) {
             e.tickTimers(dt);
         }
+        swarm.tickTimers(dt);
 
         // AI decisions (one decision per step).
         for (EnemyCycle e : enemies) {
@@ -299,25 +419,22 @@ public final class GameSession {
             }
         }
 
+        swarm.steer(occupancy, player.x(), player.y(), rng);
+
         // Discs advance one tile per step.
         tickDiscs();
 
         // Cycles advance one tile per step.
-        advanceCycleOneCell(player);
-        for (EnemyCycle e : enemies) {
-            advanceCycleOneCell(e);
-        }
+        stepCycles(true);
 
-        enemies.removeIf(e -> !e.isAlive());
-        if (enemies.isEmpty() && running) {
+        removeDefeatedEnemies();
+        reportDroneLosses();
+        if (enemies.isEmpty() && swarm.aliveCount() == 0 && running) {
             onLevelCompleted();
         }
         if (!player.isAlive() && running) {
             onLevelFailed();
         }
-
-        unlockStoryForLevel(player.level());
-        updateAchievements();
     }
 
     public void manualStep(Direction playerMove, boolean throwDisc) {
@@ -332,9 +449,9 @@ public final class GameSession {
 
         if (throwDisc && player.canThrowDisc()) {
             if (spawnDisc(player)) {
-                logPlayer(player.displayName() + " throws a disc.");
+                log(EventCode.DISC_THROWN, player.displayName());
             } else {
-                logSys("Disc throw blocked.");
+                log(EventCode.DISC_BLOCKED);
             }
         }
 
@@ -344,6 +461,7 @@ public final class GameSession {
         for (EnemyCycle e : enemies) {
             e.tickTimers(dt);
         }
+        swarm.tickTimers(dt);
 
         // Enemies decide and move one cell per manual step.
         for (EnemyCycle e : enemies) {
@@ -359,140 +477,278 @@ public final class GameSession {
             }
         }
 
+        swarm.steer(occupancy, player.x(), player.y(), rng);
+
         // Discs move one tile per step.
         tickDiscs();
 
         // Player moves at most one tile, only if a direction key was pressed.
-        if (playerMove != null) {
-            advanceCycleOneCell(player);
-        }
+        stepCycles(playerMove != null);
 
-        for (EnemyCycle e : enemies) {
-            advanceCycleOneCell(e);
-        }
-
-        enemies.removeIf(e -> !e.isAlive());
-        if (enemies.isEmpty() && running) {
+        removeDefeatedEnemies();
+        reportDroneLosses();
+        if (enemies.isEmpty() && swarm.aliveCount() == 0 && running) {
             onLevelCompleted();
         }
         if (!player.isAlive() && running) {
             onLevelFailed();
         }
-
-        unlockStoryForLevel(player.level());
-        updateAchievements();
     }
 
-    private enum CollisionKind { NONE, SOLID, TRAIL }
+    /** Continuous mode: each cycle spends its accumulated move steps, one resolver round per step. */
+    private void moveCycles(long dtMs) {
+        if (player.isAlive()) player.addMoveProgress(dtMs);
+        for (int i = 0; i < enemies.size(); i++) {
+            EnemyCycle e = enemies.get(i);
+            if (e.isAlive()) e.addMoveProgress(dtMs);
+        }
+        swarm.addMoveProgress(dtMs);
+
+        moves.beginTick();
+        while (running) {
+            moves.beginRound();
+            if (takesStep(player)) moves.add(player, occupancy);
+            for (int i = 0; i < enemies.size(); i++) {
+                EnemyCycle e = enemies.get(i);
+                if (takesStep(e)) moves.add(e, occupancy);
+            }
+            for (int i = 0; i < swarm.highWater(); i++) {
+                if (swarm.isAlive(i) && !moves.isStopped(swarm.slot(i)) && swarm.takeMoveStep(i)) {
+                    moves.add(swarm.slot(i), swarm.x(i), swarm.y(i), swarm.dir(i), occupancy);
+                }
+            }
+            if (moves.size() == 0) break;
 
-    private CollisionKind collisionKind(Pos next) {
-        if (!arena.inBounds(next)) return CollisionKind.SOLID;
-        if (arena.isSolid(next)) return CollisionKind.SOLID;
-        if (trailColors.containsKey(next)) return CollisionKind.TRAIL;
-        return CollisionKind.NONE;
+            moves.resolve(occupancy);
+            applyMoves();
+        }
     }
 
-    private boolean cycleCollisionAt(Cycle mover, Pos next) {
-        if (next.equals(player.pos()) && mover != player) return true;
-        for (EnemyCycle e : enemies) {
-            if (e == mover) continue;
-            if (next.equals(e.pos())) return true;
-        }
-        return false;
+    private boolean takesStep(Cycle cycle) {
+        if (!cycle.isAlive() || moves.isStopped(cycle) || !cycle.hasMoveStep()) return false;
+        cycle.consumeMoveStep();
+        return true;
     }
 
-    private void tickCycle(Cycle cycle, long dtMs) {
-        if (!cycle.isAlive()) return;
+    /** Step modes: every live cycle (the player only if asked) advances exactly one cell. */
+    private void stepCycles(boolean movePlayer) {
+        if (!running) return;
 
-        cycle.addMoveProgress(dtMs);
-        while (cycle.hasMoveStep() && cycle.isAlive() && running) {
-            cycle.consumeMoveStep();
-            if (!advanceCycleOneCell(cycle)) {
-                return;
-            }
+        moves.beginTick();
+        moves.beginRound();
+        if (movePlayer && player.isAlive()) moves.add(player, occupancy);
+        for (int i = 0; i < enemies.size(); i++) {
+            EnemyCycle e = enemies.get(i);
+            if (e.isAlive()) moves.add(e, occupancy);
         }
-    }
+        for (int i = 0; i < swarm.highWater(); i++) {
+            if (swarm.isAlive(i)) moves.add(swarm.slot(i), swarm.x(i), swarm.y(i), swarm.dir(i), occupancy);
+        }
+        if (moves.size() == 0) return;
+
+        moves.resolve(occupancy);
+        applyMoves();
+    }
+
+    /**
+     * Applies a resolved round: all successful moves land first, then collisions are handled
+     * in mover order. A head-on or swap between the player and an enemy is settled once.
+     */
+    private void applyMoves() {
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.outcome(i) != MoveResolver.MOVE) continue;
+            Cycle cycle = moves.mover(i);
+            if (cycle == null) {
+                moveDrone(i);
+                continue;
+            }
+            Pos next = moves.target(i);
 
-    private boolean advanceCycleOneCell(Cycle cycle) {
-        if (!cycle.isAlive()) return false;
-        if (!running) return false;
+            // Leave jetwall where you were.
+            occupancy.placeTrail(moves.fromCell(i), cycle.color(), cycle.slot());
+            cycle.trail().extend(cycle.packedPos());
+            if (limitedJetwalls) {
+                trimJetwall(cycle.slot(), cycle.jetwallLength(), moves.fromCell(i), cycle);
+            }
 
-        Pos next = cycle.pos().add(cycle.dir());
+            placeCycle(cycle, next, cycle.dir());
 
-        if (!arena.inBounds(next)) {
-            if (arena.isOpen()) {
-                if (cycle == player) {
-                    logSys(player.displayName() + " falls off the open Grid (all lives lost)!");
-                    cycle.applyDamage(cycle.lives());
-                } else {
-                    cycle.applyDamage(cycle.lives());
-                    logEnemy(cycle.displayName() + " falls off the open Grid (derez)!");
-                }
-                return false;
+            if (occupancy.isRamp(moves.targetCell(i))) {
+                cycle.applyRampBoost(0.15, 3.0);
             }
 
-            if (cycle == player) {
-                applyWallCollision(player, "boundary wall", false);
-            } else {
-                cycle.setPosition(cycle.pos(), opposite(cycle.dir()));
-            }
-            return false;
+            recaptureIfPossible(cycle);
         }
 
-        CollisionKind kind = collisionKind(next);
-        boolean cycleHit = cycleCollisionAt(cycle, next);
-        if (kind != CollisionKind.NONE || cycleHit) {
-            if (cycle == player) {
-                if (kind == CollisionKind.TRAIL) {
-                    applyWallCollision(player, "jetwall", true);
-                } else if (kind == CollisionKind.SOLID) {
-                    applyWallCollision(player, "wall", false);
+        for (int i = 0; i < moves.size(); i++) {
+            byte outcome = moves.outcome(i);
+            if (outcome == MoveResolver.MOVE || outcome == MoveResolver.RESOLVED) continue;
+            Cycle cycle = moves.mover(i);
+            if (!running) continue;
+
+            if (cycle == null) {
+                crashDrone(i, outcome);
+            } else if (!cycle.isAlive()) {
+                continue;
+            } else if (outcome == MoveResolver.OUT_OF_BOUNDS) {
+                leaveArena(cycle);
+                continue;
+            } else if (cycle == player) {
+                if (outcome == MoveResolver.TRAIL) {
+                    applyWallCollision(player, DamageCause.JETWALL);
+                } else if (outcome == MoveResolver.SOLID) {
+                    applyWallCollision(player, DamageCause.WALL);
+                } else if (swarm.isSlot(moves.otherSlot(i))) {
+                    applyDroneCollisionAsPlayer(swarm.indexOfSlot(moves.otherSlot(i)));
                 } else {
-                    applyCycleCollisionAsPlayer(next);
+                    applyCycleCollisionAsPlayer(cycleBySlot(moves.otherSlot(i)));
                 }
             } else {
                 EnemyCycle enemy = (EnemyCycle) cycle;
-                if (kind == CollisionKind.TRAIL) {
+                if (outcome == MoveResolver.TRAIL) {
                     enemy.applyDamage(0.1);
-                    logEnemy(enemy.displayName() + " clips a jetwall (-0.1 lives)!");
+                    log(EventCode.ENEMY_CLIPS_JETWALL, enemy.displayName());
                     clearJetwalls();
                     if (enemy.isAlive()) respawnEnemy(enemy);
-                } else if (kind == CollisionKind.SOLID) {
+                } else if (outcome == MoveResolver.SOLID) {
                     enemy.applyDamage(0.1);
-                    logEnemy(enemy.displayName() + " scrapes a wall (-0.1 lives)!");
+                    log(EventCode.ENEMY_SCRAPES_WALL, enemy.displayName());
                     if (enemy.isAlive()) respawnEnemy(enemy);
                 } else {
-                    applyCycleCollisionAsEnemy(enemy, next);
+                    applyCycleCollisionAsEnemy(enemy, cycleBySlot(moves.otherSlot(i)));
                 }
 
                 if (!enemy.isAlive()) {
                     onEnemyDefeated(enemy);
                 }
             }
-            return false;
+
+            int partner = moves.partner(i);
+            if (partner != MoveResolver.NONE && (cycle == player || moves.mover(partner) == player)) {
+                moves.markResolved(partner);
+            }
         }
+    }
 
-        // Leave jetwall where you were.
-        trailColors.put(cycle.pos(), cycle.color());
-        cycle.trail().add(cycle.pos());
+    private void moveDrone(int m) {
+        int d = swarm.indexOfSlot(moves.slot(m));
+        int from = moves.fromCell(m);
+        int to = moves.targetCell(m);
 
-        // Move.
-        cycle.setPosition(next, cycle.dir());
+        occupancy.placeTrail(from, Swarm.COLOR, moves.slot(m));
+        if (limitedJetwalls) {
+            trimJetwall(moves.slot(m), 0, from, null);
+        }
+        if (occupancy.cycleAt(from) == moves.slot(m)) occupancy.clearCycle(from);
+        swarm.moveTo(d, moves.targetX(m), moves.targetY(m));
+        occupancy.setCycle(to, moves.slot(m));
 
-        if (arena.isRamp(next)) {
-            cycle.applyRampBoost(0.15, 3.0);
+        if (occupancy.isRamp(to)) {
+            swarm.rampBoost(d);
         }
+    }
 
-        recaptureIfPossible(cycle);
-        return true;
+    /**
+     * Records a newly laid jetwall cell and expires the owner's oldest one once the wall is
+     * longer than {@code length} (0 = {@link SimulationSettings#DEFAULT_JETWALL_LENGTH}).
+     * {@code cycle} is null for drones, which keep no polyline.
+     */
+    private void trimJetwall(int owner, int length, int cell, Cycle cycle) {
+        int max = length > 0 ? length : SimulationSettings.DEFAULT_JETWALL_LENGTH;
+        int oldest = jetwalls.push(owner, max, cell);
+        if (oldest == JetwallRings.NONE) return;
+        occupancy.expireTrail(oldest, owner);
+        if (cycle != null) cycle.trail().dropOldest();
+    }
+
+    /** Drones have one life: anything but bouncing off a closed arena's edge derezzes them. */
+    private void crashDrone(int m, byte outcome) {
+        int d = swarm.indexOfSlot(moves.slot(m));
+        if (!swarm.isAlive(d)) return;
+
+        if (outcome == MoveResolver.OUT_OF_BOUNDS && !arena.isOpen()) {
+            swarm.reverse(d);
+            return;
+        }
+        if (outcome == MoveResolver.CYCLE && moves.otherSlot(m) == OccupancyGrid.PLAYER_SLOT
+                && player.isAlive() && !player.isRespawnProtected()) {
+            player.applyDamage(0.5);
+            lastPlayerDamageCause = DamageCause.CYCLE;
+            log(EventCode.PLAYER_RAMMED, player.displayName());
+            if (player.isAlive()) respawnPlayer();
+        }
+        derezDrone(d);
+    }
+
+    private void applyDroneCollisionAsPlayer(int d) {
+        if (player.isRespawnProtected()) return;
+
+        player.applyDamage(0.5);
+        lastPlayerDamageCause = DamageCause.CYCLE;
+        log(EventCode.PLAYER_HITS_ENEMY, player.displayName());
+        derezDrone(d);
+
+        if (player.isAlive()) {
+            respawnPlayer();
+        }
+    }
+
+    private void derezDrone(int d) {
+        if (!swarm.isAlive(d)) return;
+        int cell = occupancy.index(swarm.x(d), swarm.y(d));
+        if (occupancy.cycleAt(cell) == swarm.slot(d)) occupancy.clearCycle(cell);
+        swarm.kill(d);
+        dronesDerezzed++;
+    }
+
+    /** One log line per step for drone losses; a swarm can lose dozens at once. */
+    private void reportDroneLosses() {
+        if (dronesDerezzed == 0) return;
+        derezzesByEnemyId.merge(Swarm.STATS_ID, dronesDerezzed, Integer::sum);
+        log(EventCode.DRONES_DEREZZED, null, dronesDerezzed, swarm.aliveCount(), 0);
+        dronesDerezzed = 0;
+    }
+
+    private void leaveArena(Cycle cycle) {
+        if (arena.isOpen()) {
+            if (cycle == player) {
+                log(EventCode.PLAYER_FELL, player.displayName());
+                lastPlayerDamageCause = DamageCause.FALL;
+                cycle.applyDamage(cycle.lives());
+            } else {
+                cycle.applyDamage(cycle.lives());
+                log(EventCode.ENEMY_FELL, cycle.displayName());
+            }
+            return;
+        }
+
+        if (cycle == player) {
+            applyWallCollision(player, DamageCause.BOUNDARY);
+        } else {
+            cycle.setPosition(cycle.pos(), opposite(cycle.dir()));
+        }
     }
 
-    private void applyWallCollision(PlayerCycle p, String reason, boolean jetwall) {
+    private Cycle cycleBySlot(int slot) {
+        if (slot == OccupancyGrid.PLAYER_SLOT) return player;
+        for (int i = 0; i < enemies.size(); i++) {
+            EnemyCycle e = enemies.get(i);
+            if (e.slot() == slot) return e;
+        }
+        return null;
+    }
+
+    private void applyWallCollision(PlayerCycle p, DamageCause cause) {
         if (p.isRespawnProtected()) return;
 
         p.applyDamage(0.5);
-        logPlayer(p.displayName() + " collides with " + reason + " (-0.5 lives)!");
-        if (jetwall) {
+        lastPlayerDamageCause = cause;
+        log(switch (cause) {
+            case BOUNDARY -> EventCode.PLAYER_HITS_BOUNDARY;
+            case JETWALL -> EventCode.PLAYER_HITS_JETWALL;
+            default -> EventCode.PLAYER_HITS_WALL;
+        }, p.displayName());
+        if (cause == DamageCause.JETWALL) {
             clearJetwalls();
         }
         if (p.isAlive()) {
@@ -500,22 +756,20 @@ public final class GameSession {
         }
     }
 
-    private void applyCycleCollisionAsPlayer(Pos next) {
+    private void applyCycleCollisionAsPlayer(Cycle other) {
         if (player.isRespawnProtected()) return;
 
         player.applyDamage(0.5);
-        logPlayer(player.displayName() + " collides with an enemy (-0.5 lives)!");
-
-        for (EnemyCycle e : enemies) {
-            if (next.equals(e.pos()) && e.isAlive()) {
-                e.applyDamage(0.1);
-                logEnemy(e.displayName() + " bumps the player (-0.1 lives)!");
-                if (!e.isAlive()) {
-                    onEnemyDefeated(e);
-                } else {
-                    respawnEnemy(e);
-                }
-                break;
+        lastPlayerDamageCause = DamageCause.CYCLE;
+        log(EventCode.PLAYER_HITS_ENEMY, player.displayName());
+
+        if (other instanceof EnemyCycle e && e.isAlive()) {
+            e.applyDamage(0.1);
+            log(EventCode.ENEMY_BUMPS_PLAYER, e.displayName());
+            if (!e.isAlive()) {
+                onEnemyDefeated(e);
+            } else {
+                respawnEnemy(e);
             }
         }
 
@@ -524,19 +778,20 @@ public final class GameSession {
         }
     }
 
-    private void applyCycleCollisionAsEnemy(EnemyCycle enemy, Pos next) {
+    private void applyCycleCollisionAsEnemy(EnemyCycle enemy, Cycle other) {
         if (!enemy.isAlive()) return;
         if (enemy.isRespawnProtected()) return;
 
-        if (next.equals(player.pos()) && player.isAlive() && !player.isRespawnProtected()) {
+        if (other == player && player.isAlive() && !player.isRespawnProtected()) {
             player.applyDamage(0.5);
+            lastPlayerDamageCause = DamageCause.CYCLE;
             enemy.applyDamage(0.1);
-            logEnemy(enemy.displayName() + " collides with the player (-0.1 lives)!");
-            logPlayer(player.displayName() + " is hit by an enemy (-0.5 lives)!");
+            log(EventCode.ENEMY_RAMS_PLAYER, enemy.displayName());
+            log(EventCode.PLAYER_RAMMED, player.displayName());
             if (player.isAlive()) respawnPlayer();
         } else {
             enemy.applyDamage(0.1);
-            logEnemy(enemy.displayName() + " collides (-0.1 lives)!");
+            log(EventCode.ENEMY_COLLIDES, enemy.displayName());
         }
 
         if (enemy.isAlive()) {
@@ -545,51 +800,83 @@ public final class GameSession {
     }
 
     public boolean willCollide(Cycle cycle, Pos next) {
-        if (!arena.inBounds(next)) {
+        return willCollideAt(next.x, next.y);
+    }
+
+    /** Same as {@link #willCollide(Cycle, Pos)} for the cell one step in {@code dir}, without allocating. */
+    public boolean willCollide(Cycle cycle, Direction dir) {
+        Pos p = cycle.pos();
+        return willCollideAt(p.x + dir.dx, p.y + dir.dy);
+    }
+
+    private boolean willCollideAt(int x, int y) {
+        if (!occupancy.inBounds(x, y)) {
             return !arena.isOpen();
         }
-        if (arena.isSolid(next)) {
-            return true;
-        }
-        if (trailColors.containsKey(next)) {
-            return true;
-        }
-        return false;
+        return occupancy.isBlocked(occupancy.index(x, y));
     }
 
+    /** True if the player sits within {@code range} cells straight ahead with nothing solid between. */
     public boolean isPlayerInDiscLine(EnemyCycle enemy, int range) {
-        Pos p = player.pos();
         Pos e = enemy.pos();
+        Pos p = player.pos();
         Direction d = enemy.dir();
-        for (int i = 1; i <= range; i++) {
-            Pos step = new Pos(e.x + d.dx * i, e.y + d.dy * i);
-            if (!arena.inBounds(step)) return false;
-            if (arena.isSolid(step) || trailColors.containsKey(step)) return false;
-            if (step.equals(p)) return true;
+        int dist = d.dx != 0
+                ? (p.y == e.y ? (p.x - e.x) * d.dx : 0)
+                : (p.x == e.x ? (p.y - e.y) * d.dy : 0);
+        if (dist < 1 || dist > range) return false;
+        if (dist > occupancy.clearance(occupancy.index(e), d)) return false;
+        return occupancy.cycleAt(occupancy.index(p)) == OccupancyGrid.PLAYER_SLOT;
+    }
+
+    public boolean isEnemyInDiscLine(PlayerCycle from, int range) {
+        Pos f = from.pos();
+        Direction d = from.dir();
+        int reach = Math.min(range, occupancy.clearance(occupancy.index(f), d));
+        for (int i = 1; i <= reach; i++) {
+            int idx = occupancy.index(f.x + d.dx * i, f.y + d.dy * i);
+            if (occupancy.cycleAt(idx) > OccupancyGrid.PLAYER_SLOT) return true;
         }
         return false;
     }
 
     private void tickDiscs() {
-        List<Disc> discs = new ArrayList<>(discsById.values());
-        for (Disc disc : discs) {
+        for (int slot = 0; slot < discs.slotCount(); slot++) {
+            if (!discs.isLive(slot)) continue;
+            Disc disc = discs.bySlot(slot);
             if (!disc.isFlying()) {
                 continue;
             }
 
-            Pos next = disc.pos().add(disc.dir());
-            if (!arena.inBounds(next) || arena.isSolid(next) || trailColors.containsKey(next)) {
-                disc.land();
+            if (occupancy.clearance(disc.cell(), disc.dir()) == 0) {
+                landDisc(disc);
                 continue;
             }
+            Pos next = disc.pos().add(disc.dir());
+            int idx = occupancy.index(next);
 
-            disc.setPos(next);
+            discs.moveTo(disc, next, idx);
             disc.decRange();
 
+            int hit = occupancy.cycleAt(idx);
+            if (hit == OccupancyGrid.NO_CYCLE) {
+                if (disc.remainingRange() <= 0) {
+                    landDisc(disc);
+                }
+                continue;
+            }
+
+            if (swarm.isSlot(hit)) {
+                derezDrone(swarm.indexOfSlot(hit));
+                landDisc(disc);
+                continue;
+            }
+
             if (next.equals(player.pos()) && !player.isRespawnProtected()) {
                 player.applyDamage(1.0);
-                logPlayer(player.displayName() + " is struck by a disc (-1 life)!");
-                disc.land();
+                lastPlayerDamageCause = DamageCause.DISC;
+                log(EventCode.PLAYER_DISC_HIT, player.displayName());
+                landDisc(disc);
                 if (player.isAlive()) {
                     respawnPlayer();
                 }
@@ -599,8 +886,8 @@ public final class GameSession {
             for (EnemyCycle e : enemies) {
                 if (next.equals(e.pos()) && e.isAlive()) {
                     e.applyDamage(1.0);
-                    logEnemy(e.displayName() + " is struck by a disc (-1 life)!");
-                    disc.land();
+                    log(EventCode.ENEMY_DISC_HIT, e.displayName());
+                    landDisc(disc);
                     if (!e.isAlive()) {
                         onEnemyDefeated(e);
                     } else {
@@ -611,15 +898,16 @@ public final class GameSession {
             }
 
             if (disc.remainingRange() <= 0) {
-                disc.land();
+                landDisc(disc);
             }
         }
     }
 
     private void recaptureIfPossible(Cycle cycle) {
-        for (Disc disc : discsById.values()) {
+        int cell = occupancy.index(cycle.pos());
+        for (int slot = discs.firstInCell(cell); slot >= 0; slot = discs.nextInCell(slot)) {
+            Disc disc = discs.bySlot(slot);
             if (disc.isFlying()) continue;
-            if (!disc.pos().equals(cycle.pos())) continue;
 
             if (cycle == player) {
                 if (!disc.ownerColor().equalsIgnoreCase(cycle.color()) && !disc.ownerCycleId().equals(cycle.id())) {
@@ -631,42 +919,40 @@ public final class GameSession {
                 }
             }
 
-            discsById.remove(disc.id());
+            discs.release(disc);
             cycle.onDiscRecaptured();
             if (cycle == player) {
-                logPlayer(player.displayName() + " recaptures a disc — energy restored!");
+                log(EventCode.DISC_RECAPTURED, player.displayName());
             }
             break;
         }
     }
 
     private boolean spawnDisc(Cycle cycle) {
+        if (occupancy.clearance(occupancy.index(cycle.pos()), cycle.dir()) == 0) return false;
         Pos first = cycle.pos().add(cycle.dir());
-        if (!arena.inBounds(first)) return false;
-        if (arena.isSolid(first) || trailColors.containsKey(first)) return false;
+        int firstIdx = occupancy.index(first);
 
         // Prevent enemies from throwing into other enemies.
-        if (cycle != player) {
-            for (EnemyCycle other : enemies) {
-                if (other == cycle) continue;
-                if (first.equals(other.pos())) {
-                    return false;
-                }
-            }
+        if (cycle != player && occupancy.cycleAt(firstIdx) > OccupancyGrid.PLAYER_SLOT) {
+            return false;
         }
 
-        String discId = "D-" + UUID.randomUUID();
-        Disc disc = new Disc(discId, cycle.id(), cycle.color(), first, cycle.dir(), 2);
-        discsById.put(discId, disc);
+        Disc disc = discs.acquire(cycle.id(), cycle.color(), first, firstIdx, cycle.dir(), 2);
+        if (disc == null) return false;
         cycle.onDiscThrown();
 
         // Immediate hit if a target is directly in front.
-        if (cycle == player) {
+        int hit = occupancy.cycleAt(firstIdx);
+        if (swarm.isSlot(hit)) {
+            derezDrone(swarm.indexOfSlot(hit));
+            landDisc(disc);
+        } else if (cycle == player) {
             for (EnemyCycle e : enemies) {
                 if (first.equals(e.pos()) && e.isAlive()) {
                     e.applyDamage(1.0);
-                    logEnemy(e.displayName() + " is struck by a disc (-1 life)!");
-                    disc.land();
+                    log(EventCode.ENEMY_DISC_HIT, e.displayName());
+                    landDisc(disc);
                     if (!e.isAlive()) {
                         onEnemyDefeated(e);
                     } else {
@@ -678,8 +964,9 @@ public final class GameSession {
         } else {
             if (first.equals(player.pos()) && player.isAlive() && !player.isRespawnProtected()) {
                 player.applyDamage(1.0);
-                logPlayer(player.displayName() + " is struck by a disc (-1 life)!");
-                disc.land();
+                lastPlayerDamageCause = DamageCause.DISC;
+                log(EventCode.PLAYER_DISC_HIT, player.displayName());
+                landDisc(disc);
                 if (player.isAlive()) {
                     respawnPlayer();
                 }
@@ -689,78 +976,97 @@ public final class GameSession {
         return true;
     }
 
+    private void landDisc(Disc disc) {
+        Disc overflow = discs.land(disc);
+        if (overflow == null) return;
+
+        // Too many discs lying around: the oldest one returns to its owner.
+        Cycle owner = cycleById(overflow.ownerCycleId());
+        if (owner != null) owner.onDiscRecaptured();
+        discs.release(overflow);
+    }
+
+    private Cycle cycleById(String id) {
+        if (player.id().equals(id)) return player;
+        for (int i = 0; i < enemies.size(); i++) {
+            if (enemies.get(i).id().equals(id)) return enemies.get(i);
+        }
+        return null;
+    }
+
     private void respawnPlayer() {
         Pos spawn = findSpawnFor("P1");
-        player.setPosition(spawn, spawnDirectionFor("P1"));
+        placeCycle(player, spawn, spawnDirectionFor("P1"));
         player.giveRespawnProtection(600);
     }
 
     private void respawnEnemy(EnemyCycle enemy) {
-        enemy.setPosition(findSpawnFor(enemy.id()), spawnDirectionFor(enemy.id()));
+        placeCycle(enemy, findSpawnFor(enemy.id()), spawnDirectionFor(enemy.id()));
         enemy.giveRespawnProtection(400);
     }
 
-    private void clearJetwalls() {
-        if (trailColors.isEmpty()) return;
-        trailColors.clear();
-        player.trail().clear();
-        for (EnemyCycle e : enemies) {
-            e.trail().clear();
-        }
-        logSys("Jetwalls cleared.");
+    /** Moves a cycle and keeps the occupancy grid's cycle layer in sync. */
+    private void placeCycle(Cycle cycle, Pos to, Direction dir) {
+        vacate(cycle);
+        cycle.setPosition(to, dir);
+        occupancy.setCycle(occupancy.index(to), cycle.slot());
     }
 
-    private Pos findSpawnFor(String salt) {
-        if (!manualStepMode) {
-            for (int tries = 0; tries < 5000; tries++) {
-                int x = rng.nextInt(Arena.SIZE);
-                int y = rng.nextInt(Arena.SIZE);
-                Pos p = new Pos(x, y);
-                if (isOccupiedOrBlocked(p)) continue;
-                return p;
+    private void vacate(Cycle cycle) {
+        Pos p = cycle.pos();
+        if (p == null || !occupancy.inBounds(p.x, p.y)) return;
+        int idx = occupancy.index(p);
+        if (occupancy.cycleAt(idx) != cycle.slot()) return;
+        occupancy.clearCycle(idx);
+
+        // Spawns may overlap, so another cycle can still be standing here.
+        int packed = p.packed();
+        if (cycle != player && packed == player.packedPos()) {
+            occupancy.setCycle(idx, player.slot());
+            return;
+        }
+        for (int i = 0; i < enemies.size(); i++) {
+            EnemyCycle e = enemies.get(i);
+            if (e != cycle && packed == e.packedPos()) {
+                occupancy.setCycle(idx, e.slot());
+                return;
             }
-            return new Pos(Arena.SIZE / 2, Arena.SIZE / 2);
         }
+    }
 
-        // Deterministic scan with a salt-based offset.
-        int start = Math.floorMod(Objects.hash(salt, player.level(), arena.name()), Arena.SIZE * Arena.SIZE);
-        for (int i = 0; i < Arena.SIZE * Arena.SIZE; i++) {
-            int idx = (start + i) % (Arena.SIZE * Arena.SIZE);
-            int x = idx % Arena.SIZE;
-            int y = idx / Arena.SIZE;
-            Pos p = new Pos(x, y);
-            if (isOccupiedOrBlocked(p)) continue;
-            return p;
+    private void removeDefeatedEnemies() {
+        for (int i = enemies.size() - 1; i >= 0; i--) {
+            EnemyCycle e = enemies.get(i);
+            if (e.isAlive()) continue;
+            enemies.remove(i);
+            vacate(e);
         }
-        return new Pos(Arena.SIZE / 2, Arena.SIZE / 2);
     }
 
-    private boolean isOccupiedOrBlocked(Pos p) {
-        if (arena.isSolid(p)) return true;
-        if (trailColors.containsKey(p)) return true;
-        if (p.equals(player.pos())) return true;
+    private void clearJetwalls() {
+        jetwalls.clear();
+        if (occupancy.trailCount() == 0) return;
+        occupancy.clearTrails();
+        player.trail().clear();
         for (EnemyCycle e : enemies) {
-            if (p.equals(e.pos())) return true;
+            e.trail().clear();
         }
-        return false;
+        log(EventCode.JETWALLS_CLEARED);
+    }
+
+    private Pos findSpawnFor(String salt) {
+        FreeCellIndex free = occupancy.freeCells();
+        int idx = manualStepMode
+            ? free.pickVacant(Objects.hash(salt, player.level(), arena.name()))
+            : free.sampleVacant(rng);
+        if (idx == FreeCellIndex.NONE) {
+            return Pos.of(arena.width() / 2, arena.height() / 2);
+        }
+        return occupancy.posOf(idx);
     }
 
     private Direction spawnDirectionFor(String salt) {
-        if (!manualStepMode) {
-            return switch (rng.nextInt(4)) {
-                case 0 -> Direction.UP;
-                case 1 -> Direction.DOWN;
-                case 2 -> Direction.LEFT;
-                default -> Direction.RIGHT;
-            };
-        }
-        int v = Math.floorMod(Objects.hash(salt, player.level()), 4);
-        return switch (v) {
-            case 0 -> Direction.UP;
-            case 1 -> Direction.RIGHT;
-            case 2 -> Direction.DOWN;
-            default -> Direction.LEFT;
-        };
+        return planner.spawnDirection(salt, player.level(), rng);
     }
 
     private Direction opposite(Direction d) {
@@ -779,16 +1085,12 @@ public final class GameSession {
 
     private void onEnemyDefeated(EnemyCycle enemy) {
         EnemyDefinition d = enemy.definition();
-        logSys(d.displayName() + " derezzed.");
+        log(EventCode.ENEMY_DEREZZED, d.displayName());
+        derezzesByEnemyId.merge(d.id().toUpperCase(), 1, Integer::sum);
 
-        if ("SARK".equalsIgnoreCase(d.id())) awardAchievement("ACH_BEAT_SARK");
-        if ("RINZLER".equalsIgnoreCase(d.id())) awardAchievement("ACH_BEAT_RINZLER");
-        if ("CLU".equalsIgnoreCase(d.id())) awardAchievement("ACH_BEAT_CLU");
-
-        if ("CLU".equalsIgnoreCase(d.id())) {
-            unlockStoryOnDefeat("CLU");
-            awaitingEndingChoice = true;
-        }
+        String id = d.id().toUpperCase();
+        awardAchievements(progression.achievements().onDefeat(id));
+        unlockChapters(progression.chapters().onDefeat(id));
     }
 
     private void onLevelCompleted() {
@@ -809,36 +1111,47 @@ public final class GameSession {
         highestLevelAchieved = Math.max(highestLevelAchieved, player.level());
         totalScore += levelXp * 100L;
 
-        awardAchievement("ACH_FIRST_WIN");
-        logSys("Level " + completedLevel + " complete. +" + levelXp + " XP.");
+        log(EventCode.LEVEL_COMPLETE, null, completedLevel, levelXp, 0);
 
         startLevel(false);
     }
 
     private void onLevelFailed() {
-        logSys("Derezzed. Restarting level " + player.level() + ".");
+        log(EventCode.LEVEL_FAILED, null, player.level(), 0, 0);
+        playerDeaths++;
+        if (lastPlayerDamageCause != null) {
+            deathsByCause.merge(lastPlayerDamageCause, 1, Integer::sum);
+        }
 
-        discsById.clear();
+        discs.clear();
         clearJetwalls();
-        enemies.clear();
+        for (int i = enemies.size() - 1; i >= 0; i--) {
+            vacate(enemies.remove(i));
+        }
+        clearSwarm();
         brainsByEnemyId.clear();
 
         player.restoreLivesToMax();
         player.resetDiscState();
         player.giveRespawnProtection(700);
 
-        spawnPlayerAndEnemiesForCurrentLevel(false);
+        // Same arena, so lay the level out again on the live grid.
+        vacate(player);
+        applyPlan(planner.layout(player.level(), arena, occupancy, rng), false);
     }
 
     private void startLevel(boolean firstStart) {
         int level = player.level();
-        this.arena = selectArenaForLevel(level);
-
-        discsById.clear();
-        trailColors.clear();
+        OccupancyGrid previous = occupancy;
+        LevelPlan plan = takePlan(level);
+        this.arena = plan.arena();
+        this.occupancy = plan.grid();
+        discs.reset(occupancy.width() * occupancy.height());
         player.trail().clear();
+        jetwalls.clear();
 
         enemies.clear();
+        swarm.reset();
         brainsByEnemyId.clear();
 
         awaitingEndingChoice = false;
@@ -846,120 +1159,90 @@ public final class GameSession {
 
         player.resetDiscState();
 
-        spawnPlayerAndEnemiesForCurrentLevel(firstStart);
+        applyPlan(plan, firstStart);
 
         long xpNeed = xpThresholdForLevel(level);
         player.setXpForNextLevel(xpNeed);
 
-        logSys(titleForLevelStart(level));
-        unlockStoryForLevel(level);
+        logLevelStart(level);
+        onLevelReached(level);
+        prewarm(level + 1, previous != occupancy ? previous : null);
     }
 
-    private void spawnPlayerAndEnemiesForCurrentLevel(boolean firstStart) {
-        int level = player.level();
-
-        int playerQuadrant = manualStepMode
-            ? Math.floorMod(Objects.hash(playerName, level, arena.name()), 4)
-            : rng.nextInt(4);
-        player.setPosition(spawnInQuadrant(arena, playerQuadrant), Direction.RIGHT);
+    /**
+     * Creates the plan's cycles at its spawn cells. The plan's grid is the live one by now,
+     * with every spawn already marked, so this is O(cycles).
+     */
+    private void applyPlan(LevelPlan plan, boolean firstStart) {
+        placeCycle(player, plan.playerSpawn(), Direction.RIGHT);
         player.giveRespawnProtection(firstStart ? 900 : 700);
 
-        List<EnemyDefinition> defs = enemyDefsForLevel(level);
-        for (int i = 0; i < defs.size(); i++) {
-            EnemyDefinition ed = defs.get(i);
-            EnemyCycle enemy = new EnemyCycle("E" + (i + 1), ed);
-            int q = (playerQuadrant + 1 + (i % 3)) % 4;
-            enemy.setPosition(spawnInQuadrant(arena, q), spawnDirectionFor(enemy.id()));
+        int[] droneCells = plan.droneCells();
+        for (int i = 0; i < droneCells.length; i++) {
+            Pos p = occupancy.posOf(droneCells[i]);
+            int d = swarm.spawn(p.x, p.y, plan.droneDirs()[i]);
+            if (d == Swarm.NONE) break;
+            occupancy.setCycle(droneCells[i], swarm.slot(d));
+        }
+
+        List<EnemyDefinition> roster = plan.roster();
+        for (int i = 0; i < roster.size(); i++) {
+            EnemyCycle enemy = new EnemyCycle("E" + (i + 1), roster.get(i));
+            enemy.assignSlot(i + 2);
+            placeCycle(enemy, plan.enemySpawns()[i], plan.enemyDirs()[i]);
             enemies.add(enemy);
             brainsByEnemyId.put(enemy.id(), Brains.forEnemyId(enemy.definition().id()));
         }
     }
 
-    private Pos spawnInQuadrant(Arena arena, int quadrant) {
-        int minX = quadrant == 0 || quadrant == 2 ? 2 : 22;
-        int maxX = quadrant == 0 || quadrant == 2 ? 17 : 37;
-        int minY = quadrant == 0 || quadrant == 1 ? 2 : 22;
-        int maxY = quadrant == 0 || quadrant == 1 ? 17 : 37;
-
-        if (!manualStepMode) {
-            for (int tries = 0; tries < 5000; tries++) {
-                int x = minX + rng.nextInt(maxX - minX + 1);
-                int y = minY + rng.nextInt(maxY - minY + 1);
-                Pos p = new Pos(x, y);
-                if (!arena.inBounds(p)) continue;
-                if (arena.isSolid(p)) continue;
-                if (trailColors.containsKey(p)) continue;
-                return p;
-            }
-        } else {
-            int start = Math.floorMod(Objects.hash("Q", quadrant, player.level(), arena.name()), (maxX - minX + 1) * (maxY - minY + 1));
-            int w = (maxX - minX + 1);
-            int h = (maxY - minY + 1);
-            for (int i = 0; i < w * h; i++) {
-                int idx = (start + i) % (w * h);
-                int x = minX + (idx % w);
-                int y = minY + (idx / w);
-                Pos p = new Pos(x, y);
-                if (!arena.inBounds(p)) continue;
-                if (arena.isSolid(p)) continue;
-                if (trailColors.containsKey(p)) continue;
-                return p;
+    /**
+     * The prepared plan when it is finished and for {@code level}, otherwise one built now on a
+     * grid that is about to be dropped (a finished mismatched plan's, else the outgoing one).
+     * Never waits: the tick thread is shared with other sessions, and the prewarm pool with
+     * their plans, so an unfinished plan is cancelled and its grid, which it may still be
+     * writing to, is never reused.
+     */
+    private LevelPlan takePlan(int level) {
+        CompletableFuture<LevelPlan> pending = nextPlan;
+        nextPlan = null;
+        OccupancyGrid spare = occupancy;
+        if (pending != null) {
+            try {
+                LevelPlan plan = pending.getNow(null);
+                if (plan == null) {
+                    pending.cancel(false);
+                } else if (plan.level() == level) {
+                    return plan;
+                } else {
+                    spare = plan.grid();
+                }
+            } catch (CompletionException | CancellationException e) {
+                // Fall through and build it on this thread.
             }
         }
-        return new Pos(Arena.SIZE / 2, Arena.SIZE / 2);
-    }
-
-    private Arena selectArenaForLevel(int level) {
-        if (!"AUTO".equalsIgnoreCase(arenaMode)) {
-            Arena chosen = arenasById.get(arenaMode);
-            return chosen != null ? chosen : arenasById.getOrDefault("ARENA1", arenasById.values().stream().findFirst().orElseThrow());
-        }
-
-        int inChapter = ((level - 1) % 25) + 1;
-        if (inChapter <= 6) {
-            return arenasById.getOrDefault("ARENA1", arenasById.values().stream().findFirst().orElseThrow());
-        }
-        if (inChapter <= 12) {
-            return arenasById.getOrDefault("ARENA3", arenasById.values().stream().findFirst().orElseThrow());
-        }
-        if (inChapter <= 18) {
-            return arenasById.getOrDefault("ARENA2", arenasById.values().stream().findFirst().orElseThrow());
+        return planner.plan(level, spare);
+    }
+
+    /**
+     * Starts building {@code level} in the background, when the session has an executor for it.
+     * The grids alternate: the one the current level replaced is reloaded for the next.
+     */
+    private void prewarm(int level, OccupancyGrid spare) {
+        if (levelPrewarm == null || level > 99) return;
+        try {
+            nextPlan = CompletableFuture.supplyAsync(() -> planner.plan(level, spare), levelPrewarm);
+        } catch (RejectedExecutionException e) {
+            nextPlan = null;
         }
-
-        long seed = Objects.hash(sessionId, level);
-        return ArenaLoader.random("PROCEDURAL_" + level, "Procedural", false, new Random(seed));
     }
 
-    private List<EnemyDefinition> enemyDefsForLevel(int level) {
-        List<EnemyDefinition> all = new ArrayList<>(enemiesById.values());
-        if (all.isEmpty()) {
-            throw new IllegalStateException("No enemies loaded from data/enemies.txt");
-        }
-
-        EnemyDefinition koura = enemiesById.getOrDefault("KOURA", all.get(0));
-        EnemyDefinition sark = enemiesById.getOrDefault("SARK", all.get(0));
-        EnemyDefinition rinzler = enemiesById.getOrDefault("RINZLER", all.get(0));
-        EnemyDefinition clu = enemiesById.getOrDefault("CLU", all.get(0));
-
-        int chapter = ((level - 1) / 25) + 1;
-        EnemyDefinition preferred = switch (chapter) {
-            case 1 -> koura;
-            case 2 -> sark;
-            case 3 -> rinzler;
-            default -> clu;
-        };
-
-        List<EnemyDefinition> pool = new ArrayList<>();
-        pool.add(koura);
-        pool.add(sark);
-        pool.add(rinzler);
-        pool.add(clu);
-
-        while (pool.size() < 7) {
-            pool.add(preferred);
+    private void clearSwarm() {
+        for (int i = 0; i < swarm.highWater(); i++) {
+            if (!swarm.isAlive(i)) continue;
+            int cell = occupancy.index(swarm.x(i), swarm.y(i));
+            if (occupancy.cycleAt(cell) == swarm.slot(i)) occupancy.clearCycle(cell);
         }
-        Collections.shuffle(pool, rng);
-        return pool.subList(0, 7);
+        swarm.reset();
     }
 
     private long xpThresholdForLevel(int level) {
@@ -974,94 +1257,69 @@ public final class GameSession {
         return def != null ? Math.max(1, def.xpReward()) : 100;
     }
 
-    private String titleForLevelStart(int level) {
+    private void logLevelStart(int level) {
         int chapter = ((level - 1) / 25) + 1;
         int inChapter = ((level - 1) % 25) + 1;
-        return "Level Start: L" + level + " (Chapter " + chapter + ", stage " + inChapter + ") — " + arena.name();
-    }
-
-    private void setStoryById(String id) {
-        for (StoryChapter c : chapters) {
-            if (c.id().equalsIgnoreCase(id)) {
-                currentStory = c;
-                return;
-            }
-        }
+        log(EventCode.LEVEL_START, arena.name(), level, chapter, inChapter);
     }
 
     private void onRoundEnd(boolean won) {
         if (won) {
-            logSys("System: Run complete.");
+            log(EventCode.RUN_COMPLETE);
         } else {
-            logSys("System: Exited to main menu.");
+            log(EventCode.RUN_EXITED);
         }
     }
 
-    private void logSys(String message) {
-        log("[SYS] " + message);
+    private void log(EventCode code) {
+        events.record(code, null, stepIndex, 0, 0, 0);
     }
 
-    private void logPlayer(String message) {
-        log("[P] " + message);
+    private void log(EventCode code, String subject) {
+        events.record(code, subject, stepIndex, 0, 0, 0);
     }
 
-    private void logEnemy(String message) {
-        log("[E] " + message);
+    private void log(EventCode code, String subject, long a0, long a1, long a2) {
+        events.record(code, subject, stepIndex, a0, a1, a2);
     }
 
-    private void log(String message) {
-        events.addFirst(message);
-        while (events.size() > 12) {
-            events.removeLast();
-        }
+    /**
+     * Story and achievements are event-driven: each trigger table is consulted only when its
+     * event fires (a level is reached, an enemy is derezzed, a choice is made), never per step.
+     * Levels skipped at once (a restored save) fire every trigger in between, lowest first.
+     */
+    private void onLevelReached(int level) {
+        if (level <= levelTriggersFired) return;
+        progression.chapters().forLevels(levelTriggersFired, level, this::unlockChapter);
+        progression.achievements().forLevels(levelTriggersFired, level, this::awardAchievement);
+        levelTriggersFired = level;
     }
 
-    private void unlockStoryForLevel(int level) {
-        for (StoryChapter c : chapters) {
-            if (c.unlockLevel() <= level && unlockedChapters.add(c.id())) {
-                currentStory = c;
-                logSys("Story unlocked: " + c.title());
-            }
+    private void unlockChapters(List<StoryChapter> unlocked) {
+        for (int i = 0; i < unlocked.size(); i++) {
+            unlockChapter(unlocked.get(i));
         }
     }
 
-    private void unlockStoryOnDefeat(String enemyId) {
-        for (StoryChapter c : chapters) {
-            if (c.unlockOnDefeat() != null && c.unlockOnDefeat().equalsIgnoreCase(enemyId) && unlockedChapters.add(c.id())) {
-                currentStory = c;
-                logSys("Story unlocked: " + c.title());
-            }
+    private void unlockChapter(StoryChapter c) {
+        if (!unlockedChapters.add(c.id())) return;
+        currentStory = c;
+        log(EventCode.STORY_UNLOCKED, c.title());
+        if (!c.choices().isEmpty()) {
+            pendingChoices = c.choices();
+            awaitingEndingChoice = true;
         }
     }
 
-    private void updateAchievements() {
-        int level = player.level();
-        if (level >= 5) awardAchievement("ACH_LEVEL_5");
-        if (level >= 10) awardAchievement("ACH_LEVEL_10");
-        if (level >= 25) awardAchievement("ACH_LEVEL_25");
-        if (level >= 50) awardAchievement("ACH_LEVEL_50");
-        if (level >= 75) awardAchievement("ACH_LEVEL_75");
-        if (level >= 99) awardAchievement("ACH_LEVEL_99");
-    }
-
-    private void awardAchievement(String id) {
-        if (id == null) return;
-        String key = id.toUpperCase();
-        if (!achievedIds.add(key)) return;
-
-        AchievementDefinition def = achievementsById != null ? achievementsById.get(key) : null;
-        if (def != null) {
-            achievementTitles.add(def.title());
-            log("[ACH] Achievement unlocked: " + def.title());
-        } else {
-            achievementTitles.add(id);
-            log("[ACH] Achievement unlocked: " + id);
+    private void awardAchievements(List<AchievementDefinition> unlocked) {
+        for (int i = 0; i < unlocked.size(); i++) {
+            awardAchievement(unlocked.get(i));
         }
     }
 
-    private void awardAchievementTitle(String title) {
-        if (title == null || title.isBlank()) return;
-        achievementTitles.add(title.trim());
-        log("[ACH] Achievement unlocked: " + title.trim());
+    private void awardAchievement(AchievementDefinition def) {
+        // Titles restored from a save count as already unlocked.
+        if (!achievedIds.add(def.id().toUpperCase()) || !achievementTitles.add(def.title())) return;
+        log(EventCode.ACHIEVEMENT_UNLOCKED, def.title());
     }
 }
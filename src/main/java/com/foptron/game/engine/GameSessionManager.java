@@ -10,109 +10,191 @@ import com.foptron.game.persistence.SaveGameData;
 import com.foptron.game.model.Direction;
 import com.foptron.web.ws.dto.InputMessage;
 import com.foptron.web.ws.dto.ChoiceMessage;
+import com.foptron.web.ws.dto.GameStateDto;
+import com.foptron.web.ws.dto.ResyncMessage;
 import com.foptron.web.ws.dto.StartRequest;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 @Component
 @SuppressWarnings("Nullness")
 public class GameSessionManager {
 
+    private static final Logger log = LoggerFactory.getLogger(GameSessionManager.class);
+
     private final DataRepository data;
-    private final SimpMessagingTemplate messaging;
     private final LeaderboardService leaderboard;
 
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
-
-    private volatile GameSession session;
-    private volatile boolean leaderboardRecorded;
-
-    public GameSessionManager(DataRepository data, SimpMessagingTemplate messaging, LeaderboardService leaderboard) {
+    private final int maxSessions;
+    private final long idleTimeoutMs;
+    private final int inboxCapacity;
+    private final SimulationSettings simulation;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService blockingIo = Executors.newSingleThreadExecutor();
+    // Next-level builds, shared by all sessions; null when disabled.
+    private final ExecutorService levelPrewarm;
+    private final SessionTicker ticker;
+    private final String tickMode;
+
+    // Keyed by the client's session id (explicit in the request, else the STOMP session id).
+    private final ConcurrentMap<String, SessionHandle> sessions = new ConcurrentHashMap<>();
+    // Drops from sessions that are no longer registered.
+    private final LongAdder droppedCommands = new LongAdder();
+    // Sessions removed because their tick threw.
+    private final LongAdder failedSessions = new LongAdder();
+    private final List<StateFrameSink> frameSinks = new CopyOnWriteArrayList<>();
+    private final ArenaLayouts arenaLayouts;
+    // Frames are built on tick threads and serialized/sent by this stage.
+    private final StateBroadcaster broadcaster;
+
+    public GameSessionManager(
+            DataRepository data,
+            LeaderboardService leaderboard,
+            @Value("${foptron.sessions.max:1000}") int maxSessions,
+            @Value("${foptron.sessions.idle-timeout-ms:600000}") long idleTimeoutMs,
+            @Value("${foptron.sessions.inbox-capacity:64}") int inboxCapacity,
+            @Value("${foptron.tick.mode:sharded}") String tickMode,
+            @Value("${foptron.tick.shards:0}") int tickShards,
+            @Value("${foptron.tick.period-ms:100}") long tickPeriodMs,
+            @Value("${foptron.sim.fixed-step-ms:100}") long fixedStepMs,
+            @Value("${foptron.sim.max-steps-per-frame:3}") int maxStepsPerFrame,
+            @Value("${foptron.sim.max-landed-discs:16}") int maxLandedDiscs,
+            @Value("${foptron.sim.prewarm-threads:2}") int prewarmThreads,
+            @Value("${foptron.arenas.layout-cache:1024}") int layoutCache,
+            @Value("${foptron.broadcast.pipelined:true}") boolean pipelinedBroadcast,
+            @Value("${foptron.broadcast.queue-capacity:1024}") int broadcastCapacity
+    ) {
         this.data = data;
-        this.messaging = messaging;
         this.leaderboard = leaderboard;
+        this.arenaLayouts = new ArenaLayouts(data.arenas().values(), layoutCache);
+        this.broadcaster = new StateBroadcaster(frameSinks, pipelinedBroadcast, Math.max(2, broadcastCapacity));
+        this.maxSessions = Math.max(1, maxSessions);
+        this.idleTimeoutMs = Math.max(1000, idleTimeoutMs);
+        this.inboxCapacity = Math.max(2, inboxCapacity);
+        this.levelPrewarm = prewarmThreads > 0 ? Executors.newFixedThreadPool(prewarmThreads, r -> {
+            Thread t = new Thread(r, "level-prewarm");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+        this.simulation = SimulationSettings.defaults()
+                .withFixedStep(fixedStepMs, maxStepsPerFrame)
+                .withMaxLandedDiscs(maxLandedDiscs)
+                .withLevelPrewarm(levelPrewarm);
+
+        this.tickMode = "virtual".equalsIgnoreCase(tickMode) ? "virtual" : "sharded";
+        this.ticker = switch (this.tickMode) {
+            case "virtual" -> new VirtualThreadSessionLoops(tickPeriodMs, this::tickAndBroadcast);
+            default -> new ShardedTickScheduler(tickShards, tickPeriodMs, this::tickAndBroadcast);
+        };
+        scheduler.scheduleAtFixedRate(this::evictIdle, 30, 30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Picks the registry key for a client message: an explicit session id wins,
+     * otherwise the STOMP connection id is used.
+     */
+    public static String resolveKey(String requestedSessionId, String connectionId) {
+        if (requestedSessionId != null && !requestedSessionId.isBlank()) {
+            return requestedSessionId.trim();
+        }
+        return connectionId;
+    }
 
-        scheduler.scheduleAtFixedRate(this::tickAndBroadcast, 0, 100, TimeUnit.MILLISECONDS);
+    /** Registers a transport for state frames; see {@link StateFrameSink}. */
+    public void addFrameSink(StateFrameSink sink) {
+        frameSinks.add(Objects.requireNonNull(sink, "sink"));
     }
 
-    public synchronized void start(StartRequest req) {
+    public StartResult start(String key, String connectionId, StartRequest req) {
+        if (key == null) return StartResult.FULL;
+
         String characterKey = (req.characterId() == null ? "TRON" : req.characterId()).toUpperCase();
         String arenaMode = (req.arenaId() == null || req.arenaId().isBlank() ? "AUTO" : req.arenaId()).toUpperCase();
         boolean manualStep = Boolean.TRUE.equals(req.manualStep());
 
-        CharacterDefinition def = data.characters().get(characterKey);
-        if (def == null) {
-            def = data.characters().values().stream().findFirst().orElseThrow();
-        }
-
-        PlayerCycle player = switch (characterKey) {
-            case "KEVIN" -> new Kevin("P1", def);
-            default -> new Tron("P1", def);
-        };
-
-        session = new GameSession(
-                "S1",
+        GameSession session = new GameSession(
+                key,
                 req.playerName(),
                 arenaMode,
-                player,
+                createPlayer(characterKey),
                 data.arenas(),
                 data.enemies(),
-                data.story(),
-            data.achievements(),
-            manualStep
+                data.progression(),
+            manualStep,
+            settingsFor(req)
         );
-        leaderboardRecorded = false;
-        broadcast(session);
+        return register(new SessionHandle(key, session, connectionId, inboxCapacity));
     }
 
-    public GameSession currentSession() {
-        return session;
+    /**
+     * Runs {@code fn} against the caller's session on its tick thread. Returns null when
+     * there is no such session; the future fails if the session's inbox is full.
+     */
+    public <T> CompletableFuture<T> query(String key, Function<GameSession, T> fn) {
+        SessionHandle h = lookup(key);
+        if (h == null) return null;
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        boolean queued = h.enqueue(s -> {
+            try {
+                result.complete(fn.apply(s));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        if (!queued) {
+            result.completeExceptionally(new IllegalStateException("Session is busy"));
+        }
+        return result;
     }
 
-    public synchronized void startFromSave(SaveGameData save, boolean manualStep) {
+    public StartResult startFromSave(String key, SaveGameData save, boolean manualStep) {
         Objects.requireNonNull(save, "save");
+        if (key == null) return StartResult.FULL;
 
         String characterKey = (save.characterId() == null ? "TRON" : save.characterId()).toUpperCase();
-        CharacterDefinition def = data.characters().get(characterKey);
-        if (def == null) {
-            def = data.characters().values().stream().findFirst().orElseThrow();
-        }
-
-        PlayerCycle player = switch (characterKey) {
-            case "KEVIN" -> new Kevin("P1", def);
-            default -> new Tron("P1", def);
-        };
 
         GameSession newSession = new GameSession(
-                "S1",
+                key,
                 save.playerName(),
                 "AUTO",
-                player,
+                createPlayer(characterKey),
                 data.arenas(),
                 data.enemies(),
-                data.story(),
-            data.achievements(),
-            manualStep
+                data.progression(),
+            manualStep,
+            simulation
         );
 
         newSession.restoreFromSave(save.level(), save.xp(), save.achievements());
-        session = newSession;
-        leaderboardRecorded = false;
-        broadcast(session);
+        return register(new SessionHandle(key, newSession, null, inboxCapacity));
     }
 
-    public synchronized void startFromSave(SaveGameData save) {
-        startFromSave(save, false);
+    public StartResult startFromSave(String key, SaveGameData save) {
+        return startFromSave(key, save, false);
     }
 
-    public void input(InputMessage msg) {
-        GameSession s = session;
-        if (s == null) return;
+    public void input(String key, String connectionId, InputMessage msg) {
+        SessionHandle h = lookup(key);
+        if (h == null || !h.claim(connectionId)) return;
+        h.touch();
 
         Direction dir = null;
         if (msg.direction() != null && !msg.direction().isBlank()) {
@@ -123,54 +205,247 @@ public class GameSessionManager {
             }
         }
 
-        boolean manual = Boolean.TRUE.equals(msg.manualStep()) || s.isManualStepMode();
+        Direction direction = dir;
+        boolean throwDisc = msg.throwDisc();
+        boolean manual = Boolean.TRUE.equals(msg.manualStep()) || h.session().isManualStepMode();
         if (manual) {
             // In manual mode: one keypress = one step. Player only moves if a direction is provided.
-            if (dir == null && !msg.throwDisc()) {
+            if (direction == null && !throwDisc) {
                 return;
             }
-            s.manualStep(dir, msg.throwDisc());
+            h.enqueue(s -> s.manualStep(direction, throwDisc));
         } else {
-            s.applyInput(dir, msg.throwDisc());
+            h.enqueue(s -> s.applyInput(direction, throwDisc));
+        }
+    }
+
+    public void choice(String key, String connectionId, ChoiceMessage msg) {
+        SessionHandle h = lookup(key);
+        if (h == null || !h.claim(connectionId)) return;
+        h.touch();
+
+        int option = msg.option();
+        h.enqueue(s -> s.applyChoice(option));
+    }
+
+    /**
+     * A client saw a gap in the state stream; its next frame is a keyframe. The empty command
+     * makes manual-step sessions, which only publish after applying input, send it right away.
+     * Any viewer may ask, so this neither claims nor requires ownership.
+     */
+    public void resync(String key, String connectionId, ResyncMessage msg) {
+        SessionHandle h = lookup(key);
+        if (h == null) return;
+        h.touch();
+
+        h.stream().requestKeyframe();
+        h.enqueue(s -> {});
+    }
+
+    public void evict(String key) {
+        SessionHandle h = lookup(key);
+        if (h != null) remove(h);
+    }
+
+    /** Drops every session owned by a STOMP connection that has gone away. */
+    public void evictConnection(String connectionId) {
+        if (connectionId == null) return;
+        for (SessionHandle h : sessions.values()) {
+            if (connectionId.equals(h.connectionId())) remove(h);
+        }
+    }
+
+    public int activeSessionCount() {
+        return sessions.size();
+    }
+
+    public int maxSessions() {
+        return maxSessions;
+    }
+
+    public InboxStats inboxStats() {
+        long queued = 0;
+        int maxDepth = 0;
+        for (SessionHandle h : sessions.values()) {
+            int depth = h.queuedCommands();
+            queued += depth;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+        return new InboxStats(queued, maxDepth, droppedCommands.sum() + liveDropped());
+    }
+
+    /**
+     * Serialized layout of the arena with this content hash, or null when no keyframe has
+     * named it recently. The array is shared; callers must not modify it.
+     */
+    public byte[] arenaLayout(String hash) {
+        return hash == null ? null : arenaLayouts.layout(hash);
+    }
+
+    /** Sessions removed since startup because a tick, command or frame build threw. */
+    public long failedSessionCount() {
+        return failedSessions.sum();
+    }
+
+    public BroadcastStats broadcastStats() {
+        return broadcaster.stats();
+    }
+
+    public String tickMode() {
+        return tickMode;
+    }
+
+    public List<TickStats> tickStats() {
+        return ticker.stats();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdown();
+        broadcaster.shutdown();
+        scheduler.shutdownNow();
+        blockingIo.shutdown();
+        if (levelPrewarm != null) levelPrewarm.shutdownNow();
+    }
+
+    private SessionHandle lookup(String key) {
+        return key == null ? null : sessions.get(key);
+    }
+
+    private synchronized StartResult register(SessionHandle handle) {
+        SessionHandle current = sessions.get(handle.key());
+        if (current != null && current.connectionId() != null) {
+            // A connection's games are evicted when it disconnects, so an owner here is live.
+            // Loads over HTTP carry no connection and keep the current owner.
+            if (handle.connectionId() == null) {
+                handle.claim(current.connectionId());
+            } else if (!handle.connectionId().equals(current.connectionId())) {
+                return StartResult.IN_USE;
+            }
+        }
+        if (current == null && sessions.size() >= maxSessions) {
+            evictIdle();
+            if (sessions.size() >= maxSessions) {
+                return StartResult.FULL;
+            }
+        }
+        broadcast(handle);
+        SessionHandle previous = sessions.put(handle.key(), handle);
+        if (previous != null) {
+            ticker.unregister(previous);
+            droppedCommands.add(previous.droppedCommands());
+        }
+        ticker.register(handle);
+        return StartResult.STARTED;
+    }
+
+    private void remove(SessionHandle handle) {
+        if (sessions.remove(handle.key(), handle)) {
+            ticker.unregister(handle);
+            droppedCommands.add(handle.droppedCommands());
+        }
+    }
+
+    private long liveDropped() {
+        long n = 0;
+        for (SessionHandle h : sessions.values()) {
+            n += h.droppedCommands();
         }
+        return n;
+    }
 
-        maybeRecordLeaderboard(s);
-        broadcast(s);
+    private SimulationSettings settingsFor(StartRequest req) {
+        SimulationSettings s = simulation;
+        if (req.swarmSize() != null) s = s.withSwarmSize(req.swarmSize());
+        if (req.limitedJetwalls() != null) s = s.withLimitedJetwalls(req.limitedJetwalls());
+        return s;
     }
 
-    public void choice(ChoiceMessage msg) {
-        GameSession s = session;
-        if (s == null) return;
-        s.applyChoice(msg.option());
+    private PlayerCycle createPlayer(String characterKey) {
+        CharacterDefinition def = data.characters().get(characterKey);
+        if (def == null) {
+            def = data.characters().values().stream().findFirst().orElseThrow();
+        }
 
-        maybeRecordLeaderboard(s);
-        broadcast(s);
+        return switch (characterKey) {
+            case "KEVIN" -> new Kevin("P1", def);
+            default -> new Tron("P1", def);
+        };
+    }
+
+    private void tickAndBroadcast(SessionHandle h) {
+        try {
+            tickOne(h);
+        } catch (RuntimeException e) {
+            // One broken session must not stall the rest of its shard.
+            failedSessions.increment();
+            log.warn("Session {} failed on its tick thread and was removed", h.key(), e);
+            remove(h);
+        }
     }
 
-    private void tickAndBroadcast() {
-        GameSession s = session;
-        if (s == null) return;
+    private void tickOne(SessionHandle h) {
+        int applied = h.drainCommands();
 
+        GameSession s = h.session();
         if (s.isManualStepMode()) {
+            // Manual sessions only advance on input, so only publish when something was applied.
+            if (applied > 0) {
+                maybeRecordLeaderboard(h);
+                broadcast(h);
+            }
             return;
         }
 
         s.tick();
 
-        maybeRecordLeaderboard(s);
-        broadcast(s);
+        maybeRecordLeaderboard(h);
+        broadcast(h);
     }
 
-    private void maybeRecordLeaderboard(GameSession s) {
-        if (!s.isRunning() && !leaderboardRecorded) {
-            leaderboard.record(s.playerName(), s.highestLevelAchieved(), s.totalScore());
-            leaderboardRecorded = true;
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+        for (SessionHandle h : sessions.values()) {
+            if (h.lastActivityMs() < cutoff) remove(h);
         }
     }
 
-    private void broadcast(GameSession s) {
-        Object payload = Objects.requireNonNull(GameStateMapper.toDto(s), "state");
-        messaging.convertAndSend("/topic/state", payload);
+    private void maybeRecordLeaderboard(SessionHandle h) {
+        GameSession s = h.session();
+        if (!s.isRunning() && !h.isLeaderboardRecorded()) {
+            h.markLeaderboardRecorded();
+            String name = s.playerName();
+            int level = s.highestLevelAchieved();
+            long score = s.totalScore();
+            if (ticker.blockingAllowed()) {
+                leaderboard.record(name, level, score);
+            } else {
+                // Keep file I/O off the shard thread.
+                blockingIo.execute(() -> leaderboard.record(name, level, score));
+            }
+        }
+    }
+
+    /**
+     * Snapshot stage, on the session's tick thread: builds the frame and hands it to the
+     * broadcaster, which serializes and sends it off this thread.
+     */
+    private void broadcast(SessionHandle h) {
+        // Nobody watching costs nothing: no frame is built. Transports request a keyframe
+        // when a viewer arrives, so the stream restarts cleanly.
+        if (!broadcaster.watched(h.key())) return;
+
+        long start = System.nanoTime();
+        Object payload = Objects.requireNonNull(h.stream().next(h.session()), "state");
+        if (payload instanceof GameStateDto) {
+            // Before publishing, so the client's layout fetch finds it.
+            arenaLayouts.remember(h.session().arena());
+        }
+        broadcaster.recordSnapshot(System.nanoTime() - start);
+        if (!broadcaster.submit(h.key(), payload)) {
+            // Sender is backed up: this frame is lost, so the next one must stand alone.
+            h.stream().requestKeyframe();
+        }
     }
 
     // Spawning and level flow are managed by GameSession.
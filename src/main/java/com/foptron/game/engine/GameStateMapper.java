@@ -1,9 +1,9 @@
 package com.foptron.game.engine;
 
 import com.foptron.game.combat.Disc;
+import com.foptron.game.data.StoryChapter;
 import com.foptron.game.entity.EnemyCycle;
 import com.foptron.game.model.Arena;
-import com.foptron.game.model.CellType;
 import com.foptron.game.model.Pos;
 import com.foptron.web.ws.dto.*;
 
@@ -12,25 +12,50 @@ import java.util.List;
 import java.util.Map;
 
 public final class GameStateMapper {
+    // Lines of recent log shipped with every state frame.
+    public static final int RECENT_EVENTS = 12;
+
     private GameStateMapper() {}
 
-    public static GameStateDto toDto(GameSession session) {
+    /** Full state, numbered {@code seq} in the session's state stream. */
+    public static GameStateDto toDto(GameSession session, long seq) {
         Arena arena = session.arena();
 
-        List<String> arenaRows = new ArrayList<>(Arena.SIZE);
-        CellType[][] g = arena.grid();
-        for (int y = 0; y < Arena.SIZE; y++) {
-            StringBuilder sb = new StringBuilder(Arena.SIZE);
-            for (int x = 0; x < Arena.SIZE; x++) {
-                sb.append(g[y][x].symbol);
-            }
-            arenaRows.add(sb.toString());
+        List<TrailCellDto> trails = new ArrayList<>();
+        for (Map.Entry<Pos, String> e : session.trailColors().entrySet()) {
+            trails.add(new TrailCellDto(e.getKey().x, e.getKey().y, e.getValue()));
         }
 
+        return new GameStateDto(
+                session.sessionId(),
+                GameStateDto.TYPE,
+                seq,
+                arena.width(),
+                arena.height(),
+                arena.id(),
+                arena.name(),
+                arena.contentHash(),
+                arena.isOpen(),
+                playerDto(session),
+                enemyDtos(session),
+                discDtos(session),
+                trails,
+                swarmDto(session),
+                session.recentEvents(RECENT_EVENTS),
+                session.lastEventSeq(),
+                storyDto(session),
+                List.copyOf(session.achievements()),
+                session.isAwaitingEndingChoice(),
+                session.isRunning(),
+                session.isVictory()
+        );
+    }
+
+    static PlayerDto playerDto(GameSession session) {
         var player = session.player();
-        PlayerDto playerDto = new PlayerDto(
-            session.playerName(),
-            player.displayName(),
+        return new PlayerDto(
+                session.playerName(),
+                player.displayName(),
                 player.color(),
                 player.pos().x,
                 player.pos().y,
@@ -42,8 +67,10 @@ public final class GameStateMapper {
                 player.discSlots(),
                 player.activeDiscs()
         );
+    }
 
-        List<EnemyDto> enemies = new ArrayList<>();
+    static List<EnemyDto> enemyDtos(GameSession session) {
+        List<EnemyDto> enemies = new ArrayList<>(session.enemies().size());
         for (EnemyCycle e : session.enemies()) {
             enemies.add(new EnemyDto(
                     e.id(),
@@ -58,37 +85,48 @@ public final class GameStateMapper {
                     e.definition().id()
             ));
         }
+        return enemies;
+    }
 
+    static List<DiscDto> discDtos(GameSession session) {
         List<DiscDto> discs = new ArrayList<>();
         for (Disc d : session.discs()) {
-            discs.add(new DiscDto(d.id(), d.ownerColor(), d.pos().x, d.pos().y, d.isFlying()));
+            discs.add(new DiscDto(d.id(), d.ownerColor(), d.x(), d.y(), d.isFlying()));
         }
+        return discs;
+    }
 
-        List<TrailCellDto> trails = new ArrayList<>();
-        for (Map.Entry<Pos, String> e : session.trailColors().entrySet()) {
-            trails.add(new TrailCellDto(e.getKey().x, e.getKey().y, e.getValue()));
-        }
+    static StoryDto storyDto(GameSession session) {
+        StoryChapter chapter = session.currentStory();
+        return chapter == null ? null : new StoryDto(chapter.id(), chapter.title(), chapter.text());
+    }
 
-        StoryDto story = null;
-        if (session.currentStory() != null) {
-            story = new StoryDto(session.currentStory().id(), session.currentStory().title(), session.currentStory().text());
+    static SwarmDto swarmDto(GameSession session) {
+        if (!session.isMassBattle()) return null;
+        Swarm swarm = session.swarm();
+        int[] cells = new int[swarm.aliveCount() * 2];
+        int n = 0;
+        for (int i = 0; i < swarm.highWater() && n < cells.length; i++) {
+            if (!swarm.isAlive(i)) continue;
+            cells[n++] = swarm.x(i);
+            cells[n++] = swarm.y(i);
         }
+        return new SwarmDto(Swarm.COLOR, swarm.aliveCount(), cells);
+    }
 
-        return new GameStateDto(
-                Arena.SIZE,
-                arena.name(),
-                arena.isOpen(),
-            arenaRows,
-                playerDto,
-                enemies,
-                discs,
-                trails,
-                List.copyOf(session.events()),
-                story,
-                List.copyOf(session.achievements()),
-            session.isAwaitingEndingChoice(),
-                session.isRunning(),
-                session.isVictory()
-        );
+    /**
+     * Events with a sequence number above {@code afterSeq}, oldest first. Events that have
+     * already rotated out of the session's ring are skipped; callers can spot the gap from
+     * the first returned seq.
+     */
+    public static List<EventDto> eventsSince(GameSession session, long afterSeq) {
+        EventLog log = session.eventLog();
+        long from = Math.max(log.firstSeq(), afterSeq + 1);
+        List<EventDto> out = new ArrayList<>();
+        for (long seq = from; seq <= log.lastSeq(); seq++) {
+            EventCode code = log.code(seq);
+            out.add(new EventDto(seq, log.tick(seq), code.category.name(), code.name(), log.text(seq)));
+        }
+        return out;
     }
 }
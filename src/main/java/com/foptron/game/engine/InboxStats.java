@@ -0,0 +1,9 @@
+package com.foptron.game.engine;
+
+/** Command inbox depth across all hosted sessions, plus commands dropped because an inbox was full. */
+public record InboxStats(
+        long queued,
+        int maxDepth,
+        long dropped
+) {
+}
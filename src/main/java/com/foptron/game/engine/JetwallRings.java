@@ -0,0 +1,56 @@
+package com.foptron.game.engine;
+
+import java.util.Arrays;
+
+/**
+ * Limited-length jetwalls: every owner slot keeps the cells it laid in a fixed ring, and
+ * laying one more than its length hands back the oldest cell for expiry. Rings are indexed
+ * by grid slot (player, story enemies, drones), created on an owner's first cell and reused
+ * across levels, so a steady session allocates nothing here.
+ */
+final class JetwallRings {
+
+    static final int NONE = -1;
+
+    private int[][] cells = new int[8][];
+    // Index of the oldest cell and number of cells held, per slot.
+    private int[] head = new int[8];
+    private int[] size = new int[8];
+
+    /**
+     * Records {@code cell} as the newest jetwall of {@code owner}, whose wall holds at most
+     * {@code length} cells. Returns the cell that fell off the end, or {@link #NONE}.
+     */
+    int push(int owner, int length, int cell) {
+        if (owner >= cells.length) {
+            int n = Math.max(owner + 1, cells.length * 2);
+            cells = Arrays.copyOf(cells, n);
+            head = Arrays.copyOf(head, n);
+            size = Arrays.copyOf(size, n);
+        }
+        int[] ring = cells[owner];
+        if (ring == null || (size[owner] == 0 && ring.length != length)) {
+            ring = new int[Math.max(1, length)];
+            cells[owner] = ring;
+            head[owner] = 0;
+        }
+
+        int n = size[owner];
+        if (n < ring.length) {
+            ring[(head[owner] + n) % ring.length] = cell;
+            size[owner] = n + 1;
+            return NONE;
+        }
+        int h = head[owner];
+        int oldest = ring[h];
+        ring[h] = cell;
+        head[owner] = h + 1 == ring.length ? 0 : h + 1;
+        return oldest;
+    }
+
+    /** Forgets every wall; the rings themselves are kept. */
+    void clear() {
+        Arrays.fill(head, 0);
+        Arrays.fill(size, 0);
+    }
+}
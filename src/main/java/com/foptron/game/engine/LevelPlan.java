@@ -0,0 +1,29 @@
+package com.foptron.game.engine;
+
+import com.foptron.game.data.EnemyDefinition;
+import com.foptron.game.model.Arena;
+import com.foptron.game.model.Direction;
+import com.foptron.game.model.Pos;
+
+import java.util.List;
+
+/**
+ * Opening layout of a level, built by {@link LevelPlanner}. The grid already has terrain and
+ * every spawn marked in its cycle layer (player, enemy slots {@code 2..}, drone slots from
+ * {@link Swarm#FIRST_SLOT}); the session only creates the cycles and swaps the grid in.
+ *
+ * @param roster      enemy definitions in slot order; empty in a mass battle
+ * @param droneCells  grid index of each drone, in drone order; empty in the story mode
+ */
+record LevelPlan(
+        int level,
+        Arena arena,
+        OccupancyGrid grid,
+        Pos playerSpawn,
+        List<EnemyDefinition> roster,
+        Pos[] enemySpawns,
+        Direction[] enemyDirs,
+        int[] droneCells,
+        Direction[] droneDirs
+) {
+}
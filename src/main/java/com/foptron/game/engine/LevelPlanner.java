@@ -0,0 +1,197 @@
+package com.foptron.game.engine;
+
+import com.foptron.game.data.ArenaLoader;
+import com.foptron.game.data.EnemyDefinition;
+import com.foptron.game.model.Arena;
+import com.foptron.game.model.Direction;
+import com.foptron.game.model.Pos;
+
+import java.util.*;
+
+/**
+ * Builds {@link LevelPlan}s: arena choice, a fresh occupancy grid, the enemy roster and
+ * spawn cells. It only reads immutable session configuration, so the session can build the
+ * next level on a background executor while the current one plays. A fresh plan draws from
+ * an RNG seeded by (seed, level) alone, so it is the same whichever thread built it and when.
+ */
+final class LevelPlanner {
+
+    private static final long LEVEL_MIX = 0x9E3779B97F4A7C15L;
+    private static final Pos[] NO_POS = new Pos[0];
+    private static final Direction[] NO_DIRS = new Direction[0];
+    private static final int[] NO_CELLS = new int[0];
+
+    private final String sessionId;
+    private final String playerName;
+    private final String arenaMode;
+    private final Map<String, Arena> arenasById;
+    private final Map<String, EnemyDefinition> enemiesById;
+    private final boolean manualStepMode;
+    private final int swarmCapacity;
+    private final long seed;
+
+    LevelPlanner(
+            String sessionId,
+            String playerName,
+            String arenaMode,
+            Map<String, Arena> arenasById,
+            Map<String, EnemyDefinition> enemiesById,
+            boolean manualStepMode,
+            int swarmCapacity,
+            long seed
+    ) {
+        this.sessionId = sessionId;
+        this.playerName = playerName;
+        this.arenaMode = arenaMode;
+        this.arenasById = arenasById;
+        this.enemiesById = enemiesById;
+        this.manualStepMode = manualStepMode;
+        this.swarmCapacity = swarmCapacity;
+        this.seed = seed;
+    }
+
+    /**
+     * The opening of {@code level}, reloading {@code spare} (a grid nobody else uses any more)
+     * or a new grid when it is null. Safe to call from any thread.
+     */
+    LevelPlan plan(int level, OccupancyGrid spare) {
+        Arena arena = arenaFor(level);
+        OccupancyGrid grid;
+        if (spare == null) {
+            grid = new OccupancyGrid(arena);
+        } else {
+            spare.load(arena);
+            grid = spare;
+        }
+        return layout(level, arena, grid, new Random(seed ^ (level * LEVEL_MIX)));
+    }
+
+    /**
+     * Picks the roster and spawn cells on {@code grid}, whose cycle layer must be empty, and
+     * marks every spawn there. Also used on the live grid (with the session RNG) to restart a
+     * failed level.
+     */
+    LevelPlan layout(int level, Arena arena, OccupancyGrid grid, Random rng) {
+        int playerQuadrant = manualStepMode
+            ? Math.floorMod(Objects.hash(playerName, level, arena.name()), 4)
+            : rng.nextInt(4);
+        Pos playerSpawn = spawnInQuadrant(grid, arena, level, playerQuadrant, rng);
+        grid.setCycle(grid.index(playerSpawn), OccupancyGrid.PLAYER_SLOT);
+
+        if (swarmCapacity > 0) {
+            FreeCellIndex free = grid.freeCells();
+            int n = Math.min(swarmCapacity, free.vacantCount() / 4);
+            int[] cells = new int[n];
+            Direction[] dirs = new Direction[n];
+            int placed = 0;
+            for (; placed < n; placed++) {
+                int idx = manualStepMode
+                    ? free.pickVacant(Objects.hash("D", placed, level, arena.name()))
+                    : free.sampleVacant(rng);
+                if (idx == FreeCellIndex.NONE) break;
+                cells[placed] = idx;
+                dirs[placed] = spawnDirection("D" + placed, level, rng);
+                grid.setCycle(idx, Swarm.FIRST_SLOT + placed);
+            }
+            if (placed < n) {
+                cells = Arrays.copyOf(cells, placed);
+                dirs = Arrays.copyOf(dirs, placed);
+            }
+            return new LevelPlan(level, arena, grid, playerSpawn, List.of(), NO_POS, NO_DIRS, cells, dirs);
+        }
+
+        List<EnemyDefinition> roster = rosterFor(level, rng);
+        Pos[] spawns = new Pos[roster.size()];
+        Direction[] dirs = new Direction[roster.size()];
+        for (int i = 0; i < roster.size(); i++) {
+            int q = (playerQuadrant + 1 + (i % 3)) % 4;
+            spawns[i] = spawnInQuadrant(grid, arena, level, q, rng);
+            dirs[i] = spawnDirection("E" + (i + 1), level, rng);
+            grid.setCycle(grid.index(spawns[i]), i + 2);
+        }
+        return new LevelPlan(level, arena, grid, playerSpawn, roster, spawns, dirs, NO_CELLS, NO_DIRS);
+    }
+
+    Arena arenaFor(int level) {
+        if (!"AUTO".equalsIgnoreCase(arenaMode)) {
+            Arena chosen = arenasById.get(arenaMode);
+            return chosen != null ? chosen : arenasById.getOrDefault("ARENA1", arenasById.values().stream().findFirst().orElseThrow());
+        }
+
+        int inChapter = ((level - 1) % 25) + 1;
+        if (inChapter <= 6) {
+            return arenasById.getOrDefault("ARENA1", arenasById.values().stream().findFirst().orElseThrow());
+        }
+        if (inChapter <= 12) {
+            return arenasById.getOrDefault("ARENA3", arenasById.values().stream().findFirst().orElseThrow());
+        }
+        if (inChapter <= 18) {
+            return arenasById.getOrDefault("ARENA2", arenasById.values().stream().findFirst().orElseThrow());
+        }
+
+        long arenaSeed = Objects.hash(sessionId, level);
+        return ArenaLoader.random("PROCEDURAL_" + level, "Procedural", false, new Random(arenaSeed));
+    }
+
+    /** Random heading, or a fixed one per (salt, level) in manual mode. */
+    Direction spawnDirection(String salt, int level, Random rng) {
+        if (!manualStepMode) {
+            return switch (rng.nextInt(4)) {
+                case 0 -> Direction.UP;
+                case 1 -> Direction.DOWN;
+                case 2 -> Direction.LEFT;
+                default -> Direction.RIGHT;
+            };
+        }
+        int v = Math.floorMod(Objects.hash(salt, level), 4);
+        return switch (v) {
+            case 0 -> Direction.UP;
+            case 1 -> Direction.RIGHT;
+            case 2 -> Direction.DOWN;
+            default -> Direction.LEFT;
+        };
+    }
+
+    private List<EnemyDefinition> rosterFor(int level, Random rng) {
+        List<EnemyDefinition> all = new ArrayList<>(enemiesById.values());
+        if (all.isEmpty()) {
+            throw new IllegalStateException("No enemies loaded from data/enemies.txt");
+        }
+
+        EnemyDefinition koura = enemiesById.getOrDefault("KOURA", all.get(0));
+        EnemyDefinition sark = enemiesById.getOrDefault("SARK", all.get(0));
+        EnemyDefinition rinzler = enemiesById.getOrDefault("RINZLER", all.get(0));
+        EnemyDefinition clu = enemiesById.getOrDefault("CLU", all.get(0));
+
+        int chapter = ((level - 1) / 25) + 1;
+        EnemyDefinition preferred = switch (chapter) {
+            case 1 -> koura;
+            case 2 -> sark;
+            case 3 -> rinzler;
+            default -> clu;
+        };
+
+        List<EnemyDefinition> pool = new ArrayList<>();
+        pool.add(koura);
+        pool.add(sark);
+        pool.add(rinzler);
+        pool.add(clu);
+
+        while (pool.size() < 7) {
+            pool.add(preferred);
+        }
+        Collections.shuffle(pool, rng);
+        return pool.subList(0, 7);
+    }
+
+    private Pos spawnInQuadrant(OccupancyGrid grid, Arena arena, int level, int quadrant, Random rng) {
+        FreeCellIndex free = grid.freeCells();
+        int idx = manualStepMode
+            ? free.pickInQuadrant(quadrant, Objects.hash("Q", quadrant, level, arena.name()))
+            : free.sampleInQuadrant(quadrant, rng);
+        if (idx == FreeCellIndex.NONE) {
+            return Pos.of(arena.width() / 2, arena.height() / 2);
+        }
+        return grid.posOf(idx);
+    }
+}
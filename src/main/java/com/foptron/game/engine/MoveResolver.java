@@ -0,0 +1,296 @@
+package com.foptron.game.engine;
+
+import com.foptron.game.entity.Cycle;
+import com.foptron.game.model.Direction;
+import com.foptron.game.model.Pos;
+
+import java.util.Arrays;
+
+/**
+ * Resolves one round of simultaneous cycle moves. Every mover's intended cell is collected
+ * first; outcomes are then decided from those intents and the occupancy grid alone, so the
+ * result does not depend on the order cycles were added.
+ *
+ * <ul>
+ *   <li>off the grid, solid terrain or an existing jetwall: {@link #OUT_OF_BOUNDS}, {@link #SOLID}, {@link #TRAIL}</li>
+ *   <li>two movers claiming the same cell (head-on) or trading cells (swap): {@link #CYCLE} for both;
+ *       when more claim one cell, the lowest slot pairs with the next lowest and the rest with it</li>
+ *   <li>a cell held by a cycle that is not moving, or whose own move fails: {@link #CYCLE}</li>
+ *   <li>a cell another mover is successfully leaving: {@link #TRAIL}, since that mover lays
+ *       jetwall there</li>
+ * </ul>
+ *
+ * Movers are identified by grid slot. Object cycles pass themselves; mass-battle drones have
+ * no object and are added by slot and position.
+ *
+ * Not thread-safe; owned by the session's tick thread.
+ */
+final class MoveResolver {
+
+    static final byte MOVE = 0;
+    static final byte OUT_OF_BOUNDS = 1;
+    static final byte SOLID = 2;
+    static final byte TRAIL = 3;
+    static final byte CYCLE = 4;
+    /** A CYCLE outcome already settled by its partner's handler. */
+    static final byte RESOLVED = 5;
+
+    // Internal: waiting on the outcome of the mover whose cell this one enters.
+    private static final byte PENDING = 6;
+
+    static final int NONE = -1;
+
+    private Cycle[] movers = new Cycle[8];
+    private int[] slots = new int[8];
+    private int[] from = new int[8];
+    private int[] to = new int[8];
+    private int[] toX = new int[8];
+    private int[] toY = new int[8];
+    private byte[] outcome = new byte[8];
+    private int[] otherSlot = new int[8];
+    private int[] partner = new int[8];
+    private int count;
+
+    // Mover index by cycle slot for the current round, NONE otherwise.
+    private int[] moverBySlot = new int[16];
+    // Slots that already failed a move this tick and sit out further rounds.
+    private boolean[] stopped = new boolean[16];
+
+    // Cell claims for head-on detection: open addressing keyed by cell, sized to the movers
+    // rather than the arena so huge grids cost nothing extra. Per cell, the claimers with the
+    // lowest and second-lowest slot, so pairings do not depend on the order of claims.
+    private int[] claimCell = new int[16];
+    private int[] claimMover = new int[16];
+    private int[] claimSecond = new int[16];
+
+    MoveResolver() {
+        Arrays.fill(moverBySlot, NONE);
+    }
+
+    /** Clears per-tick state; call once before the first round of a tick. */
+    void beginTick() {
+        Arrays.fill(stopped, false);
+    }
+
+    boolean isStopped(Cycle c) {
+        return isStopped(c.slot());
+    }
+
+    boolean isStopped(int slot) {
+        return slot < stopped.length && stopped[slot];
+    }
+
+    /** Starts a round. */
+    void beginRound() {
+        for (int i = 0; i < count; i++) {
+            moverBySlot[slots[i]] = NONE;
+            movers[i] = null;
+        }
+        count = 0;
+    }
+
+    /** Phase one: records the cell {@code c} wants to enter. */
+    void add(Cycle c, OccupancyGrid grid) {
+        add(c, c.slot(), c.x(), c.y(), c.dir(), grid);
+    }
+
+    /** Phase one for a mover without a cycle object. */
+    void add(int slot, int x, int y, Direction dir, OccupancyGrid grid) {
+        add(null, slot, x, y, dir, grid);
+    }
+
+    private void add(Cycle c, int slot, int x, int y, Direction dir, OccupancyGrid grid) {
+        if (count == movers.length) grow();
+        ensureSlot(slot);
+
+        int i = count++;
+        movers[i] = c;
+        slots[i] = slot;
+        from[i] = grid.index(x, y);
+        toX[i] = x + dir.dx;
+        toY[i] = y + dir.dy;
+        to[i] = grid.inBounds(toX[i], toY[i]) ? grid.index(toX[i], toY[i]) : NONE;
+        outcome[i] = MOVE;
+        otherSlot[i] = OccupancyGrid.NO_CYCLE;
+        partner[i] = NONE;
+        moverBySlot[slot] = i;
+    }
+
+    /** Phase two: decides every mover's outcome. */
+    void resolve(OccupancyGrid grid) {
+        if (claimCell.length < count * 2) {
+            claimCell = new int[Integer.highestOneBit(count * 2) << 1];
+            claimMover = new int[claimCell.length];
+            claimSecond = new int[claimCell.length];
+        }
+        Arrays.fill(claimCell, NONE);
+        int mask = claimCell.length - 1;
+
+        boolean contested = false;
+        for (int i = 0; i < count; i++) {
+            int cell = to[i];
+            if (cell == NONE) {
+                outcome[i] = OUT_OF_BOUNDS;
+            } else if (grid.isSolid(cell)) {
+                outcome[i] = SOLID;
+            } else if (grid.hasTrail(cell)) {
+                outcome[i] = TRAIL;
+            } else {
+                int h = claim(cell, mask);
+                if (claimCell[h] != cell) {
+                    claimCell[h] = cell;
+                    claimMover[h] = i;
+                    claimSecond[h] = NONE;
+                } else {
+                    contested = true;
+                    int first = claimMover[h];
+                    if (slots[i] < slots[first]) {
+                        claimSecond[h] = first;
+                        claimMover[h] = i;
+                    } else if (claimSecond[h] == NONE || slots[i] < slots[claimSecond[h]]) {
+                        claimSecond[h] = i;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < count && contested; i++) {
+            if (outcome[i] != MOVE) continue;
+            int h = claim(to[i], mask);
+            if (claimSecond[h] == NONE) continue;
+            collide(i, claimMover[h] == i ? claimSecond[h] : claimMover[h]);
+        }
+
+        int pending = 0;
+        for (int i = 0; i < count; i++) {
+            if (outcome[i] != MOVE) continue;
+            int occupant = grid.cycleAt(to[i]);
+            if (occupant == OccupancyGrid.NO_CYCLE || occupant == slots[i]) continue;
+
+            int j = occupant < moverBySlot.length ? moverBySlot[occupant] : NONE;
+            if (j == NONE) {
+                outcome[i] = CYCLE;
+                otherSlot[i] = occupant;
+            } else if (to[j] == from[i]) {
+                collide(i, j);
+                if (outcome[j] == MOVE) collide(j, i);
+            } else {
+                outcome[i] = PENDING;
+                pending++;
+            }
+        }
+
+        // Following a mover into its cell only works out if that mover actually leaves; settle
+        // chains from their heads. Whatever is left is a closed loop, where everyone lays jetwall.
+        boolean progress = pending > 0;
+        while (progress) {
+            progress = false;
+            for (int i = 0; i < count; i++) {
+                if (outcome[i] != PENDING) continue;
+                int j = moverBySlot[grid.cycleAt(to[i])];
+                if (outcome[j] == PENDING) continue;
+                if (outcome[j] == MOVE) {
+                    outcome[i] = TRAIL;
+                } else {
+                    outcome[i] = CYCLE;
+                    otherSlot[i] = slots[j];
+                }
+                progress = true;
+            }
+        }
+        for (int i = 0; i < count && pending > 0; i++) {
+            if (outcome[i] == PENDING) outcome[i] = TRAIL;
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (outcome[i] != MOVE) stopped[slots[i]] = true;
+        }
+    }
+
+    int size() {
+        return count;
+    }
+
+    /** The mover's cycle, or null for a drone. */
+    Cycle mover(int i) {
+        return movers[i];
+    }
+
+    int slot(int i) {
+        return slots[i];
+    }
+
+    byte outcome(int i) {
+        return outcome[i];
+    }
+
+    /** Slot of the cycle hit by a {@link #CYCLE} outcome. */
+    int otherSlot(int i) {
+        return otherSlot[i];
+    }
+
+    /** Mover index of the other party in a head-on or swap, else {@link #NONE}. */
+    int partner(int i) {
+        return partner[i];
+    }
+
+    void markResolved(int i) {
+        outcome[i] = RESOLVED;
+    }
+
+    Pos target(int i) {
+        return Pos.of(toX[i], toY[i]);
+    }
+
+    int targetX(int i) {
+        return toX[i];
+    }
+
+    int targetY(int i) {
+        return toY[i];
+    }
+
+    int targetCell(int i) {
+        return to[i];
+    }
+
+    int fromCell(int i) {
+        return from[i];
+    }
+
+    /** Hash slot of {@code cell} in the claim table: its entry, or the free slot for it. */
+    private int claim(int cell, int mask) {
+        int h = (cell * 0x9E3779B1) >>> 16 & mask;
+        while (claimCell[h] != NONE && claimCell[h] != cell) {
+            h = (h + 1) & mask;
+        }
+        return h;
+    }
+
+    private void collide(int i, int j) {
+        outcome[i] = CYCLE;
+        otherSlot[i] = slots[j];
+        partner[i] = j;
+    }
+
+    private void grow() {
+        int n = movers.length * 2;
+        movers = Arrays.copyOf(movers, n);
+        slots = Arrays.copyOf(slots, n);
+        from = Arrays.copyOf(from, n);
+        to = Arrays.copyOf(to, n);
+        toX = Arrays.copyOf(toX, n);
+        toY = Arrays.copyOf(toY, n);
+        outcome = Arrays.copyOf(outcome, n);
+        otherSlot = Arrays.copyOf(otherSlot, n);
+        partner = Arrays.copyOf(partner, n);
+    }
+
+    private void ensureSlot(int slot) {
+        if (slot < moverBySlot.length) return;
+        int n = Math.max(slot + 1, moverBySlot.length * 2);
+        int old = moverBySlot.length;
+        moverBySlot = Arrays.copyOf(moverBySlot, n);
+        Arrays.fill(moverBySlot, old, n, NONE);
+        stopped = Arrays.copyOf(stopped, n);
+    }
+}
@@ -0,0 +1,72 @@
+package com.foptron.game.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free multi-producer / single-consumer queue. Producers claim a slot with
+ * one CAS and publish the element with a release store; the single consumer reads
+ * slots in order and stops at the first slot that is not yet published.
+ */
+final class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    MpscRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /** Returns false instead of blocking when the buffer is full. */
+    boolean offer(E e) {
+        long p;
+        do {
+            p = producerIndex.get();
+            if (p - consumerIndex.get() >= slots.length()) {
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(p, p + 1));
+
+        slots.setRelease((int) (p & mask), e);
+        return true;
+    }
+
+    /** Consumer thread only. */
+    E poll() {
+        long c = consumerIndex.get();
+        int i = (int) (c & mask);
+        E e = slots.getAcquire(i);
+        if (e == null) {
+            return null;
+        }
+        slots.setRelease(i, null);
+        consumerIndex.setRelease(c + 1);
+        return e;
+    }
+
+    /** Consumer thread only. Hands at most {@code limit} elements to {@code sink}. */
+    int drain(Consumer<? super E> sink, int limit) {
+        int n = 0;
+        E e;
+        while (n < limit && (e = poll()) != null) {
+            sink.accept(e);
+            n++;
+        }
+        return n;
+    }
+
+    int size() {
+        long size = producerIndex.get() - consumerIndex.get();
+        return (int) Math.max(0, Math.min(size, slots.length()));
+    }
+}
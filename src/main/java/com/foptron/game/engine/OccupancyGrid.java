@@ -0,0 +1,437 @@
+package com.foptron.game.engine;
+
+import com.foptron.game.model.Arena;
+import com.foptron.game.model.Direction;
+import com.foptron.game.model.Pos;
+import com.foptron.game.model.RayTable;
+
+import java.util.*;
+
+/**
+ * Flat per-session occupancy for the current arena, indexed by {@code y * width + x}.
+ * Three parallel layers: terrain (from the arena), jetwall trails (palette index of the
+ * owner's color) and cycle occupancy (slot of the cycle standing there, 0 = none).
+ * Collision and AI probes are a single array read and never allocate.
+ *
+ * A trail cell is live only while its stamp equals the current epoch, so clearing every
+ * jetwall is an epoch bump; stale cells simply read as empty. The free-cell index takes the
+ * cleared cells back lazily, the next time it is read.
+ *
+ * Ray clearance starts from the arena's static {@link RayTable}. Each new jetwall patches
+ * the cells that look at it, with the same epoch stamp, so a clear drops every patch too.
+ * A single expired jetwall cell (limited-length mode) is taken back in O(1) plus the same
+ * ray walk, reopening the rays that stopped at it.
+ *
+ * Trail changes are also journaled for the state stream, which only ships the cells that
+ * changed since its last frame. The journal is bounded; once it overflows, or the grid is
+ * reloaded, the stream falls back to a keyframe.
+ */
+final class OccupancyGrid {
+
+    static final byte TERRAIN_EMPTY = 0;
+    static final byte TERRAIN_SOLID = 1;
+    static final byte TERRAIN_RAMP = 2;
+
+    static final int NO_CYCLE = 0;
+    static final int PLAYER_SLOT = 1;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private int width;
+    private int height;
+    private byte[] terrain;
+    private byte[] trailColor;
+    private int[] trailStamp;
+    private short[] trailOwner;
+    // Position of a live trail cell in trailCells, for O(1) removal on expiry.
+    private int[] trailIndex;
+    private short[] cycle;
+    private FreeCellIndex freeCells;
+    private int epoch = 1;
+
+    private RayTable rays;
+    // Patched clearance per (cell, direction); all four are valid while the cell's stamp
+    // equals the epoch.
+    private short[] rayPatch;
+    private int[] rayStamp;
+
+    // Trail cells laid since the last re-admission. [trailStart, trailEnd) are the live ones,
+    // unordered; [0, trailStart) were cleared but not yet given back to the free-cell index.
+    private int[] trailCells = new int[64];
+    private int trailStart;
+    private int trailEnd;
+
+    // Cells whose trail was laid, recolored or expired since the last journal reset; a
+    // cell can appear more than once, readers look at its current state.
+    private int[] trailJournal = new int[64];
+    private int journalSize;
+    private boolean journalLost = true;
+    private boolean trailsCleared;
+
+    // Palette index i + 1 is stored in the trail layer; colors are few and stable per session.
+    private final List<String> palette = new ArrayList<>();
+
+    private final Map<Pos, String> trailView = new TrailView();
+
+    OccupancyGrid(Arena arena) {
+        load(arena);
+    }
+
+    /** Resets all layers for a (possibly different) arena. */
+    void load(Arena arena) {
+        int w = arena.width();
+        int h = arena.height();
+        if (w != width || h != height || terrain == null) {
+            width = w;
+            height = h;
+            terrain = new byte[w * h];
+            trailColor = new byte[w * h];
+            trailStamp = new int[w * h];
+            trailOwner = new short[w * h];
+            trailIndex = new int[w * h];
+            cycle = new short[w * h];
+            rayPatch = new short[w * h * 4];
+            rayStamp = new int[w * h];
+            freeCells = new FreeCellIndex(w, h);
+        } else {
+            Arrays.fill(cycle, (short) 0);
+            freeCells.clear();
+        }
+        rays = arena.rays();
+        trailStart = 0;
+        trailEnd = 0;
+        bumpEpoch();
+        journalSize = 0;
+        journalLost = true;
+
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                terrain[y * w + x] = switch (arena.cellAt(x, y)) {
+                    case WALL, OBSTACLE -> TERRAIN_SOLID;
+                    case RAMP -> TERRAIN_RAMP;
+                    default -> TERRAIN_EMPTY;
+                };
+                refresh(y * w + x);
+            }
+        }
+    }
+
+    int width() {
+        return width;
+    }
+
+    int height() {
+        return height;
+    }
+
+    boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    int index(int x, int y) {
+        return y * width + x;
+    }
+
+    int index(Pos p) {
+        return p.y * width + p.x;
+    }
+
+    Pos posOf(int idx) {
+        return Pos.of(idx % width, idx / width);
+    }
+
+    FreeCellIndex freeCells() {
+        readmitClearedTrails();
+        return freeCells;
+    }
+
+    boolean isSolid(int idx) {
+        return terrain[idx] == TERRAIN_SOLID;
+    }
+
+    boolean isRamp(int idx) {
+        return terrain[idx] == TERRAIN_RAMP;
+    }
+
+    boolean hasTrail(int idx) {
+        return trailStamp[idx] == epoch;
+    }
+
+    /** Solid terrain or a jetwall. */
+    boolean isBlocked(int idx) {
+        return terrain[idx] == TERRAIN_SOLID || trailStamp[idx] == epoch;
+    }
+
+    /** Lays jetwall at {@code idx}; {@code owner} is the slot of the cycle or drone that left it. */
+    void placeTrail(int idx, String color, int owner) {
+        byte paletteIdx = (byte) paletteIndex(color);
+        if (trailStamp[idx] != epoch) {
+            trailStamp[idx] = epoch;
+            if (trailEnd == trailCells.length) {
+                readmitClearedTrails();
+                if (trailEnd == trailCells.length) {
+                    trailCells = Arrays.copyOf(trailCells, trailEnd * 2);
+                }
+            }
+            trailIndex[idx] = trailEnd;
+            trailCells[trailEnd++] = idx;
+            refresh(idx);
+            patchRays(idx);
+            journal(idx);
+        } else if (trailColor[idx] != paletteIdx) {
+            journal(idx);
+        }
+        trailColor[idx] = paletteIdx;
+        trailOwner[idx] = (short) owner;
+    }
+
+    /**
+     * Removes the jetwall at {@code idx} if it is still live and was last laid by {@code owner}.
+     * Returns whether a cell was freed.
+     */
+    boolean expireTrail(int idx, int owner) {
+        if (trailStamp[idx] != epoch || trailOwner[idx] != owner) return false;
+        trailStamp[idx] = 0;
+        int i = trailIndex[idx];
+        int last = trailCells[--trailEnd];
+        trailCells[i] = last;
+        trailIndex[last] = i;
+        refresh(idx);
+        unpatchRays(idx);
+        journal(idx);
+        return true;
+    }
+
+    /**
+     * Open cells that can be entered from {@code idx} in direction {@code dir} before solid
+     * terrain, a jetwall or the arena edge, capped at {@link RayTable#MAX_RUN}. O(1).
+     */
+    int clearance(int idx, Direction dir) {
+        return rayStamp[idx] == epoch ? rayPatch[idx * 4 + dir.ordinal()] : rays.run(idx, dir.ordinal());
+    }
+
+    /** Shortens the rays of every cell that now sees the new jetwall at {@code idx} first. */
+    private void patchRays(int idx) {
+        int tx = idx % width;
+        int ty = idx / width;
+        for (Direction d : DIRECTIONS) {
+            // Walk back against d; the k-th cell behind the wall can enter k - 1 cells. The
+            // first blocked cell still sees the new wall (a disc may rest there); those behind it do not.
+            int x = tx - d.dx;
+            int y = ty - d.dy;
+            for (int run = 0; run < RayTable.MAX_RUN && inBounds(x, y); run++, x -= d.dx, y -= d.dy) {
+                int c = y * width + x;
+                if (rayStamp[c] != epoch) {
+                    for (int k = 0; k < 4; k++) {
+                        rayPatch[c * 4 + k] = (short) rays.run(c, k);
+                    }
+                    rayStamp[c] = epoch;
+                }
+                rayPatch[c * 4 + d.ordinal()] = (short) run;
+                if (isBlocked(c)) break;
+            }
+        }
+    }
+
+    /** Inverse of {@link #patchRays}: rays that stopped at the freed cell now run through it. */
+    private void unpatchRays(int idx) {
+        int tx = idx % width;
+        int ty = idx / width;
+        for (Direction d : DIRECTIONS) {
+            int beyond = clearance(idx, d);
+            int x = tx - d.dx;
+            int y = ty - d.dy;
+            for (int k = 1; k <= RayTable.MAX_RUN && inBounds(x, y); k++, x -= d.dx, y -= d.dy) {
+                int c = y * width + x;
+                if (rayStamp[c] != epoch) {
+                    for (int j = 0; j < 4; j++) {
+                        rayPatch[c * 4 + j] = (short) rays.run(c, j);
+                    }
+                    rayStamp[c] = epoch;
+                }
+                rayPatch[c * 4 + d.ordinal()] = (short) Math.min(RayTable.MAX_RUN, k + beyond);
+                if (isBlocked(c)) break;
+            }
+        }
+    }
+
+    /**
+     * Every stamped cell becomes stale with one epoch bump, O(1) however long the trails are.
+     * The freed cells stay out of the free-cell index until {@link #readmitClearedTrails}.
+     */
+    void clearTrails() {
+        trailStart = trailEnd;
+        bumpEpoch();
+        journalSize = 0;
+        trailsCleared = true;
+    }
+
+    /**
+     * Gives cleared cells back to the free-cell index and moves the live cells to the front.
+     * Runs before the index is read and before the cell list grows, so each cleared cell is
+     * handled once, on the placement or spawn path instead of the clear.
+     */
+    private void readmitClearedTrails() {
+        if (trailStart == 0) return;
+        for (int i = 0; i < trailStart; i++) {
+            // A cleared cell may have been laid again since; refresh reads its current state.
+            refresh(trailCells[i]);
+        }
+        int live = trailEnd - trailStart;
+        System.arraycopy(trailCells, trailStart, trailCells, 0, live);
+        for (int i = 0; i < live; i++) {
+            trailIndex[trailCells[i]] = i;
+        }
+        trailStart = 0;
+        trailEnd = live;
+    }
+
+    private void bumpEpoch() {
+        if (++epoch == Integer.MAX_VALUE) {
+            // Compact once per ~2^31 clears so old stamps can never match again.
+            Arrays.fill(trailStamp, 0);
+            Arrays.fill(rayStamp, 0);
+            epoch = 1;
+        }
+    }
+
+    int trailCount() {
+        return trailEnd - trailStart;
+    }
+
+    /** Grid index of the i-th live trail cell; the order is unspecified once cells expire. */
+    int trailCellAt(int i) {
+        return trailCells[trailStart + i];
+    }
+
+    private void journal(int idx) {
+        if (journalLost) return;
+        if (journalSize == trailJournal.length) {
+            // Past one entry per cell a keyframe is cheaper than the delta anyway.
+            if (journalSize >= terrain.length) {
+                journalLost = true;
+                return;
+            }
+            trailJournal = Arrays.copyOf(trailJournal, Math.min(journalSize * 2, terrain.length));
+        }
+        trailJournal[journalSize++] = idx;
+    }
+
+    /** True when changes were dropped since the last reset, so only a full resend is safe. */
+    boolean trailJournalLost() {
+        return journalLost;
+    }
+
+    /** True when every jetwall was cleared since the last reset; later changes follow in the journal. */
+    boolean trailsClearedSinceReset() {
+        return trailsCleared;
+    }
+
+    int trailChangeCount() {
+        return journalSize;
+    }
+
+    /** Grid index of the i-th journaled change, oldest first. */
+    int trailChangeAt(int i) {
+        return trailJournal[i];
+    }
+
+    void resetTrailJournal() {
+        journalSize = 0;
+        journalLost = false;
+        trailsCleared = false;
+    }
+
+    int cycleAt(int idx) {
+        return cycle[idx];
+    }
+
+    void setCycle(int idx, int slot) {
+        cycle[idx] = (short) slot;
+        refresh(idx);
+    }
+
+    void clearCycle(int idx) {
+        cycle[idx] = NO_CYCLE;
+        refresh(idx);
+    }
+
+    private void refresh(int idx) {
+        boolean open = !isBlocked(idx);
+        freeCells.update(idx, open, open && cycle[idx] == NO_CYCLE);
+    }
+
+    /** Read-only {@code Pos -> color} view of the trail layer, for the state mapper. */
+    Map<Pos, String> trailView() {
+        return trailView;
+    }
+
+    /** Owner color of the live trail at {@code idx}. */
+    String trailColorAt(int idx) {
+        return colorAt(idx);
+    }
+
+    private String colorAt(int idx) {
+        return palette.get((trailColor[idx] & 0xFF) - 1);
+    }
+
+    private int paletteIndex(String color) {
+        for (int i = 0; i < palette.size(); i++) {
+            if (palette.get(i).equals(color)) return i + 1;
+        }
+        if (palette.size() >= 255) {
+            throw new IllegalStateException("Trail palette is full");
+        }
+        palette.add(color);
+        return palette.size();
+    }
+
+    private final class TrailView extends AbstractMap<Pos, String> {
+
+        @Override
+        public int size() {
+            return trailCount();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public String get(Object key) {
+            if (!(key instanceof Pos p) || !inBounds(p.x, p.y)) return null;
+            int idx = index(p);
+            return hasTrail(idx) ? colorAt(idx) : null;
+        }
+
+        @Override
+        public Set<Entry<Pos, String>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return trailCount();
+                }
+
+                @Override
+                public Iterator<Entry<Pos, String>> iterator() {
+                    return new Iterator<>() {
+                        private int next = trailStart;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < trailEnd;
+                        }
+
+                        @Override
+                        public Entry<Pos, String> next() {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            int i = trailCells[next++];
+                            return new SimpleImmutableEntry<>(Pos.of(i % width, i / width), colorAt(i));
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
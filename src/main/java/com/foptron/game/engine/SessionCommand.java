@@ -0,0 +1,7 @@
+package com.foptron.game.engine;
+
+/** A mutation queued by a client thread and applied by the session's owning tick thread. */
+@FunctionalInterface
+interface SessionCommand {
+    void apply(GameSession session);
+}
@@ -0,0 +1,96 @@
+package com.foptron.game.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry entry for one hosted game: the session plus the per-client bookkeeping
+ * the manager needs (owning STOMP connection, leaderboard flag, last activity).
+ * Client threads never touch the session directly; they enqueue commands into the
+ * inbox, which the owning tick thread drains.
+ */
+final class SessionHandle {
+
+    private final String key;
+    private final GameSession session;
+    private final MpscRingBuffer<SessionCommand> inbox;
+    private final AtomicLong droppedCommands = new AtomicLong();
+    private final StateStream stream = new StateStream();
+
+    private volatile String connectionId;
+    private volatile boolean leaderboardRecorded;
+    private volatile long lastActivityMs;
+
+    SessionHandle(String key, GameSession session, String connectionId, int inboxCapacity) {
+        this.key = key;
+        this.session = session;
+        this.inbox = new MpscRingBuffer<>(inboxCapacity);
+        this.connectionId = connectionId;
+        this.lastActivityMs = System.currentTimeMillis();
+    }
+
+    String key() {
+        return key;
+    }
+
+    GameSession session() {
+        return session;
+    }
+
+    StateStream stream() {
+        return stream;
+    }
+
+    /** Any thread. Returns false (and counts a drop) when the inbox is full. */
+    boolean enqueue(SessionCommand command) {
+        if (inbox.offer(command)) {
+            return true;
+        }
+        droppedCommands.incrementAndGet();
+        return false;
+    }
+
+    /** Owning tick thread only. */
+    int drainCommands() {
+        return inbox.drain(c -> c.apply(session), inbox.capacity());
+    }
+
+    int queuedCommands() {
+        return inbox.size();
+    }
+
+    long droppedCommands() {
+        return droppedCommands.get();
+    }
+
+    String connectionId() {
+        return connectionId;
+    }
+
+    /**
+     * Any thread. Whether {@code connectionId} may command this game: the first connection to
+     * claim an unowned game becomes its owner, every other connection is refused.
+     */
+    synchronized boolean claim(String connectionId) {
+        if (connectionId == null) return false;
+        if (this.connectionId == null) {
+            this.connectionId = connectionId;
+        }
+        return this.connectionId.equals(connectionId);
+    }
+
+    boolean isLeaderboardRecorded() {
+        return leaderboardRecorded;
+    }
+
+    void markLeaderboardRecorded() {
+        leaderboardRecorded = true;
+    }
+
+    long lastActivityMs() {
+        return lastActivityMs;
+    }
+
+    void touch() {
+        lastActivityMs = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,23 @@
+package com.foptron.game.engine;
+
+import java.util.List;
+
+/**
+ * Execution strategy that drives the periodic tick of every registered session.
+ * A session is only ever ticked by one thread at a time.
+ */
+interface SessionTicker {
+
+    void register(SessionHandle handle);
+
+    void unregister(SessionHandle handle);
+
+    /** Whether the tick callback may block (file I/O, broker sends) without stalling other sessions. */
+    default boolean blockingAllowed() {
+        return false;
+    }
+
+    List<TickStats> stats();
+
+    void shutdown();
+}
@@ -0,0 +1,152 @@
+package com.foptron.game.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Fixed set of platform-thread tick loops. Each session is pinned to one shard by the
+ * hash of its key, so its state is only ever touched by that shard's thread, and each
+ * shard ticks all of its sessions back to back once per period.
+ */
+final class ShardedTickScheduler implements SessionTicker {
+
+    private final Shard[] shards;
+
+    ShardedTickScheduler(int shardCount, long periodMs, Consumer<SessionHandle> tickFn) {
+        int n = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        long periodNanos = Math.max(1, periodMs) * 1_000_000L;
+
+        this.shards = new Shard[n];
+        for (int i = 0; i < n; i++) {
+            shards[i] = new Shard("tick-shard-" + i, periodNanos, tickFn);
+        }
+        for (Shard s : shards) {
+            s.thread.start();
+        }
+    }
+
+    static int shardFor(String key, int shardCount) {
+        return Math.floorMod(key.hashCode(), shardCount);
+    }
+
+    int shardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public void register(SessionHandle handle) {
+        shards[shardFor(handle.key(), shards.length)].pendingAdds.add(handle);
+    }
+
+    @Override
+    public void unregister(SessionHandle handle) {
+        shards[shardFor(handle.key(), shards.length)].pendingRemoves.add(handle);
+    }
+
+    @Override
+    public List<TickStats> stats() {
+        List<TickStats> out = new ArrayList<>(shards.length);
+        for (Shard s : shards) {
+            out.add(s.stats());
+        }
+        return out;
+    }
+
+    @Override
+    public void shutdown() {
+        for (Shard s : shards) {
+            s.running = false;
+            LockSupport.unpark(s.thread);
+        }
+    }
+
+    private static final class Shard implements Runnable {
+        private final String name;
+        private final long periodNanos;
+        private final Consumer<SessionHandle> tickFn;
+        private final Thread thread;
+
+        // Registration happens on other threads; the session list itself is owned by the shard thread.
+        private final Queue<SessionHandle> pendingAdds = new ConcurrentLinkedQueue<>();
+        private final Queue<SessionHandle> pendingRemoves = new ConcurrentLinkedQueue<>();
+        private final List<SessionHandle> sessions = new ArrayList<>();
+
+        private volatile boolean running = true;
+
+        // Written by the shard thread only.
+        private volatile int sessionCount;
+        private volatile long ticks;
+        private volatile long overruns;
+        private volatile long lastLagNanos;
+        private volatile long maxLagNanos;
+        private volatile long lastBusyNanos;
+
+        Shard(String name, long periodNanos, Consumer<SessionHandle> tickFn) {
+            this.name = name;
+            this.periodNanos = periodNanos;
+            this.tickFn = tickFn;
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long deadline = System.nanoTime();
+            while (running) {
+                drainPending();
+
+                long start = System.nanoTime();
+                long lag = Math.max(0, start - deadline);
+                for (int i = 0; i < sessions.size(); i++) {
+                    tickFn.accept(sessions.get(i));
+                }
+                long end = System.nanoTime();
+
+                ticks++;
+                lastLagNanos = lag;
+                if (lag > maxLagNanos) maxLagNanos = lag;
+                lastBusyNanos = end - start;
+
+                deadline += periodNanos;
+                if (end > deadline) {
+                    // Skip the missed deadline rather than bursting to catch up.
+                    overruns++;
+                    deadline = end;
+                }
+
+                long remaining;
+                while (running && (remaining = deadline - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(this, remaining);
+                }
+            }
+        }
+
+        private void drainPending() {
+            // Adds first, so a handle registered and dropped between two ticks never lingers.
+            SessionHandle h;
+            while ((h = pendingAdds.poll()) != null) {
+                sessions.add(h);
+            }
+            while ((h = pendingRemoves.poll()) != null) {
+                sessions.remove(h);
+            }
+            sessionCount = sessions.size();
+        }
+
+        TickStats stats() {
+            return new TickStats(
+                    name,
+                    sessionCount,
+                    ticks,
+                    overruns,
+                    lastLagNanos / 1e6,
+                    maxLagNanos / 1e6,
+                    lastBusyNanos / 1e6
+            );
+        }
+    }
+}
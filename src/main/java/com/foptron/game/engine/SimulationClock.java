@@ -0,0 +1,12 @@
+package com.foptron.game.engine;
+
+/** Time source for the simulation, so games can run on wall-clock or virtual time. */
+@FunctionalInterface
+public interface SimulationClock {
+
+    long nowMs();
+
+    static SimulationClock system() {
+        return System::currentTimeMillis;
+    }
+}
@@ -0,0 +1,67 @@
+package com.foptron.game.engine;
+
+import java.util.concurrent.Executor;
+
+/**
+ * How a session advances time.
+ *
+ * @param clock            time source read once per {@link GameSession#tick()}
+ * @param fixedStepMs      simulation step length; 0 falls back to one variable step per tick (clamped 16..250 ms)
+ * @param maxStepsPerFrame catch-up limit per tick; real time beyond it is dropped
+ * @param seed             RNG seed, or null to seed from the session identity and wall time
+ * @param maxLandedDiscs   landed discs left on the grid before the oldest returns to its owner
+ * @param swarmSize        drones in a mass battle (replacing the story enemies), 0 for the story mode
+ * @param limitedJetwalls  jetwalls keep only their newest cells (per-definition length, else
+ *                         {@link #DEFAULT_JETWALL_LENGTH}); the oldest cell expires as a new one is laid
+ * @param levelPrewarm     builds the next level's arena and layout while the current one plays, or
+ *                         null to build it on the tick thread when the level changes; the result is
+ *                         the same either way
+ */
+public record SimulationSettings(
+        SimulationClock clock,
+        long fixedStepMs,
+        int maxStepsPerFrame,
+        Long seed,
+        int maxLandedDiscs,
+        int swarmSize,
+        boolean limitedJetwalls,
+        Executor levelPrewarm
+) {
+
+    public static final long DEFAULT_STEP_MS = 100;
+    public static final int DEFAULT_MAX_STEPS_PER_FRAME = 3;
+    public static final int DEFAULT_MAX_LANDED_DISCS = 16;
+    public static final int MAX_SWARM_SIZE = 4096;
+    public static final int DEFAULT_JETWALL_LENGTH = 40;
+
+    public static SimulationSettings defaults() {
+        return new SimulationSettings(SimulationClock.system(), DEFAULT_STEP_MS, DEFAULT_MAX_STEPS_PER_FRAME, null, DEFAULT_MAX_LANDED_DISCS, 0, false, null);
+    }
+
+    /** Virtual time: every tick is exactly one fixed step, with a reproducible RNG. */
+    public static SimulationSettings virtual(long seed) {
+        return new SimulationSettings(VirtualClock.stepping(DEFAULT_STEP_MS), DEFAULT_STEP_MS, 1, seed, DEFAULT_MAX_LANDED_DISCS, 0, false, null);
+    }
+
+    public SimulationSettings withFixedStep(long fixedStepMs, int maxStepsPerFrame) {
+        return new SimulationSettings(clock, fixedStepMs, maxStepsPerFrame, seed, maxLandedDiscs, swarmSize, limitedJetwalls, levelPrewarm);
+    }
+
+    public SimulationSettings withMaxLandedDiscs(int maxLandedDiscs) {
+        return new SimulationSettings(clock, fixedStepMs, maxStepsPerFrame, seed, maxLandedDiscs, swarmSize, limitedJetwalls, levelPrewarm);
+    }
+
+    /** Clamped to {@code 0..MAX_SWARM_SIZE}. */
+    public SimulationSettings withSwarmSize(int swarmSize) {
+        int n = Math.max(0, Math.min(MAX_SWARM_SIZE, swarmSize));
+        return new SimulationSettings(clock, fixedStepMs, maxStepsPerFrame, seed, maxLandedDiscs, n, limitedJetwalls, levelPrewarm);
+    }
+
+    public SimulationSettings withLimitedJetwalls(boolean limitedJetwalls) {
+        return new SimulationSettings(clock, fixedStepMs, maxStepsPerFrame, seed, maxLandedDiscs, swarmSize, limitedJetwalls, levelPrewarm);
+    }
+
+    public SimulationSettings withLevelPrewarm(Executor levelPrewarm) {
+        return new SimulationSettings(clock, fixedStepMs, maxStepsPerFrame, seed, maxLandedDiscs, swarmSize, limitedJetwalls, levelPrewarm);
+    }
+}
@@ -0,0 +1,10 @@
+package com.foptron.game.engine;
+
+/** Outcome of starting or loading a game under a session id. */
+public enum StartResult {
+    STARTED,
+    /** The session cap is reached and no idle session could be evicted. */
+    FULL,
+    /** The id belongs to a game owned by another live connection. */
+    IN_USE
+}
@@ -0,0 +1,152 @@
+package com.foptron.game.engine;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Second stage of the broadcast pipeline. Tick threads build each frame (the snapshot: plain
+ * immutable DTOs) and {@link #submit} it; one sender thread serializes it and hands it to the
+ * {@link StateFrameSink}s, so tick N is encoded and sent while tick N + 1 simulates and a slow
+ * encoder or broker never delays the simulation. Submitting never blocks: when the ring is
+ * full the frame is dropped and the caller forces a keyframe instead.
+ *
+ * Frames of one session come from one tick thread at a time and the ring is FIFO, so each
+ * session's frames go out in order. With {@code pipelined = false} frames are sent on the
+ * submitting thread, as before.
+ */
+final class StateBroadcaster {
+
+    private final List<StateFrameSink> sinks;
+    private final boolean pipelined;
+    private final MpscRingBuffer<Outbound> ring;
+    private final Thread sender;
+    private volatile boolean running = true;
+    // Set by the sender before it parks; producers unpark it only then.
+    private volatile boolean senderIdle;
+
+    private final LongAdder snapshots = new LongAdder();
+    private final LongAdder snapshotNanos = new LongAdder();
+    private final LongAccumulator snapshotMaxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder dropped = new LongAdder();
+
+    // Send stage: queue wait and serialize + send time per frame.
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong sendNanos = new AtomicLong();
+    private final AtomicLong sendMaxNanos = new AtomicLong();
+    private final AtomicLong handoffNanos = new AtomicLong();
+    private final AtomicLong handoffMaxNanos = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    StateBroadcaster(List<StateFrameSink> sinks, boolean pipelined, int capacity) {
+        this.sinks = sinks;
+        this.pipelined = pipelined;
+        this.ring = new MpscRingBuffer<>(capacity);
+        if (pipelined) {
+            sender = new Thread(this::sendLoop, "state-sender");
+            sender.setDaemon(true);
+            sender.start();
+        } else {
+            sender = null;
+        }
+    }
+
+    /** Any thread. Whether any sink has a viewer for {@code sessionId}. */
+    boolean watched(String sessionId) {
+        for (int i = 0; i < sinks.size(); i++) {
+            if (sinks.get(i).hasViewers(sessionId)) return true;
+        }
+        return false;
+    }
+
+    /** Tick threads. Records how long building the frame took on the simulation thread. */
+    void recordSnapshot(long nanos) {
+        snapshots.increment();
+        snapshotNanos.add(nanos);
+        snapshotMaxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Tick threads. Queues {@code frame} for sending; returns false, without blocking, when the
+     * ring is full and the frame was dropped.
+     */
+    boolean submit(String sessionId, Object frame) {
+        Outbound out = new Outbound(sessionId, frame, System.nanoTime());
+        if (!pipelined) {
+            send(out);
+            return true;
+        }
+        if (!ring.offer(out)) {
+            dropped.increment();
+            return false;
+        }
+        if (senderIdle) LockSupport.unpark(sender);
+        return true;
+    }
+
+    BroadcastStats stats() {
+        long n = Math.max(1, sent.get());
+        long s = Math.max(1, snapshots.sum());
+        return new BroadcastStats(
+                pipelined,
+                sent.get(),
+                dropped.sum(),
+                errors.get(),
+                ring.size(),
+                ring.capacity(),
+                micros(snapshotNanos.sum() / s),
+                micros(snapshotMaxNanos.get()),
+                micros(handoffNanos.get() / n),
+                micros(handoffMaxNanos.get()),
+                micros(sendNanos.get() / n),
+                micros(sendMaxNanos.get())
+        );
+    }
+
+    void shutdown() {
+        running = false;
+        if (sender != null) LockSupport.unpark(sender);
+    }
+
+    private void sendLoop() {
+        while (running) {
+            if (ring.drain(this::send, ring.capacity()) > 0) continue;
+            senderIdle = true;
+            // Re-check after announcing idleness, so a frame offered in between is not stranded.
+            if (ring.size() == 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+            }
+            senderIdle = false;
+        }
+    }
+
+    private void send(Outbound out) {
+        long start = System.nanoTime();
+        long waited = start - out.enqueuedNanos;
+        handoffNanos.addAndGet(waited);
+        handoffMaxNanos.accumulateAndGet(waited, Math::max);
+        for (int i = 0; i < sinks.size(); i++) {
+            StateFrameSink sink = sinks.get(i);
+            try {
+                if (sink.hasViewers(out.sessionId)) sink.publish(out.sessionId, out.frame);
+            } catch (RuntimeException e) {
+                // One failing transport must not stop the others or the sender thread.
+                errors.incrementAndGet();
+            }
+        }
+        long took = System.nanoTime() - start;
+        sendNanos.addAndGet(took);
+        sendMaxNanos.accumulateAndGet(took, Math::max);
+        sent.incrementAndGet();
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    private record Outbound(String sessionId, Object frame, long enqueuedNanos) {
+    }
+}
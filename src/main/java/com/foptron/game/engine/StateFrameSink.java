@@ -0,0 +1,22 @@
+package com.foptron.game.engine;
+
+/**
+ * A transport for state frames (the STOMP session topics, the binary socket). Each frame is a
+ * {@code GameStateDto} keyframe or {@code StateDeltaDto}, already built, immutable and in
+ * order per session. {@link #publish} runs on the single {@code state-sender} thread, which
+ * serializes and sends for every session, so a slow send delays all games' frames (never
+ * their simulation). With {@code foptron.broadcast.pipelined=false} it runs on the session's
+ * tick thread instead, and several sessions can publish at once.
+ *
+ * A transport that starts serving a new viewer should ask the manager for a keyframe
+ * ({@link GameSessionManager#resync}); frames are not built at all while no transport
+ * reports a viewer.
+ */
+public interface StateFrameSink {
+
+    /** Any thread. Whether anyone currently receives this session's frames here. */
+    boolean hasViewers(String sessionId);
+
+    /** Sender thread (tick threads when not pipelined). Must not throw for a single bad viewer. */
+    void publish(String sessionId, Object frame);
+}
@@ -0,0 +1,233 @@
+package com.foptron.game.engine;
+
+import com.foptron.web.ws.dto.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Per-session encoder for the state topic. Frames are numbered; the first one, and any
+ * after a level change, a lost trail journal or a client's resync request, is a full
+ * {@link GameStateDto} keyframe. Every other frame is a {@link StateDeltaDto} against the
+ * frame before it, built from what this stream last sent rather than by re-serializing
+ * the whole state: arena rows, story text and achievements only travel when they change,
+ * and trails come from the grid's change journal.
+ *
+ * Owned by the session's tick thread; only {@link #requestKeyframe} may be called from others.
+ */
+final class StateStream {
+
+    private volatile boolean keyframeRequested = true;
+    private long seq;
+
+    // What the client holds after the last frame.
+    private OccupancyGrid grid;
+    private PlayerDto player;
+    private List<EnemyDto> enemies = List.of();
+    private List<DiscDto> discs = List.of();
+    private SwarmDto swarm;
+    private long lastEventSeq;
+    private String storyId;
+    private int achievements;
+    private boolean awaitingChoice;
+    private boolean running;
+    private boolean victory;
+
+    /** Any thread. The next frame will be a keyframe. */
+    void requestKeyframe() {
+        keyframeRequested = true;
+    }
+
+    long seq() {
+        return seq;
+    }
+
+    /** Next frame for {@code session}: a {@link GameStateDto} or a {@link StateDeltaDto}. */
+    Object next(GameSession session) {
+        OccupancyGrid g = session.occupancy();
+        if (keyframeRequested || g != grid || g.trailJournalLost()) {
+            keyframeRequested = false;
+            return keyframe(session, g);
+        }
+        return delta(session, g);
+    }
+
+    private GameStateDto keyframe(GameSession session, OccupancyGrid g) {
+        GameStateDto dto = GameStateMapper.toDto(session, ++seq);
+        g.resetTrailJournal();
+        grid = g;
+        player = dto.player();
+        enemies = dto.enemies();
+        discs = dto.discs();
+        swarm = dto.swarm();
+        lastEventSeq = dto.lastEventSeq();
+        storyId = dto.story() == null ? null : dto.story().id();
+        achievements = dto.achievements().size();
+        awaitingChoice = dto.awaitingChoice();
+        running = dto.running();
+        victory = dto.victory();
+        return dto;
+    }
+
+    private StateDeltaDto delta(GameSession session, OccupancyGrid g) {
+        PlayerDto p = GameStateMapper.playerDto(session);
+        PlayerDto playerOut = null;
+        MoveDto playerMove = null;
+        if (!sameExceptPose(player, p)) {
+            playerOut = p;
+        } else if (p.x() != player.x() || p.y() != player.y() || !p.direction().equals(player.direction())) {
+            playerMove = new MoveDto(session.player().id(), p.x(), p.y(), p.direction());
+        }
+        player = p;
+
+        List<EnemyDto> current = GameStateMapper.enemyDtos(session);
+        List<EnemyDto> enemiesOut = null;
+        List<MoveDto> enemyMoves = null;
+        List<String> gone = null;
+        if (!current.equals(enemies)) {
+            for (int i = 0; i < current.size(); i++) {
+                EnemyDto e = current.get(i);
+                EnemyDto before = find(enemies, e.id());
+                if (e.equals(before)) continue;
+                if (before != null && sameExceptPose(before, e)) {
+                    if (enemyMoves == null) enemyMoves = new ArrayList<>();
+                    enemyMoves.add(new MoveDto(e.id(), e.x(), e.y(), e.direction()));
+                } else {
+                    if (enemiesOut == null) enemiesOut = new ArrayList<>();
+                    enemiesOut.add(e);
+                }
+            }
+            for (int i = 0; i < enemies.size(); i++) {
+                String id = enemies.get(i).id();
+                if (find(current, id) == null) {
+                    if (gone == null) gone = new ArrayList<>();
+                    gone.add(id);
+                }
+            }
+            enemies = current;
+        }
+
+        List<DiscDto> d = GameStateMapper.discDtos(session);
+        List<DiscDto> discsOut = null;
+        if (!d.equals(discs)) {
+            discsOut = d;
+            discs = d;
+        }
+
+        Boolean cleared = g.trailsClearedSinceReset() ? Boolean.TRUE : null;
+        int[] trailDel = null;
+        List<TrailCellDto> trailAdd = null;
+        int changes = g.trailChangeCount();
+        if (changes > 0) {
+            // A cell may be journaled more than once; its current state is what the client needs.
+            int[] del = new int[changes * 2];
+            int dels = 0;
+            int w = g.width();
+            for (int i = 0; i < changes; i++) {
+                int idx = g.trailChangeAt(i);
+                if (g.hasTrail(idx)) {
+                    if (trailAdd == null) trailAdd = new ArrayList<>();
+                    trailAdd.add(new TrailCellDto(idx % w, idx / w, g.trailColorAt(idx)));
+                } else {
+                    del[dels++] = idx % w;
+                    del[dels++] = idx / w;
+                }
+            }
+            if (dels > 0) trailDel = Arrays.copyOf(del, dels);
+        }
+        g.resetTrailJournal();
+
+        SwarmDto s = GameStateMapper.swarmDto(session);
+        SwarmDto swarmOut = null;
+        if (s != null && (swarm == null || s.alive() != swarm.alive() || !Arrays.equals(s.cells(), swarm.cells()))) {
+            swarmOut = s;
+        }
+        swarm = s;
+
+        List<String> events = null;
+        Long eventSeq = null;
+        long last = session.lastEventSeq();
+        if (last != lastEventSeq) {
+            events = session.recentEvents((int) Math.min(GameStateMapper.RECENT_EVENTS, last - lastEventSeq));
+            eventSeq = last;
+            lastEventSeq = last;
+        }
+
+        StoryDto story = null;
+        if (session.currentStory() != null && !session.currentStory().id().equals(storyId)) {
+            story = GameStateMapper.storyDto(session);
+            storyId = story.id();
+        }
+
+        List<String> achievementsOut = null;
+        if (session.achievements().size() != achievements) {
+            achievementsOut = List.copyOf(session.achievements());
+            achievements = achievementsOut.size();
+        }
+
+        Boolean awaitingOut = changed(awaitingChoice, session.isAwaitingEndingChoice());
+        awaitingChoice = session.isAwaitingEndingChoice();
+        Boolean runningOut = changed(running, session.isRunning());
+        running = session.isRunning();
+        Boolean victoryOut = changed(victory, session.isVictory());
+        victory = session.isVictory();
+
+        return new StateDeltaDto(
+                session.sessionId(),
+                StateDeltaDto.TYPE,
+                ++seq,
+                playerOut,
+                playerMove,
+                enemiesOut,
+                enemyMoves,
+                gone,
+                discsOut,
+                cleared,
+                trailDel,
+                trailAdd,
+                swarmOut,
+                events,
+                eventSeq,
+                story,
+                achievementsOut,
+                awaitingOut,
+                runningOut,
+                victoryOut
+        );
+    }
+
+    private static Boolean changed(boolean before, boolean now) {
+        return before == now ? null : now;
+    }
+
+    private static EnemyDto find(List<EnemyDto> enemies, String id) {
+        for (int i = 0; i < enemies.size(); i++) {
+            if (enemies.get(i).id().equals(id)) return enemies.get(i);
+        }
+        return null;
+    }
+
+    /** Everything but position and heading is equal. */
+    private static boolean sameExceptPose(PlayerDto a, PlayerDto b) {
+        return a.lives() == b.lives()
+                && a.level() == b.level()
+                && a.xp() == b.xp()
+                && a.xpForNextLevel() == b.xpForNextLevel()
+                && a.discSlots() == b.discSlots()
+                && a.activeDiscs() == b.activeDiscs()
+                && Objects.equals(a.playerName(), b.playerName())
+                && Objects.equals(a.characterName(), b.characterName())
+                && Objects.equals(a.color(), b.color());
+    }
+
+    private static boolean sameExceptPose(EnemyDto a, EnemyDto b) {
+        return a.lives() == b.lives()
+                && a.discSlots() == b.discSlots()
+                && a.activeDiscs() == b.activeDiscs()
+                && Objects.equals(a.name(), b.name())
+                && Objects.equals(a.color(), b.color())
+                && Objects.equals(a.type(), b.type());
+    }
+}
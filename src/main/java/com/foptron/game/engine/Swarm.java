@@ -0,0 +1,230 @@
+package com.foptron.game.engine;
+
+import com.foptron.game.model.Direction;
+
+import java.util.Random;
+
+/**
+ * Mass-battle drones, stored as parallel primitive arrays indexed by drone number. A derezzed
+ * drone's index goes on a free stack and is handed out again by the next spawn, so nothing is
+ * ever removed and every per-tick pass is a plain loop over {@code [0, highWater)}.
+ *
+ * Drone {@code i} occupies grid slot {@link #FIRST_SLOT} + i. Drones have one life: any crash,
+ * ram or disc hit derezzes them.
+ */
+final class Swarm {
+
+    static final int NONE = -1;
+    /** Grid slot of drone 0; the player and story enemies use the slots below. */
+    static final int FIRST_SLOT = 64;
+    static final String COLOR = "Orange";
+    static final String DISPLAY_NAME = "Drone";
+    /** Key under which drone kills are counted in the session's derez statistics. */
+    static final String STATS_ID = "DRONE";
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    // Turn tables by direction ordinal.
+    private static final byte[] OPPOSITE = new byte[DIRECTIONS.length];
+    private static final byte[] LEFT = new byte[DIRECTIONS.length];
+
+    static {
+        for (Direction d : DIRECTIONS) {
+            for (Direction o : DIRECTIONS) {
+                if (d.isOpposite(o)) OPPOSITE[d.ordinal()] = (byte) o.ordinal();
+                // Counter-clockwise quarter turn in screen coordinates (y grows downward).
+                if (o.dx == d.dy && o.dy == -d.dx) LEFT[d.ordinal()] = (byte) o.ordinal();
+            }
+        }
+    }
+    private static final float SPEED = 1.2f;
+    private static final float MAX_SPEED = 3.0f;
+    private static final int TURN_COOLDOWN_MS = 300;
+    // One decision in this many steers toward the player instead of cruising.
+    private static final int HUNT_ODDS = 8;
+
+    private final int capacity;
+    private final int[] x;
+    private final int[] y;
+    private final byte[] dir;
+    private final float[] speed;
+    private final float[] progress;
+    private final int[] turnCooldownMs;
+    private final boolean[] alive;
+
+    private final int[] free;
+    private int freeCount;
+    private int highWater;
+    private int aliveCount;
+
+    Swarm(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        x = new int[this.capacity];
+        y = new int[this.capacity];
+        dir = new byte[this.capacity];
+        speed = new float[this.capacity];
+        progress = new float[this.capacity];
+        turnCooldownMs = new int[this.capacity];
+        alive = new boolean[this.capacity];
+        free = new int[this.capacity];
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    int aliveCount() {
+        return aliveCount;
+    }
+
+    /** Upper bound (exclusive) of indices that have ever been handed out since the last reset. */
+    int highWater() {
+        return highWater;
+    }
+
+    boolean isAlive(int i) {
+        return alive[i];
+    }
+
+    int x(int i) {
+        return x[i];
+    }
+
+    int y(int i) {
+        return y[i];
+    }
+
+    Direction dir(int i) {
+        return DIRECTIONS[dir[i]];
+    }
+
+    int slot(int i) {
+        return FIRST_SLOT + i;
+    }
+
+    boolean isSlot(int slot) {
+        return slot >= FIRST_SLOT && slot < FIRST_SLOT + highWater;
+    }
+
+    int indexOfSlot(int slot) {
+        return slot - FIRST_SLOT;
+    }
+
+    /** Forgets every drone; indices start from 0 again. */
+    void reset() {
+        for (int i = 0; i < highWater; i++) {
+            alive[i] = false;
+        }
+        highWater = 0;
+        freeCount = 0;
+        aliveCount = 0;
+    }
+
+    /** Returns the new drone's index, reusing a dead one first, or {@link #NONE} when full. */
+    int spawn(int cx, int cy, Direction d) {
+        int i;
+        if (freeCount > 0) {
+            i = free[--freeCount];
+        } else if (highWater < capacity) {
+            i = highWater++;
+        } else {
+            return NONE;
+        }
+        x[i] = cx;
+        y[i] = cy;
+        dir[i] = (byte) d.ordinal();
+        speed[i] = SPEED;
+        progress[i] = 0;
+        turnCooldownMs[i] = 0;
+        alive[i] = true;
+        aliveCount++;
+        return i;
+    }
+
+    void kill(int i) {
+        if (!alive[i]) return;
+        alive[i] = false;
+        aliveCount--;
+        free[freeCount++] = i;
+    }
+
+    void moveTo(int i, int cx, int cy) {
+        x[i] = cx;
+        y[i] = cy;
+    }
+
+    void reverse(int i) {
+        dir[i] = (byte) opposite(dir[i]);
+    }
+
+    void rampBoost(int i) {
+        speed[i] = Math.min(MAX_SPEED, speed[i] + 0.15f);
+    }
+
+    void tickTimers(long dtMs) {
+        int dt = (int) dtMs;
+        for (int i = 0; i < highWater; i++) {
+            if (alive[i]) turnCooldownMs[i] = Math.max(0, turnCooldownMs[i] - dt);
+        }
+    }
+
+    void addMoveProgress(long dtMs) {
+        float seconds = dtMs / 1000f;
+        for (int i = 0; i < highWater; i++) {
+            if (alive[i]) progress[i] += speed[i] * seconds;
+        }
+    }
+
+    /** Same contract as {@code Cycle.hasMoveStep()} followed by {@code consumeMoveStep()}. */
+    boolean takeMoveStep(int i) {
+        if (progress[i] < 1f) return false;
+        progress[i] -= 1f;
+        return true;
+    }
+
+    /**
+     * One decision per live drone: turn away from anything directly ahead, otherwise now and
+     * then turn toward the player. Uses only clearance lookups, so it is O(drones).
+     */
+    void steer(OccupancyGrid grid, int playerX, int playerY, Random rng) {
+        for (int i = 0; i < highWater; i++) {
+            if (!alive[i] || turnCooldownMs[i] > 0) continue;
+            int d = dir[i];
+            int cell = grid.index(x[i], y[i]);
+            int left = left(d);
+            int right = opposite(left);
+
+            int turn = NONE;
+            if (grid.clearance(cell, DIRECTIONS[d]) == 0) {
+                int l = grid.clearance(cell, DIRECTIONS[left]);
+                int r = grid.clearance(cell, DIRECTIONS[right]);
+                if (l > 0 || r > 0) {
+                    turn = l > r || (l == r && rng.nextBoolean()) ? left : right;
+                }
+            } else if (rng.nextInt(HUNT_ODDS) == 0) {
+                Direction l = DIRECTIONS[left];
+                int along = (playerX - x[i]) * l.dx + (playerY - y[i]) * l.dy;
+                int toward = along > 0 ? left : along < 0 ? right : NONE;
+                if (toward != NONE && grid.clearance(cell, DIRECTIONS[toward]) > 0) {
+                    turn = toward;
+                }
+            }
+
+            if (turn != NONE) {
+                dir[i] = (byte) turn;
+                turnCooldownMs[i] = TURN_COOLDOWN_MS;
+            }
+        }
+    }
+
+    private static int opposite(int d) {
+        return OPPOSITE[d];
+    }
+
+    private static int left(int d) {
+        return LEFT[d];
+    }
+}
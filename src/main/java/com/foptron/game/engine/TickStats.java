@@ -0,0 +1,17 @@
+package com.foptron.game.engine;
+
+/**
+ * Timing snapshot for one tick loop (a shard, or the aggregate of per-session loops).
+ * Lag is how late a tick started relative to its deadline; an overrun is a period
+ * whose work did not finish before the next deadline.
+ */
+public record TickStats(
+        String name,
+        int sessions,
+        long ticks,
+        long overruns,
+        double lastLagMs,
+        double maxLagMs,
+        double lastBusyMs
+) {
+}
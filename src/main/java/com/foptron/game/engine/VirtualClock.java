@@ -0,0 +1,35 @@
+package com.foptron.game.engine;
+
+/**
+ * Manually driven clock. A stepping clock advances by a fixed amount on every read, so a
+ * session that reads it once per tick runs exactly one fixed step per tick, as fast as
+ * the caller can loop.
+ */
+public final class VirtualClock implements SimulationClock {
+
+    private final long autoAdvanceMs;
+    private long nowMs;
+
+    public VirtualClock() {
+        this(0);
+    }
+
+    private VirtualClock(long autoAdvanceMs) {
+        this.autoAdvanceMs = autoAdvanceMs;
+    }
+
+    public static VirtualClock stepping(long stepMs) {
+        return new VirtualClock(Math.max(1, stepMs));
+    }
+
+    public void advance(long ms) {
+        nowMs += Math.max(0, ms);
+    }
+
+    @Override
+    public long nowMs() {
+        long t = nowMs;
+        nowMs += autoAdvanceMs;
+        return t;
+    }
+}
@@ -0,0 +1,99 @@
+package com.foptron.game.engine;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * One virtual thread per session. Each loop sleeps until its own next deadline, so
+ * anything the tick callback does (leaderboard file I/O, broker sends) can simply block.
+ */
+final class VirtualThreadSessionLoops implements SessionTicker {
+
+    private final long periodNanos;
+    private final Consumer<SessionHandle> tickFn;
+
+    private final ConcurrentMap<SessionHandle, Thread> loops = new ConcurrentHashMap<>();
+
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder overruns = new LongAdder();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+    private volatile long lastLagNanos;
+    private volatile long lastBusyNanos;
+
+    VirtualThreadSessionLoops(long periodMs, Consumer<SessionHandle> tickFn) {
+        this.periodNanos = Math.max(1, periodMs) * 1_000_000L;
+        this.tickFn = tickFn;
+    }
+
+    @Override
+    public void register(SessionHandle handle) {
+        Thread t = Thread.ofVirtual().name("session-" + handle.key()).unstarted(() -> loop(handle));
+        loops.put(handle, t);
+        t.start();
+    }
+
+    @Override
+    public void unregister(SessionHandle handle) {
+        Thread t = loops.remove(handle);
+        if (t != null) {
+            t.interrupt();
+        }
+    }
+
+    @Override
+    public boolean blockingAllowed() {
+        return true;
+    }
+
+    @Override
+    public List<TickStats> stats() {
+        return List.of(new TickStats(
+                "virtual",
+                loops.size(),
+                ticks.sum(),
+                overruns.sum(),
+                lastLagNanos / 1e6,
+                maxLagNanos.get() / 1e6,
+                lastBusyNanos / 1e6
+        ));
+    }
+
+    @Override
+    public void shutdown() {
+        for (SessionHandle h : loops.keySet()) {
+            unregister(h);
+        }
+    }
+
+    private void loop(SessionHandle handle) {
+        long deadline = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            long start = System.nanoTime();
+            long lag = Math.max(0, start - deadline);
+            tickFn.accept(handle);
+            long end = System.nanoTime();
+
+            ticks.increment();
+            lastLagNanos = lag;
+            maxLagNanos.accumulateAndGet(lag, Math::max);
+            lastBusyNanos = end - start;
+
+            deadline += periodNanos;
+            if (end > deadline) {
+                overruns.increment();
+                deadline = end;
+            }
+
+            try {
+                Thread.sleep(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
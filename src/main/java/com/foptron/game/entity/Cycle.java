@@ -3,8 +3,6 @@ package com.foptron.game.entity;
 import com.foptron.game.model.Direction;
 import com.foptron.game.model.Pos;
 
-import java.util.HashSet;
-import java.util.Set;
 
 public abstract class Cycle {
 
@@ -18,6 +16,8 @@ public abstract class Cycle {
     protected double lives;
     protected double maxLives;
     protected int discSlots;
+    // Cells of jetwall kept in the limited-length mode; 0 = the session default.
+    protected int jetwallLength;
 
     protected int level;
     protected long xp;
@@ -25,7 +25,7 @@ public abstract class Cycle {
     protected Pos pos;
     protected Direction dir;
 
-    protected final Set<Pos> trail = new HashSet<>();
+    protected final TrailPolyline trail = new TrailPolyline();
 
     private double moveAccumulator;
     protected long discCooldownRemainingMs;
@@ -35,6 +35,9 @@ public abstract class Cycle {
 
     protected int activeDiscs;
 
+    // Occupancy slot assigned by the owning session; 0 = not placed.
+    private int slot;
+
     protected Cycle(String id, CycleType type, String displayName, String color) {
         this.id = id;
         this.type = type;
@@ -82,6 +85,10 @@ public abstract class Cycle {
         return level;
     }
 
+    public int jetwallLength() {
+        return jetwallLength;
+    }
+
     public long xp() {
         return xp;
     }
@@ -94,7 +101,28 @@ public abstract class Cycle {
         return dir;
     }
 
-    public Set<Pos> trail() {
+    public int x() {
+        return pos.x;
+    }
+
+    public int y() {
+        return pos.y;
+    }
+
+    /** Current cell as {@link Pos#pack(int, int)}. */
+    public int packedPos() {
+        return pos.packed();
+    }
+
+    public int slot() {
+        return slot;
+    }
+
+    public void assignSlot(int slot) {
+        this.slot = slot;
+    }
+
+    public TrailPolyline trail() {
         return trail;
     }
 
@@ -14,6 +14,7 @@ public final class EnemyCycle extends Cycle {
         this.handling = def.handling();
         this.lives = 1.0;
         this.discSlots = 1;
+        this.jetwallLength = def.jetwallLength();
         this.level = 1;
         this.xp = 0;
     }
@@ -24,6 +24,7 @@ public abstract class PlayerCycle extends Cycle {
         this.lives = def.lives();
         this.maxLives = def.lives();
         this.discSlots = def.discsOwned();
+        this.jetwallLength = def.jetwallLength();
         this.xp = def.experiencePoints();
         this.level = 1;
 
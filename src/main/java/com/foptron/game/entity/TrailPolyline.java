@@ -0,0 +1,164 @@
+package com.foptron.game.entity;
+
+import com.foptron.game.model.Pos;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A cycle's jetwall as an ordered list of packed turn points ({@link Pos#pack(int, int)}).
+ * Consecutive points are joined by straight runs of cells; {@link #BREAK} separates runs
+ * that are not connected (after a respawn). Straight moves just slide the last point, so
+ * memory grows with turns rather than cells. Cell membership is answered by the session's
+ * occupancy grid, not here. With limited-length jetwalls the tail is trimmed one cell at a
+ * time by {@link #dropOldest()}; live points are {@code points[start, length)}.
+ */
+public final class TrailPolyline {
+
+    /** Separator between disconnected runs; never a valid packed cell. */
+    public static final int BREAK = Integer.MIN_VALUE;
+
+    private int[] points = new int[16];
+    private int start;
+    private int length;
+    private int cells;
+
+    // Direction of the run ending at the last point; (0, 0) when that run is a single cell.
+    private int runDx;
+    private int runDy;
+
+    /** Adds the next cell the cycle left jetwall on. */
+    public void extend(int cell) {
+        if (length == start) {
+            start = 0;
+            length = 0;
+            append(cell);
+            cells = 1;
+            return;
+        }
+
+        int head = points[length - 1];
+        int dx = Pos.packedX(cell) - Pos.packedX(head);
+        int dy = Pos.packedY(cell) - Pos.packedY(head);
+        if (Math.abs(dx) + Math.abs(dy) != 1) {
+            append(BREAK);
+            append(cell);
+            runDx = 0;
+            runDy = 0;
+        } else if (dx == runDx && dy == runDy) {
+            points[length - 1] = cell;
+        } else {
+            append(cell);
+            runDx = dx;
+            runDy = dy;
+        }
+        cells++;
+    }
+
+    /**
+     * Removes the oldest covered cell. O(1) amortized: the first point either steps toward
+     * the next one or, when its run is used up, is dropped together with a following break.
+     */
+    public void dropOldest() {
+        if (length == start) return;
+        int first = points[start];
+        int next = start + 1 < length ? points[start + 1] : BREAK;
+        if (next == BREAK) {
+            start++;
+            if (start < length && points[start] == BREAK) start++;
+        } else {
+            int x = Pos.packedX(first);
+            int y = Pos.packedY(first);
+            int moved = Pos.pack(x + Integer.signum(Pos.packedX(next) - x), y + Integer.signum(Pos.packedY(next) - y));
+            if (moved == next) {
+                start++;
+            } else {
+                points[start] = moved;
+            }
+        }
+        cells--;
+
+        if (length - start <= 1) {
+            // At most one point left: the last run is a single cell again.
+            runDx = 0;
+            runDy = 0;
+        }
+        if (length == start) {
+            clear();
+        }
+    }
+
+    /** O(1); the backing array is kept for reuse. */
+    public void clear() {
+        start = 0;
+        length = 0;
+        cells = 0;
+        runDx = 0;
+        runDy = 0;
+    }
+
+    public boolean isEmpty() {
+        return length == start;
+    }
+
+    /** Number of stored points, including {@link #BREAK} markers. */
+    public int pointCount() {
+        return length - start;
+    }
+
+    public int pointAt(int i) {
+        return points[start + i];
+    }
+
+    /** Copy of the stored points, including {@link #BREAK} markers. */
+    public int[] toArray() {
+        return Arrays.copyOfRange(points, start, length);
+    }
+
+    /** Number of cells covered. */
+    public int cellCount() {
+        return cells;
+    }
+
+    /** Visits every covered cell, oldest first, as packed ints. */
+    public void forEachCell(IntConsumer action) {
+        int prev = BREAK;
+        for (int i = start; i < length; i++) {
+            int p = points[i];
+            if (p == BREAK) {
+                prev = BREAK;
+                continue;
+            }
+            if (prev == BREAK) {
+                action.accept(p);
+            } else {
+                int x = Pos.packedX(prev);
+                int y = Pos.packedY(prev);
+                int tx = Pos.packedX(p);
+                int ty = Pos.packedY(p);
+                int sx = Integer.signum(tx - x);
+                int sy = Integer.signum(ty - y);
+                while (x != tx || y != ty) {
+                    x += sx;
+                    y += sy;
+                    action.accept(Pos.pack(x, y));
+                }
+            }
+            prev = p;
+        }
+    }
+
+    private void append(int p) {
+        if (length == points.length) {
+            if (start >= points.length / 2) {
+                // Mostly trimmed from the front: slide down instead of growing.
+                System.arraycopy(points, start, points, 0, length - start);
+                length -= start;
+                start = 0;
+            } else {
+                points = Arrays.copyOf(points, length * 2);
+            }
+        }
+        points[length++] = p;
+    }
+}
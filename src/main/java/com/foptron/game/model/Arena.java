@@ -1,18 +1,84 @@
 package com.foptron.game.model;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+
 public final class Arena {
-    public static final int SIZE = 40;
+    public static final int DEFAULT_SIZE = 40;
+    public static final int MIN_SIZE = 16;
+    public static final int MAX_SIZE = 2048;
+
+    // Terrain lives in CHUNK x CHUNK tiles of CellType ordinals, so a neighbourhood read touches
+    // one or two small arrays however wide the arena is.
+    private static final int CHUNK_SHIFT = 5;
+    private static final int CHUNK = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK - 1;
+    private static final CellType[] TYPES = CellType.values();
 
     private final String id;
     private final String name;
     private final boolean open;
-    private final CellType[][] grid;
+    private final int width;
+    private final int height;
+    private final int chunksX;
+    private final byte[][] chunks;
+    private final RayTable rays;
+    private final String contentHash;
+
+    // Rendered symbol rows and their serialized form, built on first use; arenas are immutable.
+    private volatile List<String> rows;
+    private volatile String layout;
 
     public Arena(String id, String name, boolean open, CellType[][] grid) {
         this.id = id;
         this.name = name;
         this.open = open;
-        this.grid = grid;
+        this.height = grid.length;
+        this.width = height == 0 ? 0 : grid[0].length;
+        if (width < MIN_SIZE || height < MIN_SIZE || width > MAX_SIZE || height > MAX_SIZE) {
+            throw new IllegalArgumentException("Arena " + id + " is " + width + "x" + height
+                    + ", expected " + MIN_SIZE + ".." + MAX_SIZE + " per side");
+        }
+
+        this.chunksX = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+        int chunksY = (height + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunks = new byte[chunksX * chunksY][CHUNK * CHUNK];
+        MessageDigest digest = sha256();
+        digest.update(new byte[] {(byte) (width >> 8), (byte) width, (byte) (height >> 8), (byte) height});
+        byte[] symbols = new byte[width];
+        for (int y = 0; y < height; y++) {
+            CellType[] row = grid[y];
+            if (row.length != width) {
+                throw new IllegalArgumentException("Arena " + id + " row " + y + " is not " + width + " wide");
+            }
+            for (int x = 0; x < width; x++) {
+                chunks[chunkOf(x, y)][offsetOf(x, y)] = (byte) row[x].ordinal();
+                symbols[x] = (byte) row[x].symbol;
+            }
+            digest.update(symbols);
+        }
+        this.contentHash = HexFormat.of().formatHex(digest.digest(), 0, 8);
+        this.rays = RayTable.of(this);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private int chunkOf(int x, int y) {
+        return (y >> CHUNK_SHIFT) * chunksX + (x >> CHUNK_SHIFT);
+    }
+
+    private static int offsetOf(int x, int y) {
+        return ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
     }
 
     public String id() {
@@ -27,24 +93,94 @@ public final class Arena {
         return open;
     }
 
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
     public boolean inBounds(Pos pos) {
-        return pos.x >= 0 && pos.x < SIZE && pos.y >= 0 && pos.y < SIZE;
+        return inBounds(pos.x, pos.y);
+    }
+
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    public boolean inBoundsPacked(int packed) {
+        return inBounds(Pos.packedX(packed), Pos.packedY(packed));
     }
 
     public CellType cellAt(Pos pos) {
-        return grid[pos.y][pos.x];
+        return cellAt(pos.x, pos.y);
+    }
+
+    public CellType cellAt(int x, int y) {
+        return TYPES[chunks[chunkOf(x, y)][offsetOf(x, y)]];
     }
 
     public boolean isSolid(Pos pos) {
-        CellType cell = cellAt(pos);
+        return isSolid(pos.x, pos.y);
+    }
+
+    public boolean isSolid(int x, int y) {
+        CellType cell = cellAt(x, y);
         return cell == CellType.WALL || cell == CellType.OBSTACLE;
     }
 
+    public boolean isSolidPacked(int packed) {
+        return isSolid(Pos.packedX(packed), Pos.packedY(packed));
+    }
+
     public boolean isRamp(Pos pos) {
-        return cellAt(pos) == CellType.RAMP;
+        return isRamp(pos.x, pos.y);
+    }
+
+    public boolean isRamp(int x, int y) {
+        return cellAt(x, y) == CellType.RAMP;
+    }
+
+    /** One string of cell symbols per row, top to bottom. */
+    public List<String> rows() {
+        List<String> r = rows;
+        if (r == null) {
+            List<String> built = new ArrayList<>(height);
+            StringBuilder sb = new StringBuilder(width);
+            for (int y = 0; y < height; y++) {
+                sb.setLength(0);
+                for (int x = 0; x < width; x++) {
+                    sb.append(cellAt(x, y).symbol);
+                }
+                built.add(sb.toString());
+            }
+            r = Collections.unmodifiableList(built);
+            rows = r;
+        }
+        return r;
+    }
+
+    /**
+     * Hash of the terrain and dimensions only (not id or name): arenas that look the same
+     * share it, and a hash always names the same {@link #layout()}.
+     */
+    public String contentHash() {
+        return contentHash;
+    }
+
+    /** {@link #rows()} joined by newlines, as served to clients. */
+    public String layout() {
+        String l = layout;
+        if (l == null) {
+            l = String.join("\n", rows());
+            layout = l;
+        }
+        return l;
     }
 
-    public CellType[][] grid() {
-        return grid;
+    /** Distances to the first solid cell in each direction; terrain only. */
+    public RayTable rays() {
+        return rays;
     }
 }
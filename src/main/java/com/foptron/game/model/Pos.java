@@ -1,8 +1,15 @@
 package com.foptron.game.model;
 
-import java.util.Objects;
-
 public final class Pos {
+    // Canonical instances for -1..MAX_CACHED-1 on both axes (one step outside the arena included).
+    private static final int MAX_CACHED = 1024;
+    private static final int OFFSET = 1;
+    private static final int SPAN = MAX_CACHED + OFFSET;
+
+    // Rows are filled lazily. Racing threads may briefly create duplicates, which is harmless:
+    // equality is by value and the fields are final, so instances are safely published.
+    private static final Pos[][] TABLE = new Pos[SPAN][];
+
     public final int x;
     public final int y;
 
@@ -11,8 +18,49 @@ public final class Pos {
         this.y = y;
     }
 
+    /** Returns the shared instance for (x, y) when it is in the cached range. */
+    public static Pos of(int x, int y) {
+        int cx = x + OFFSET;
+        int cy = y + OFFSET;
+        if (cx < 0 || cy < 0 || cx >= SPAN || cy >= SPAN) {
+            return new Pos(x, y);
+        }
+        Pos[] row = TABLE[cy];
+        if (row == null) {
+            row = new Pos[SPAN];
+            TABLE[cy] = row;
+        }
+        Pos p = row[cx];
+        if (p == null) {
+            p = new Pos(x, y);
+            row[cx] = p;
+        }
+        return p;
+    }
+
+    public static Pos ofPacked(int packed) {
+        return of(packedX(packed), packedY(packed));
+    }
+
+    /** Packs a coordinate pair into one int; both halves are signed 16-bit. */
+    public static int pack(int x, int y) {
+        return (y << 16) | (x & 0xFFFF);
+    }
+
+    public static int packedX(int packed) {
+        return (short) packed;
+    }
+
+    public static int packedY(int packed) {
+        return packed >> 16;
+    }
+
+    public int packed() {
+        return pack(x, y);
+    }
+
     public Pos add(Direction direction) {
-        return new Pos(x + direction.dx, y + direction.dy);
+        return of(x + direction.dx, y + direction.dy);
     }
 
     @Override
@@ -25,6 +73,6 @@ public final class Pos {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return 31 * x + y;
     }
 }
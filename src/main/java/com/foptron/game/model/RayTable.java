@@ -0,0 +1,69 @@
+package com.foptron.game.model;
+
+/**
+ * Static line-of-sight table for one arena: for every cell and {@link Direction}, how many
+ * cells can be entered in that direction before reaching solid terrain or the arena edge.
+ * Built once per arena; cells are indexed {@code y * width + x}, directions by ordinal.
+ *
+ * Runs saturate at {@link #MAX_RUN}: a query only ever needs to know whether a range fits,
+ * and the cap bounds how far a new jetwall has to patch on wide arenas.
+ */
+public final class RayTable {
+
+    public static final int MAX_RUN = 32;
+
+    private final int width;
+    private final int height;
+    // runs[idx * 4 + dir.ordinal()]
+    private final short[] runs;
+
+    private RayTable(int width, int height, short[] runs) {
+        this.width = width;
+        this.height = height;
+        this.runs = runs;
+    }
+
+    public static RayTable of(Arena arena) {
+        int w = arena.width();
+        int h = arena.height();
+        short[] runs = new short[w * h * 4];
+
+        for (Direction d : Direction.values()) {
+            int k = d.ordinal();
+            // Walk against the ray so the neighbour ahead is always computed first.
+            int x0 = d.dx > 0 ? w - 1 : 0;
+            int y0 = d.dy > 0 ? h - 1 : 0;
+            int sx = d.dx > 0 ? -1 : 1;
+            int sy = d.dy > 0 ? -1 : 1;
+            for (int y = y0; y >= 0 && y < h; y += sy) {
+                for (int x = x0; x >= 0 && x < w; x += sx) {
+                    int nx = x + d.dx;
+                    int ny = y + d.dy;
+                    int run = 0;
+                    if (nx >= 0 && nx < w && ny >= 0 && ny < h && !arena.isSolid(nx, ny)) {
+                        run = Math.min(MAX_RUN, runs[(ny * w + nx) * 4 + k] + 1);
+                    }
+                    runs[(y * w + x) * 4 + k] = (short) run;
+                }
+            }
+        }
+        return new RayTable(w, h, runs);
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    /** Enterable cells ahead of {@code idx} in direction {@code dir} (by ordinal), at most {@link #MAX_RUN}. */
+    public int run(int idx, int dir) {
+        return runs[idx * 4 + dir];
+    }
+
+    public int run(int x, int y, Direction dir) {
+        return runs[(y * width + x) * 4 + dir.ordinal()];
+    }
+}
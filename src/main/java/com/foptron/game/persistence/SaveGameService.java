@@ -38,9 +38,12 @@ public class SaveGameService {
     }
 
     public void save(GameSession session) {
+        save(toSaveData(session));
+    }
+
+    public void save(SaveGameData data) {
         try {
             Files.createDirectories(saveDir());
-            SaveGameData data = toSaveData(session);
             Path file = saveDir().resolve(safeFileName(data.playerName()) + ".json");
             mapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), data);
         } catch (Exception e) {
@@ -61,7 +64,7 @@ public class SaveGameService {
     }
 
     public StartRequest toStartRequest(SaveGameData save, String arenaId) {
-        return new StartRequest(save.playerName(), save.characterId(), arenaId, false);
+        return new StartRequest(save.playerName(), save.characterId(), arenaId, false, null, null, null);
     }
 
     private static String safeFileName(String s) {
@@ -0,0 +1,141 @@
+package com.foptron.sim;
+
+import com.foptron.game.ai.Brains;
+import com.foptron.game.ai.EnemyAction;
+import com.foptron.game.ai.PlayerBrain;
+import com.foptron.game.data.CharacterDefinition;
+import com.foptron.game.data.DataRepository;
+import com.foptron.game.engine.DamageCause;
+import com.foptron.game.engine.GameSession;
+import com.foptron.game.engine.SimulationSettings;
+import com.foptron.game.entity.Kevin;
+import com.foptron.game.entity.PlayerCycle;
+import com.foptron.game.entity.Tron;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Runs many AI-vs-AI games on virtual time, without Spring or STOMP, and prints
+ * throughput plus outcome statistics. Used to balance enemies.txt and to load-test
+ * the engine.
+ *
+ * Arguments are key=value pairs: games, parallelism, maxTicks, seed, arena, character,
+ * limitedJetwalls.
+ */
+public final class HeadlessSimulation {
+
+    private final DataRepository data;
+    private final PlayerBrain policy;
+
+    public HeadlessSimulation(DataRepository data, PlayerBrain policy) {
+        this.data = data;
+        this.policy = policy;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parseArgs(args);
+        int games = Integer.parseInt(opts.getOrDefault("games", "1000"));
+        int parallelism = Integer.parseInt(opts.getOrDefault("parallelism", Integer.toString(Runtime.getRuntime().availableProcessors())));
+        long maxTicks = Long.parseLong(opts.getOrDefault("maxTicks", "6000"));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "1"));
+        String arena = opts.getOrDefault("arena", "AUTO");
+        String character = opts.getOrDefault("character", "TRON");
+        boolean limitedJetwalls = Boolean.parseBoolean(opts.getOrDefault("limitedJetwalls", "false"));
+
+        HeadlessSimulation sim = new HeadlessSimulation(new DataRepository(), Brains.autopilot());
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        long start = System.nanoTime();
+        List<GameResult> results;
+        try {
+            results = pool.submit(() -> IntStream.range(0, games)
+                    .parallel()
+                    .mapToObj(i -> sim.play(i, seed + i, arena, character, maxTicks, limitedJetwalls))
+                    .toList()
+            ).get();
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.print(new Report(results, seconds, parallelism).format());
+    }
+
+    public GameResult play(int index, long seed, String arenaMode, String characterId, long maxTicks) {
+        return play(index, seed, arenaMode, characterId, maxTicks, false);
+    }
+
+    public GameResult play(int index, long seed, String arenaMode, String characterId, long maxTicks, boolean limitedJetwalls) {
+        GameSession session = new GameSession(
+                "SIM-" + index,
+                "Sim" + index,
+                arenaMode,
+                createPlayer(characterId),
+                data.arenas(),
+                data.enemies(),
+                data.progression(),
+                false,
+                SimulationSettings.virtual(seed).withLimitedJetwalls(limitedJetwalls)
+        );
+
+        List<Long> survivalTicks = new ArrayList<>();
+        long lifeStart = 0;
+        int deathsSeen = 0;
+
+        while (session.isRunning() && session.stepIndex() < maxTicks) {
+            EnemyAction action = policy.decide(session, session.player());
+            session.applyInput(action.direction(), action.throwDisc());
+            session.tick();
+
+            if (session.playerDeaths() != deathsSeen) {
+                deathsSeen = session.playerDeaths();
+                survivalTicks.add(session.stepIndex() - lifeStart);
+                lifeStart = session.stepIndex();
+            }
+        }
+
+        return new GameResult(
+                session.player().level(),
+                session.stepIndex(),
+                session.isVictory(),
+                new EnumMap<>(session.deathsByCause()),
+                Map.copyOf(session.derezzesByEnemyId()),
+                survivalTicks
+        );
+    }
+
+    private PlayerCycle createPlayer(String characterId) {
+        String key = characterId.toUpperCase();
+        CharacterDefinition def = data.characters().get(key);
+        if (def == null) {
+            def = data.characters().values().stream().findFirst().orElseThrow();
+        }
+        return switch (key) {
+            case "KEVIN" -> new Kevin("P1", def);
+            default -> new Tron("P1", def);
+        };
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> out = new HashMap<>();
+        for (String a : args) {
+            int eq = a.indexOf('=');
+            if (eq > 0) {
+                out.put(a.substring(0, eq).replaceFirst("^-+", ""), a.substring(eq + 1));
+            }
+        }
+        return out;
+    }
+
+    public record GameResult(
+            int levelReached,
+            long ticks,
+            boolean victory,
+            Map<DamageCause, Integer> deathsByCause,
+            Map<String, Integer> derezzesByEnemyId,
+            List<Long> survivalTicks
+    ) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.foptron.sim;
+
+import com.foptron.game.engine.DamageCause;
+import com.foptron.game.engine.SimulationSettings;
+
+import java.util.*;
+
+/** Aggregates headless game results into a plain-text summary. */
+final class Report {
+
+    private final List<HeadlessSimulation.GameResult> results;
+    private final double seconds;
+    private final int parallelism;
+
+    Report(List<HeadlessSimulation.GameResult> results, double seconds, int parallelism) {
+        this.results = results;
+        this.seconds = seconds;
+        this.parallelism = parallelism;
+    }
+
+    String format() {
+        long totalTicks = 0;
+        int victories = 0;
+        long[] levels = new long[results.size()];
+        Map<DamageCause, Integer> deaths = new EnumMap<>(DamageCause.class);
+        Map<String, Integer> derezzes = new TreeMap<>();
+        List<Long> survival = new ArrayList<>();
+
+        for (int i = 0; i < results.size(); i++) {
+            HeadlessSimulation.GameResult r = results.get(i);
+            totalTicks += r.ticks();
+            if (r.victory()) victories++;
+            levels[i] = r.levelReached();
+            r.deathsByCause().forEach((k, v) -> deaths.merge(k, v, Integer::sum));
+            r.derezzesByEnemyId().forEach((k, v) -> derezzes.merge(k, v, Integer::sum));
+            survival.addAll(r.survivalTicks());
+        }
+        Arrays.sort(levels);
+        long[] lives = survival.stream().mapToLong(Long::longValue).sorted().toArray();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("games=%d parallelism=%d wall=%.2fs%n", results.size(), parallelism, seconds));
+        sb.append(String.format("throughput: %.1f games/s, %.0f ticks/s%n", results.size() / seconds, totalTicks / seconds));
+        sb.append(String.format("victories: %d%n", victories));
+        sb.append(String.format("level reached: min=%d p50=%d p90=%d max=%d%n",
+                pct(levels, 0), pct(levels, 50), pct(levels, 90), pct(levels, 100)));
+
+        sb.append("deaths by cause:");
+        if (deaths.isEmpty()) sb.append(" none");
+        deaths.forEach((k, v) -> sb.append(' ').append(k).append('=').append(v));
+        sb.append(System.lineSeparator());
+
+        sb.append("enemy derezzes:");
+        if (derezzes.isEmpty()) sb.append(" none");
+        derezzes.forEach((k, v) -> sb.append(' ').append(k).append('=').append(v));
+        sb.append(System.lineSeparator());
+
+        double tickSeconds = SimulationSettings.DEFAULT_STEP_MS / 1000.0;
+        sb.append(String.format("survival per life (s): n=%d p10=%.1f p50=%.1f p90=%.1f p99=%.1f%n",
+                lives.length,
+                pct(lives, 10) * tickSeconds,
+                pct(lives, 50) * tickSeconds,
+                pct(lives, 90) * tickSeconds,
+                pct(lives, 99) * tickSeconds));
+        return sb.toString();
+    }
+
+    private static long pct(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, idx))];
+    }
+}
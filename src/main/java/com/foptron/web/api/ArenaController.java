@@ -0,0 +1,45 @@
+package com.foptron.web.api;
+
+import com.foptron.game.engine.GameSessionManager;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.TimeUnit;
+
+@RestController
+public class ArenaController {
+
+    private final GameSessionManager manager;
+
+    public ArenaController(GameSessionManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Arena rows as plain text, one line per row, by content hash. A hash always names the
+     * same layout, so responses are cacheable forever.
+     */
+    @GetMapping("/api/arenas/{hash}")
+    public ResponseEntity<byte[]> layout(@PathVariable("hash") String hash, WebRequest request) {
+        String etag = "\"" + hash + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        byte[] layout = manager.arenaLayout(hash);
+        if (layout == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown arena layout");
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(layout);
+    }
+}
@@ -0,0 +1,50 @@
+package com.foptron.web.api;
+
+import com.foptron.game.engine.GameSessionManager;
+import com.foptron.game.engine.GameStateMapper;
+import com.foptron.web.ws.dto.EventDto;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@RestController
+public class EventsController {
+
+    private static final long QUERY_TIMEOUT_MS = 2000;
+
+    private final GameSessionManager manager;
+
+    public EventsController(GameSessionManager manager) {
+        this.manager = manager;
+    }
+
+    /** Session log entries after sequence number {@code since} (0 = everything still held). */
+    @GetMapping("/api/events")
+    public List<EventDto> events(
+            @RequestParam("sessionId") String sessionId,
+            @RequestParam(name = "since", defaultValue = "0") long since
+    ) {
+        CompletableFuture<List<EventDto>> result = manager.query(sessionId, s -> GameStateMapper.eventsSince(s, since));
+        if (result == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No active session");
+        }
+        try {
+            return result.get(QUERY_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, String.valueOf(e.getCause().getMessage()));
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Session did not respond");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        }
+    }
+}
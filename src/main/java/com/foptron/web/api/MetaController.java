@@ -1,6 +1,7 @@
 package com.foptron.web.api;
 
 import com.foptron.game.data.DataRepository;
+import com.foptron.game.model.Arena;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -35,7 +36,9 @@ public class MetaController {
                 .map(a -> Map.<String, Object>of(
                         "id", a.id(),
                         "name", a.name(),
-                        "open", a.isOpen()
+                        "open", a.isOpen(),
+                        "width", a.width(),
+                        "height", a.height()
                 ))
                 .toList();
 
@@ -43,13 +46,15 @@ public class MetaController {
         arenas.add(0, Map.of(
                 "id", "AUTO",
                 "name", "AUTO (Story Schedule)",
-                "open", false
+                "open", false,
+                "width", Arena.DEFAULT_SIZE,
+                "height", Arena.DEFAULT_SIZE
         ));
 
         return Map.of(
                 "characters", characters,
                 "arenas", arenas,
-                "size", 40
+                "defaultSize", Arena.DEFAULT_SIZE
         );
     }
 }
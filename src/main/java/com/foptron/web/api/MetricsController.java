@@ -0,0 +1,30 @@
+package com.foptron.web.api;
+
+import com.foptron.game.engine.GameSessionManager;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+public class MetricsController {
+
+    private final GameSessionManager manager;
+
+    public MetricsController(GameSessionManager manager) {
+        this.manager = manager;
+    }
+
+    @GetMapping("/api/metrics")
+    public Map<String, Object> metrics() {
+        return Map.of(
+                "sessions", manager.activeSessionCount(),
+                "maxSessions", manager.maxSessions(),
+                "failedSessions", manager.failedSessionCount(),
+                "tickMode", manager.tickMode(),
+                "ticks", manager.tickStats(),
+                "inbox", manager.inboxStats(),
+                "broadcast", manager.broadcastStats()
+        );
+    }
+}
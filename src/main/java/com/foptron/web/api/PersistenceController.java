@@ -1,7 +1,7 @@
 package com.foptron.web.api;
 
-import com.foptron.game.engine.GameSession;
 import com.foptron.game.engine.GameSessionManager;
+import com.foptron.game.engine.StartResult;
 import com.foptron.game.persistence.LeaderboardEntry;
 import com.foptron.game.persistence.LeaderboardService;
 import com.foptron.game.persistence.SaveGameData;
@@ -10,10 +10,16 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 public class PersistenceController {
 
+    private static final long SNAPSHOT_TIMEOUT_MS = 2000;
+
     private final GameSessionManager manager;
     private final SaveGameService saveGame;
     private final LeaderboardService leaderboard;
@@ -25,29 +31,54 @@ public class PersistenceController {
     }
 
     @PostMapping("/api/save")
-    public Map<String, Object> save() {
-        GameSession s = manager.currentSession();
-        if (s == null) {
+    public Map<String, Object> save(@RequestParam(name = "sessionId", required = false) String sessionId) {
+        // Snapshot on the session's own tick thread, then write the file here.
+        CompletableFuture<SaveGameData> snapshot = manager.query(sessionId, saveGame::toSaveData);
+        if (snapshot == null) {
             return Map.of("saved", false, "message", "No active session");
         }
-        saveGame.save(s);
+
+        SaveGameData data;
+        try {
+            data = snapshot.get(SNAPSHOT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            return Map.of("saved", false, "message", String.valueOf(e.getCause().getMessage()));
+        } catch (TimeoutException e) {
+            return Map.of("saved", false, "message", "Session did not respond");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Map.of("saved", false, "message", "Interrupted");
+        }
+        saveGame.save(data);
         return Map.of("saved", true);
     }
 
     @GetMapping("/api/load")
-    public SaveGameData load(@RequestParam String playerName) {
+    public SaveGameData load(@RequestParam("playerName") String playerName) {
         return saveGame.load(playerName);
     }
 
     @PostMapping("/api/load/start")
-    public Map<String, Object> loadAndStart(@RequestParam String playerName, @RequestParam(required = false) Boolean manualStep) {
+    public Map<String, Object> loadAndStart(
+            @RequestParam("playerName") String playerName,
+            @RequestParam(name = "manualStep", required = false) Boolean manualStep,
+            @RequestParam(name = "sessionId", required = false) String sessionId
+    ) {
+        if (sessionId == null || sessionId.isBlank()) {
+            return Map.of("started", false, "message", "Missing sessionId");
+        }
+
         SaveGameData save = saveGame.load(playerName);
         if (save == null) {
             return Map.of("started", false, "message", "No save found for playerName='" + playerName + "'");
         }
 
-        manager.startFromSave(save, Boolean.TRUE.equals(manualStep));
-        return Map.of("started", true);
+        StartResult result = manager.startFromSave(sessionId.trim(), save, Boolean.TRUE.equals(manualStep));
+        return switch (result) {
+            case STARTED -> Map.of("started", true);
+            case FULL -> Map.of("started", false, "message", "Server is full, try again later");
+            case IN_USE -> Map.of("started", false, "message", "Session is in use by another connection");
+        };
     }
 
     @GetMapping("/api/leaderboard")
@@ -0,0 +1,335 @@
+package com.foptron.web.ws;
+
+import com.foptron.game.model.Direction;
+import com.foptron.web.ws.dto.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary form of the state stream's frames, for the raw {@code /ws-bin} socket.
+ * Decoded by {@code static/js/state-codec.js}; the two must change together.
+ *
+ * Integers are unsigned LEB128 varints unless noted, strings a varint byte length plus
+ * UTF-8, colors a byte index into the frame's palette, directions a byte
+ * ({@link Direction} ordinal), lives a little-endian float64 and drone cells a
+ * little-endian uint16 array of x,y pairs. Layout:
+ * <pre>
+ * u8 VERSION, u8 type (0 keyframe, 1 delta), seq, sessionId, palette (count, strings)
+ * keyframe: width, height, arenaId, arenaName, arenaHash, u8 flags (open, awaiting, running,
+ *           victory, swarm, story), player, enemies, discs, trails (count, x, y, color), [swarm], events,
+ *           lastEventSeq, [story], achievements
+ * delta:    section mask, u8 flag values (awaiting, running, victory), then each present
+ *           section in mask bit order
+ * </pre>
+ */
+public final class BinaryStateCodec {
+
+    public static final int VERSION = 2;
+
+    static final int TYPE_KEYFRAME = 0;
+    static final int TYPE_DELTA = 1;
+
+    // Keyframe flags.
+    static final int F_OPEN = 1;
+    static final int F_AWAITING = 1 << 1;
+    static final int F_RUNNING = 1 << 2;
+    static final int F_VICTORY = 1 << 3;
+    static final int F_SWARM = 1 << 4;
+    static final int F_STORY = 1 << 5;
+
+    // Delta sections, in wire order.
+    static final int S_PLAYER = 1;
+    static final int S_PLAYER_MOVE = 1 << 1;
+    static final int S_ENEMIES_GONE = 1 << 2;
+    static final int S_ENEMIES = 1 << 3;
+    static final int S_ENEMY_MOVES = 1 << 4;
+    static final int S_DISCS = 1 << 5;
+    static final int S_TRAILS_CLEARED = 1 << 6;
+    static final int S_TRAIL_DEL = 1 << 7;
+    static final int S_TRAIL_ADD = 1 << 8;
+    static final int S_SWARM = 1 << 9;
+    static final int S_EVENTS = 1 << 10;
+    static final int S_STORY = 1 << 11;
+    static final int S_ACHIEVEMENTS = 1 << 12;
+    static final int S_AWAITING = 1 << 13;
+    static final int S_RUNNING = 1 << 14;
+    static final int S_VICTORY = 1 << 15;
+
+    private BinaryStateCodec() {}
+
+    /** Encodes a {@link GameStateDto} keyframe or a {@link StateDeltaDto}. */
+    public static byte[] encode(Object frame) {
+        Writer body = new Writer(512);
+        List<String> palette = new ArrayList<>(8);
+        String sessionId;
+        int type;
+        long seq;
+        if (frame instanceof GameStateDto k) {
+            type = TYPE_KEYFRAME;
+            seq = k.seq();
+            sessionId = k.sessionId();
+            writeKeyframe(body, palette, k);
+        } else if (frame instanceof StateDeltaDto d) {
+            type = TYPE_DELTA;
+            seq = d.seq();
+            sessionId = d.sessionId();
+            writeDelta(body, palette, d);
+        } else {
+            throw new IllegalArgumentException("Not a state frame: " + frame);
+        }
+
+        // The palette is only known once the body is written, so it goes in front afterwards.
+        Writer out = new Writer(body.size + 64);
+        out.u8(VERSION);
+        out.u8(type);
+        out.varint(seq);
+        out.string(sessionId);
+        out.varint(palette.size());
+        for (int i = 0; i < palette.size(); i++) {
+            out.string(palette.get(i));
+        }
+        out.bytes(body.buf, body.size);
+        return out.toByteArray();
+    }
+
+    private static void writeKeyframe(Writer w, List<String> palette, GameStateDto k) {
+        w.varint(k.width());
+        w.varint(k.height());
+        w.string(k.arenaId());
+        w.string(k.arenaName());
+        w.string(k.arenaHash());
+        int flags = (k.openArena() ? F_OPEN : 0)
+                | (k.awaitingChoice() ? F_AWAITING : 0)
+                | (k.running() ? F_RUNNING : 0)
+                | (k.victory() ? F_VICTORY : 0)
+                | (k.swarm() != null ? F_SWARM : 0)
+                | (k.story() != null ? F_STORY : 0);
+        w.u8(flags);
+        player(w, palette, k.player());
+        enemies(w, palette, k.enemies());
+        discs(w, palette, k.discs());
+        List<TrailCellDto> trails = k.trails();
+        w.varint(trails.size());
+        for (int i = 0; i < trails.size(); i++) {
+            TrailCellDto t = trails.get(i);
+            w.varint(t.x());
+            w.varint(t.y());
+            w.u8(color(palette, t.color()));
+        }
+        if (k.swarm() != null) swarm(w, palette, k.swarm());
+        strings(w, k.events());
+        w.varint(k.lastEventSeq());
+        if (k.story() != null) story(w, k.story());
+        strings(w, k.achievements());
+    }
+
+    private static void writeDelta(Writer w, List<String> palette, StateDeltaDto d) {
+        int mask = (d.player() != null ? S_PLAYER : 0)
+                | (d.playerMove() != null ? S_PLAYER_MOVE : 0)
+                | (d.enemiesGone() != null ? S_ENEMIES_GONE : 0)
+                | (d.enemies() != null ? S_ENEMIES : 0)
+                | (d.enemyMoves() != null ? S_ENEMY_MOVES : 0)
+                | (d.discs() != null ? S_DISCS : 0)
+                | (Boolean.TRUE.equals(d.trailsCleared()) ? S_TRAILS_CLEARED : 0)
+                | (d.trailDel() != null ? S_TRAIL_DEL : 0)
+                | (d.trailAdd() != null ? S_TRAIL_ADD : 0)
+                | (d.swarm() != null ? S_SWARM : 0)
+                | (d.events() != null ? S_EVENTS : 0)
+                | (d.story() != null ? S_STORY : 0)
+                | (d.achievements() != null ? S_ACHIEVEMENTS : 0)
+                | (d.awaitingChoice() != null ? S_AWAITING : 0)
+                | (d.running() != null ? S_RUNNING : 0)
+                | (d.victory() != null ? S_VICTORY : 0);
+        w.varint(mask);
+        w.u8((Boolean.TRUE.equals(d.awaitingChoice()) ? 1 : 0)
+                | (Boolean.TRUE.equals(d.running()) ? 2 : 0)
+                | (Boolean.TRUE.equals(d.victory()) ? 4 : 0));
+
+        if (d.player() != null) player(w, palette, d.player());
+        if (d.playerMove() != null) move(w, d.playerMove());
+        if (d.enemiesGone() != null) strings(w, d.enemiesGone());
+        if (d.enemies() != null) enemies(w, palette, d.enemies());
+        if (d.enemyMoves() != null) {
+            w.varint(d.enemyMoves().size());
+            for (int i = 0; i < d.enemyMoves().size(); i++) {
+                move(w, d.enemyMoves().get(i));
+            }
+        }
+        if (d.discs() != null) discs(w, palette, d.discs());
+        if (d.trailDel() != null) {
+            int[] del = d.trailDel();
+            w.varint(del.length / 2);
+            for (int i = 0; i < del.length; i++) {
+                w.varint(del[i]);
+            }
+        }
+        if (d.trailAdd() != null) {
+            w.varint(d.trailAdd().size());
+            for (int i = 0; i < d.trailAdd().size(); i++) {
+                TrailCellDto t = d.trailAdd().get(i);
+                w.varint(t.x());
+                w.varint(t.y());
+                w.u8(color(palette, t.color()));
+            }
+        }
+        if (d.swarm() != null) swarm(w, palette, d.swarm());
+        if (d.events() != null) {
+            strings(w, d.events());
+            w.varint(d.lastEventSeq());
+        }
+        if (d.story() != null) story(w, d.story());
+        if (d.achievements() != null) strings(w, d.achievements());
+    }
+
+    private static void player(Writer w, List<String> palette, PlayerDto p) {
+        w.string(p.playerName());
+        w.string(p.characterName());
+        w.u8(color(palette, p.color()));
+        w.varint(p.x());
+        w.varint(p.y());
+        w.u8(direction(p.direction()));
+        w.float64(p.lives());
+        w.varint(p.level());
+        w.varint(p.xp());
+        w.varint(p.xpForNextLevel());
+        w.varint(p.discSlots());
+        w.varint(p.activeDiscs());
+    }
+
+    private static void enemies(Writer w, List<String> palette, List<EnemyDto> enemies) {
+        w.varint(enemies.size());
+        for (int i = 0; i < enemies.size(); i++) {
+            EnemyDto e = enemies.get(i);
+            w.string(e.id());
+            w.string(e.name());
+            w.u8(color(palette, e.color()));
+            w.varint(e.x());
+            w.varint(e.y());
+            w.u8(direction(e.direction()));
+            w.float64(e.lives());
+            w.varint(e.discSlots());
+            w.varint(e.activeDiscs());
+            w.string(e.type());
+        }
+    }
+
+    private static void discs(Writer w, List<String> palette, List<DiscDto> discs) {
+        w.varint(discs.size());
+        for (int i = 0; i < discs.size(); i++) {
+            DiscDto d = discs.get(i);
+            w.varint(d.id());
+            w.u8(color(palette, d.ownerColor()));
+            w.varint(d.x());
+            w.varint(d.y());
+            w.u8(d.flying() ? 1 : 0);
+        }
+    }
+
+    private static void move(Writer w, MoveDto m) {
+        w.string(m.id());
+        w.varint(m.x());
+        w.varint(m.y());
+        w.u8(direction(m.direction()));
+    }
+
+    private static void swarm(Writer w, List<String> palette, SwarmDto s) {
+        w.u8(color(palette, s.color()));
+        w.varint(s.alive());
+        int[] cells = s.cells();
+        w.varint(cells.length);
+        for (int i = 0; i < cells.length; i++) {
+            w.u16le(cells[i]);
+        }
+    }
+
+    private static void story(Writer w, StoryDto s) {
+        w.string(s.id());
+        w.string(s.title());
+        w.string(s.text());
+    }
+
+    private static void strings(Writer w, List<String> values) {
+        w.varint(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            w.string(values.get(i));
+        }
+    }
+
+    private static int color(List<String> palette, String color) {
+        for (int i = 0; i < palette.size(); i++) {
+            if (palette.get(i).equals(color)) return i;
+        }
+        if (palette.size() > 255) {
+            throw new IllegalStateException("Frame palette is full");
+        }
+        palette.add(color);
+        return palette.size() - 1;
+    }
+
+    private static int direction(String name) {
+        return Direction.valueOf(name).ordinal();
+    }
+
+    private static final class Writer {
+        private byte[] buf;
+        private int size;
+
+        Writer(int capacity) {
+            buf = new byte[capacity];
+        }
+
+        void u8(int v) {
+            ensure(1);
+            buf[size++] = (byte) v;
+        }
+
+        void u16le(int v) {
+            ensure(2);
+            buf[size++] = (byte) v;
+            buf[size++] = (byte) (v >>> 8);
+        }
+
+        void float64(double v) {
+            long bits = Double.doubleToLongBits(v);
+            ensure(8);
+            for (int i = 0; i < 8; i++) {
+                buf[size++] = (byte) (bits >>> (8 * i));
+            }
+        }
+
+        void varint(long v) {
+            if (v < 0) throw new IllegalArgumentException("Negative varint: " + v);
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf[size++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[size++] = (byte) v;
+        }
+
+        void string(String s) {
+            byte[] utf8 = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length);
+            bytes(utf8, utf8.length);
+        }
+
+        void bytes(byte[] src, int n) {
+            ensure(n);
+            System.arraycopy(src, 0, buf, size, n);
+            size += n;
+        }
+
+        private void ensure(int n) {
+            if (size + n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + n));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, size);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.foptron.web.ws;
+
+import com.foptron.game.engine.GameSessionManager;
+import com.foptron.game.engine.StateFrameSink;
+import com.foptron.web.ws.dto.ResyncMessage;
+import jakarta.annotation.PostConstruct;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Raw WebSocket at {@code /ws-bin?sessionId=...} that streams one game's state frames in the
+ * {@link BinaryStateCodec} format. Read-only apart from the text message {@code resync}; input
+ * still goes over STOMP. Each frame is encoded once, and only when the game has a viewer.
+ */
+@Component
+public class BinaryStateSocket extends AbstractWebSocketHandler implements StateFrameSink {
+
+    static final String PATH = "/ws-bin";
+
+    private static final String SESSION_ATTR = "foptron.sessionId";
+    private static final int SEND_TIME_LIMIT_MS = 2000;
+    private static final int BUFFER_SIZE_LIMIT = 512 * 1024;
+
+    private final GameSessionManager manager;
+    private final ConcurrentMap<String, Set<WebSocketSession>> viewers = new ConcurrentHashMap<>();
+
+    public BinaryStateSocket(GameSessionManager manager) {
+        this.manager = manager;
+    }
+
+    /** Registered once fully built, since the broadcaster's sender thread calls it. */
+    @PostConstruct
+    void register() {
+        manager.addFrameSink(this);
+    }
+
+    @Override
+    public void afterConnectionEstablished(@NonNull WebSocketSession ws) throws IOException {
+        String sessionId = sessionIdOf(ws);
+        if (sessionId == null) {
+            ws.close(CloseStatus.POLICY_VIOLATION.withReason("sessionId is required"));
+            return;
+        }
+        ws.getAttributes().put(SESSION_ATTR, sessionId);
+        // Frames come from the single state-sender thread, or from several tick threads when
+        // foptron.broadcast.pipelined=false; the decorator serializes sends and drops slow viewers.
+        viewers.computeIfAbsent(sessionId, k -> new CopyOnWriteArraySet<>())
+                .add(new ConcurrentWebSocketSessionDecorator(ws, SEND_TIME_LIMIT_MS, BUFFER_SIZE_LIMIT));
+        resync(sessionId);
+    }
+
+    @Override
+    protected void handleTextMessage(@NonNull WebSocketSession ws, @NonNull TextMessage message) {
+        if ("resync".equals(message.getPayload())) {
+            resync((String) ws.getAttributes().get(SESSION_ATTR));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(@NonNull WebSocketSession ws, @NonNull CloseStatus status) {
+        String sessionId = (String) ws.getAttributes().get(SESSION_ATTR);
+        if (sessionId == null) return;
+        viewers.computeIfPresent(sessionId, (k, set) -> {
+            set.removeIf(v -> v.getId().equals(ws.getId()));
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    @Override
+    public boolean hasViewers(String sessionId) {
+        Set<WebSocketSession> set = viewers.get(sessionId);
+        return set != null && !set.isEmpty();
+    }
+
+    @Override
+    public void publish(String sessionId, Object frame) {
+        Set<WebSocketSession> set = viewers.get(sessionId);
+        if (set == null || set.isEmpty()) return;
+
+        BinaryMessage message = new BinaryMessage(BinaryStateCodec.encode(frame));
+        for (WebSocketSession v : set) {
+            try {
+                v.sendMessage(message);
+            } catch (IOException | RuntimeException e) {
+                // A dead or overflowing viewer is dropped; the game keeps ticking. Closing it
+                // lets the page notice, reconnect and start again from a keyframe.
+                set.remove(v);
+                close(v);
+            }
+        }
+    }
+
+    private static void close(WebSocketSession viewer) {
+        try {
+            viewer.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException | RuntimeException ignored) {
+            // Already gone.
+        }
+    }
+
+    private void resync(String sessionId) {
+        if (sessionId != null) manager.resync(sessionId, null, new ResyncMessage(sessionId));
+    }
+
+    private static String sessionIdOf(WebSocketSession ws) {
+        if (ws.getUri() == null) return null;
+        String raw = UriComponentsBuilder.fromUri(ws.getUri()).build().getQueryParams().getFirst("sessionId");
+        if (raw == null || raw.isBlank()) return null;
+        return URLDecoder.decode(raw, StandardCharsets.UTF_8).trim();
+    }
+}
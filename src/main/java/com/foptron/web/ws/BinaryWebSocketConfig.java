@@ -0,0 +1,26 @@
+package com.foptron.web.ws;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Plain WebSocket endpoints, next to the STOMP broker in {@link WebSocketConfig}.
+ */
+@Configuration
+@EnableWebSocket
+public class BinaryWebSocketConfig implements WebSocketConfigurer {
+
+    private final BinaryStateSocket binaryState;
+
+    public BinaryWebSocketConfig(BinaryStateSocket binaryState) {
+        this.binaryState = binaryState;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(@NonNull WebSocketHandlerRegistry registry) {
+        registry.addHandler(binaryState, BinaryStateSocket.PATH);
+    }
+}
@@ -1,33 +1,60 @@
 package com.foptron.web.ws;
 
 import com.foptron.game.engine.GameSessionManager;
+import com.foptron.game.engine.StartResult;
 import com.foptron.web.ws.dto.ChoiceMessage;
+import com.foptron.web.ws.dto.ErrorMessage;
 import com.foptron.web.ws.dto.InputMessage;
+import com.foptron.web.ws.dto.ResyncMessage;
 import com.foptron.web.ws.dto.StartRequest;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
 @Controller
 public class GameWsController {
 
+    private static final String CONNECTION_HEADER = "simpSessionId";
+
     private final GameSessionManager manager;
 
     public GameWsController(GameSessionManager manager) {
         this.manager = manager;
     }
 
+    /** Replies on the caller's {@code /user/queue/errors} only when the game was not started. */
     @MessageMapping("/start")
-    public void start(StartRequest request) {
-        manager.start(request);
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public ErrorMessage start(StartRequest request, @Header(CONNECTION_HEADER) String connectionId) {
+        String key = GameSessionManager.resolveKey(request.sessionId(), connectionId);
+        StartResult result = manager.start(key, connectionId, request);
+        return switch (result) {
+            case STARTED -> null;
+            case FULL -> new ErrorMessage(key, "Server is full, try again later");
+            case IN_USE -> new ErrorMessage(key, "Session is in use by another connection");
+        };
     }
 
     @MessageMapping("/input")
-    public void input(InputMessage msg) {
-        manager.input(msg);
+    public void input(InputMessage msg, @Header(CONNECTION_HEADER) String connectionId) {
+        manager.input(GameSessionManager.resolveKey(msg.sessionId(), connectionId), connectionId, msg);
     }
 
     @MessageMapping("/choice")
-    public void choice(ChoiceMessage msg) {
-        manager.choice(msg);
+    public void choice(ChoiceMessage msg, @Header(CONNECTION_HEADER) String connectionId) {
+        manager.choice(GameSessionManager.resolveKey(msg.sessionId(), connectionId), connectionId, msg);
+    }
+
+    @MessageMapping("/resync")
+    public void resync(ResyncMessage msg, @Header(CONNECTION_HEADER) String connectionId) {
+        manager.resync(GameSessionManager.resolveKey(msg.sessionId(), connectionId), connectionId, msg);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        manager.evictConnection(event.getSessionId());
     }
 }
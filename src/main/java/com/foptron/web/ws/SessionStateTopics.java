@@ -0,0 +1,101 @@
+package com.foptron.web.ws;
+
+import com.foptron.game.engine.GameSessionManager;
+import com.foptron.game.engine.StateFrameSink;
+import com.foptron.web.ws.dto.ResyncMessage;
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Publishes each game's state frames on its own STOMP topic, {@code /topic/session/{id}},
+ * so a browser only receives the game it plays or watches. Subscriptions are counted per
+ * game from the broker's subscribe, unsubscribe and disconnect events; a game nobody
+ * subscribes to is skipped by the manager, and a new subscriber gets a keyframe.
+ */
+@Component
+public class SessionStateTopics implements StateFrameSink {
+
+    static final String PREFIX = "/topic/session/";
+
+    private final SimpMessagingTemplate messaging;
+    private final GameSessionManager manager;
+
+    // Game id -> subscriber count.
+    private final ConcurrentMap<String, Integer> subscribers = new ConcurrentHashMap<>();
+    // STOMP connection id -> (subscription id -> game id), to undo unsubscribes and disconnects.
+    private final ConcurrentMap<String, Map<String, String>> byConnection = new ConcurrentHashMap<>();
+
+    public SessionStateTopics(SimpMessagingTemplate messaging, GameSessionManager manager) {
+        this.messaging = messaging;
+        this.manager = manager;
+    }
+
+    /** Registered once fully built, since the broadcaster's sender thread calls it. */
+    @PostConstruct
+    void register() {
+        manager.addFrameSink(this);
+    }
+
+    public static String destination(String sessionId) {
+        return PREFIX + sessionId;
+    }
+
+    @Override
+    public boolean hasViewers(String sessionId) {
+        return subscribers.containsKey(sessionId);
+    }
+
+    @Override
+    public void publish(String sessionId, Object frame) {
+        messaging.convertAndSend(destination(sessionId), frame);
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor stomp = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = stomp.getDestination();
+        if (destination == null || !destination.startsWith(PREFIX)) return;
+        String connectionId = stomp.getSessionId();
+        String subscriptionId = stomp.getSubscriptionId();
+        if (connectionId == null || subscriptionId == null) return;
+
+        String sessionId = destination.substring(PREFIX.length());
+        if (sessionId.isBlank()) return;
+        if (byConnection.computeIfAbsent(connectionId, k -> new ConcurrentHashMap<>()).put(subscriptionId, sessionId) == null) {
+            subscribers.merge(sessionId, 1, Integer::sum);
+        }
+        manager.resync(sessionId, null, new ResyncMessage(sessionId));
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor stomp = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subs = stomp.getSessionId() == null ? null : byConnection.get(stomp.getSessionId());
+        if (subs == null || stomp.getSubscriptionId() == null) return;
+        String sessionId = subs.remove(stomp.getSubscriptionId());
+        if (sessionId != null) release(sessionId);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subs = byConnection.remove(event.getSessionId());
+        if (subs == null) return;
+        for (String sessionId : subs.values()) {
+            release(sessionId);
+        }
+    }
+
+    private void release(String sessionId) {
+        subscribers.computeIfPresent(sessionId, (k, n) -> n > 1 ? n - 1 : null);
+    }
+}
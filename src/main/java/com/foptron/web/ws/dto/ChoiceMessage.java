@@ -1,4 +1,4 @@
 package com.foptron.web.ws.dto;
 
-public record ChoiceMessage(int option) {
+public record ChoiceMessage(int option, String sessionId) {
 }
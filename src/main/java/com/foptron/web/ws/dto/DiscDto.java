@@ -1,7 +1,7 @@
 package com.foptron.web.ws.dto;
 
 public record DiscDto(
-        String id,
+        int id,
         String ownerColor,
         int x,
         int y,
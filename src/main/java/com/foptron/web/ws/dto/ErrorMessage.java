@@ -0,0 +1,10 @@
+package com.foptron.web.ws.dto;
+
+/**
+ * Sent to one connection's {@code /user/queue/errors} when a request it made was refused.
+ */
+public record ErrorMessage(
+        String sessionId,
+        String message
+) {
+}
@@ -0,0 +1,10 @@
+package com.foptron.web.ws.dto;
+
+public record EventDto(
+        long seq,
+        long tick,
+        String category,
+        String code,
+        String text
+) {
+}
@@ -2,20 +2,33 @@ package com.foptron.web.ws.dto;
 
 import java.util.List;
 
+/**
+ * Keyframe of a session's state stream: everything a client needs to draw the game, except
+ * the arena layout, which is fetched once per {@code arenaHash} from {@code /api/arenas/{hash}}.
+ * Later frames are {@link StateDeltaDto}s against it.
+ */
 public record GameStateDto(
-        int size,
+        String sessionId,
+        String type,
+        long seq,
+        int width,
+        int height,
+        String arenaId,
         String arenaName,
+        String arenaHash,
         boolean openArena,
-        List<String> arena,
         PlayerDto player,
         List<EnemyDto> enemies,
         List<DiscDto> discs,
         List<TrailCellDto> trails,
+        SwarmDto swarm,
         List<String> events,
+        long lastEventSeq,
         StoryDto story,
         List<String> achievements,
         boolean awaitingChoice,
         boolean running,
         boolean victory
 ) {
+    public static final String TYPE = "keyframe";
 }
@@ -3,6 +3,7 @@ package com.foptron.web.ws.dto;
 public record InputMessage(
         String direction,
         boolean throwDisc,
-        Boolean manualStep
+        Boolean manualStep,
+        String sessionId
 ) {
 }
@@ -0,0 +1,12 @@
+package com.foptron.web.ws.dto;
+
+/**
+ * Position-only update for a cycle in a state delta; the rest of its DTO is unchanged.
+ */
+public record MoveDto(
+        String id,
+        int x,
+        int y,
+        String direction
+) {
+}
@@ -0,0 +1,4 @@
+package com.foptron.web.ws.dto;
+
+public record ResyncMessage(String sessionId) {
+}
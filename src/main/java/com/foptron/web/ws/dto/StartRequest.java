@@ -4,6 +4,9 @@ public record StartRequest(
         String playerName,
         String characterId,
         String arenaId,
-        Boolean manualStep
+        Boolean manualStep,
+        String sessionId,
+        Integer swarmSize,
+        Boolean limitedJetwalls
 ) {
 }
@@ -0,0 +1,36 @@
+package com.foptron.web.ws.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Changes since frame {@code seq - 1} of the same session's state stream. Absent fields are
+ * unchanged. Trails are applied in order: clear (if set), then {@code trailDel} x,y pairs,
+ * then {@code trailAdd}. Events are the new lines only, newest first.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StateDeltaDto(
+        String sessionId,
+        String type,
+        long seq,
+        PlayerDto player,
+        MoveDto playerMove,
+        List<EnemyDto> enemies,
+        List<MoveDto> enemyMoves,
+        List<String> enemiesGone,
+        List<DiscDto> discs,
+        Boolean trailsCleared,
+        int[] trailDel,
+        List<TrailCellDto> trailAdd,
+        SwarmDto swarm,
+        List<String> events,
+        Long lastEventSeq,
+        StoryDto story,
+        List<String> achievements,
+        Boolean awaitingChoice,
+        Boolean running,
+        Boolean victory
+) {
+    public static final String TYPE = "delta";
+}
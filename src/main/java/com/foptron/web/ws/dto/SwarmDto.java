@@ -0,0 +1,11 @@
+package com.foptron.web.ws.dto;
+
+/**
+ * Mass-battle drones in one compact block: {@code cells} holds x,y pairs of the live drones.
+ */
+public record SwarmDto(
+        String color,
+        int alive,
+        int[] cells
+) {
+}
@@ -1,8 +1,20 @@
 let stompClient = null;
 let meta = null;
 
-let arenaGrid = null; // received from /api/meta? We'll infer from state trails only; arena is static.
 let lastState = null;
+// Arena rows by content hash, least recently used first. A hash always names the same
+// layout, so entries only leave to bound memory.
+const ARENA_CACHE_SIZE = 8;
+const arenaLayouts = new Map();
+const arenaFetches = new Set();
+// True from sending /app/resync until the next keyframe arrives.
+let resyncPending = false;
+// ?transport=binary takes state frames from the raw /ws-bin socket instead of this game's STOMP topic.
+const binaryTransport = new URLSearchParams(window.location.search).get('transport') === 'binary';
+let binarySocket = null;
+
+// Identifies this tab's game on the server; survives reloads of the same tab.
+const sessionId = loadSessionId();
 
 const canvas = document.getElementById('grid');
 const ctx = canvas.getContext('2d');
@@ -21,6 +33,8 @@ const elEvents = document.getElementById('events');
 const elAchievements = document.getElementById('achievements');
 const elLeaderboard = document.getElementById('leaderboard');
 const elManualStep = document.getElementById('manualStep');
+const elSwarmSize = document.getElementById('swarmSize');
+const elLimitedJetwalls = document.getElementById('limitedJetwalls');
 
 function connect() {
   const socket = new SockJS('/ws');
@@ -31,11 +45,15 @@ function connect() {
     elPlayerHud.textContent = 'Connected. Choose character + arena, then Start.';
     elEnemyHud.textContent = '—';
 
-    stompClient.subscribe('/topic/state', (msg) => {
-      const state = JSON.parse(msg.body);
-      lastState = state;
-      render(state);
-      updateHud(state);
+    if (binaryTransport) {
+      connectBinaryState();
+    } else {
+      stompClient.subscribe(`/topic/session/${sessionId}`, (msg) => onFrame(JSON.parse(msg.body)));
+    }
+    // Refused requests (server full, game owned by another tab) are answered here only.
+    stompClient.subscribe('/user/queue/errors', (msg) => {
+      const err = JSON.parse(msg.body);
+      elPlayerHud.textContent = (elPlayerHud.textContent || '') + `\nStart failed: ${err.message || 'unknown'}`;
     });
 
   }, (err) => {
@@ -44,6 +62,136 @@ function connect() {
   });
 }
 
+function connectBinaryState() {
+  const scheme = window.location.protocol === 'https:' ? 'wss' : 'ws';
+  binarySocket = new WebSocket(`${scheme}://${window.location.host}/ws-bin?sessionId=${encodeURIComponent(sessionId)}`);
+  binarySocket.binaryType = 'arraybuffer';
+  binarySocket.onmessage = (ev) => onFrame(decodeStateFrame(new Uint8Array(ev.data)));
+  binarySocket.onclose = () => {
+    binarySocket = null;
+    // The server closes viewers it could not send to; a new socket starts with a keyframe.
+    if (stompClient && stompClient.connected) {
+      setTimeout(() => { if (!binarySocket) connectBinaryState(); }, 1000);
+    } else {
+      elPlayerHud.textContent = (elPlayerHud.textContent || '') + '\nBinary state stream closed.';
+    }
+  };
+}
+
+function onFrame(frame) {
+  if (frame.sessionId && frame.sessionId !== sessionId) return;
+  const state = applyFrame(lastState, frame);
+  if (!state) return;
+  lastState = state;
+  render(state);
+  updateHud(state);
+}
+
+// Keyframes replace the state; deltas patch the previous frame. Returns null (after asking
+// for a keyframe) when a delta does not follow the frame we hold.
+function applyFrame(state, frame) {
+  if (frame.type !== 'delta') {
+    resyncPending = false;
+    const trailMap = new Map();
+    for (const t of frame.trails || []) {
+      trailMap.set(t.y * frame.width + t.x, t.color);
+    }
+    return { ...frame, trails: undefined, trailMap };
+  }
+  if (!state || frame.seq !== state.seq + 1) {
+    requestResync();
+    return null;
+  }
+
+  state.seq = frame.seq;
+  if (frame.player) state.player = frame.player;
+  if (frame.playerMove) Object.assign(state.player, poseOf(frame.playerMove));
+  if (frame.enemiesGone || frame.enemies || frame.enemyMoves) {
+    const byId = new Map(state.enemies.map(e => [e.id, e]));
+    for (const id of frame.enemiesGone || []) byId.delete(id);
+    for (const e of frame.enemies || []) byId.set(e.id, e);
+    for (const m of frame.enemyMoves || []) {
+      const e = byId.get(m.id);
+      if (e) Object.assign(e, poseOf(m));
+    }
+    state.enemies = [...byId.values()];
+  }
+  if (frame.discs) state.discs = frame.discs;
+
+  if (frame.trailsCleared) state.trailMap.clear();
+  const del = frame.trailDel || [];
+  for (let k = 0; k + 1 < del.length; k += 2) {
+    state.trailMap.delete(del[k + 1] * state.width + del[k]);
+  }
+  for (const t of frame.trailAdd || []) {
+    state.trailMap.set(t.y * state.width + t.x, t.color);
+  }
+
+  if (frame.swarm) state.swarm = frame.swarm;
+  if (frame.events) {
+    state.events = frame.events.concat(state.events || []).slice(0, 12);
+    state.lastEventSeq = frame.lastEventSeq;
+  }
+  if (frame.story) state.story = frame.story;
+  if (frame.achievements) state.achievements = frame.achievements;
+  if (frame.awaitingChoice !== undefined) state.awaitingChoice = frame.awaitingChoice;
+  if (frame.running !== undefined) state.running = frame.running;
+  if (frame.victory !== undefined) state.victory = frame.victory;
+  return state;
+}
+
+function arenaRows(hash) {
+  const rows = arenaLayouts.get(hash);
+  if (rows) {
+    arenaLayouts.delete(hash);
+    arenaLayouts.set(hash, rows);
+    return rows;
+  }
+  if (hash && !arenaFetches.has(hash)) {
+    arenaFetches.add(hash);
+    fetch(`/api/arenas/${encodeURIComponent(hash)}`)
+      .then(res => (res.ok ? res.text() : Promise.reject(new Error(`arena ${hash}: ${res.status}`))))
+      .then(text => {
+        arenaLayouts.set(hash, text.split('\n'));
+        while (arenaLayouts.size > ARENA_CACHE_SIZE) {
+          arenaLayouts.delete(arenaLayouts.keys().next().value);
+        }
+        if (lastState && lastState.arenaHash === hash) render(lastState);
+      })
+      .catch(err => console.error(err))
+      .finally(() => arenaFetches.delete(hash));
+  }
+  return null;
+}
+
+function poseOf(move) {
+  return { x: move.x, y: move.y, direction: move.direction };
+}
+
+function requestResync() {
+  if (resyncPending) return;
+  if (binaryTransport) {
+    if (!binarySocket || binarySocket.readyState !== WebSocket.OPEN) return;
+    binarySocket.send('resync');
+  } else {
+    if (!stompClient || !stompClient.connected) return;
+    stompClient.send('/app/resync', {}, JSON.stringify({ sessionId }));
+  }
+  resyncPending = true;
+}
+
+function loadSessionId() {
+  const key = 'foptron.sessionId';
+  let id = sessionStorage.getItem(key);
+  if (!id) {
+    id = (window.crypto && crypto.randomUUID)
+      ? crypto.randomUUID()
+      : `s-${Date.now().toString(36)}-${Math.random().toString(36).slice(2)}`;
+    sessionStorage.setItem(key, id);
+  }
+  return id;
+}
+
 async function loadMeta() {
   const res = await fetch('/api/meta');
   meta = await res.json();
@@ -60,7 +208,8 @@ async function loadMeta() {
   for (const a of meta.arenas) {
     const opt = document.createElement('option');
     opt.value = a.id;
-    opt.textContent = `${a.name}${a.open ? ' (open)' : ''}`;
+    const dims = a.width && (a.width !== 40 || a.height !== 40) ? ` ${a.width}x${a.height}` : '';
+    opt.textContent = `${a.name}${dims}${a.open ? ' (open)' : ''}`;
     elArena.appendChild(opt);
   }
 }
@@ -70,12 +219,18 @@ function startGame() {
   const playerName = document.getElementById('playerName').value || 'Player';
 
   const manualStep = !!(elManualStep && elManualStep.checked);
+  const swarmSize = elSwarmSize ? parseInt(elSwarmSize.value, 10) || 0 : 0;
+  const limitedJetwalls = !!(elLimitedJetwalls && elLimitedJetwalls.checked);
 
+  lastRenderedEventSeq = -1;
   stompClient.send('/app/start', {}, JSON.stringify({
     playerName,
     characterId: elCharacter.value,
     arenaId: elArena.value,
     manualStep,
+    sessionId,
+    swarmSize,
+    limitedJetwalls,
   }));
 
   try {
@@ -88,7 +243,8 @@ function startGame() {
 async function loadGame() {
   const playerName = document.getElementById('playerName').value || 'Player';
   const manualStep = !!(elManualStep && elManualStep.checked);
-  const res = await fetch(`/api/load/start?playerName=${encodeURIComponent(playerName)}&manualStep=${manualStep ? 'true' : 'false'}`, { method: 'POST' });
+  lastRenderedEventSeq = -1;
+  const res = await fetch(`/api/load/start?playerName=${encodeURIComponent(playerName)}&manualStep=${manualStep ? 'true' : 'false'}&sessionId=${encodeURIComponent(sessionId)}`, { method: 'POST' });
   const body = await res.json();
   if (!body.started) {
     elPlayerHud.textContent = (elPlayerHud.textContent || '') + `\nLoad failed: ${body.message || 'unknown'}`;
@@ -118,7 +274,7 @@ async function exitGame() {
 }
 
 async function saveGame() {
-  const res = await fetch('/api/save', { method: 'POST' });
+  const res = await fetch(`/api/save?sessionId=${encodeURIComponent(sessionId)}`, { method: 'POST' });
   const body = await res.json();
   if (body.saved) {
     elPlayerHud.textContent = (elPlayerHud.textContent || '') + '\nSaved.';
@@ -148,14 +304,16 @@ async function loadLeaderboard() {
 function sendInput(direction, throwDisc) {
   if (!stompClient || !stompClient.connected) return;
   const manualStep = !!(elManualStep && elManualStep.checked);
-  stompClient.send('/app/input', {}, JSON.stringify({ direction, throwDisc, manualStep }));
+  stompClient.send('/app/input', {}, JSON.stringify({ direction, throwDisc, manualStep, sessionId }));
 }
 
 function sendChoice(option) {
   if (!stompClient || !stompClient.connected) return;
-  stompClient.send('/app/choice', {}, JSON.stringify({ option }));
+  stompClient.send('/app/choice', {}, JSON.stringify({ option, sessionId }));
 }
 
+let lastRenderedEventSeq = -1;
+
 function updateHud(state) {
   const p = state.player;
   const status = state.running ? 'RUNNING' : (state.victory ? 'VICTORY' : 'DEFEAT');
@@ -169,7 +327,9 @@ function updateHud(state) {
     `Discs: ${p.activeDiscs}/${p.discSlots}`;
 
   const enemies = state.enemies || [];
-  if (!enemies.length) {
+  if (state.swarm) {
+    elEnemyHud.textContent = `Drone swarm: ${state.swarm.alive} left`;
+  } else if (!enemies.length) {
     elEnemyHud.textContent = '—';
   } else {
     elEnemyHud.textContent = enemies
@@ -183,13 +343,17 @@ function updateHud(state) {
     elStory.textContent = '—';
   }
 
-  elEvents.innerHTML = '';
-  for (const e of state.events || []) {
-    const div = document.createElement('div');
-    const { klass, text } = classifyEvent(e);
-    div.className = `item ${klass}`;
-    div.textContent = text;
-    elEvents.appendChild(div);
+  // Only rebuild the log when the server reports new events.
+  if (state.lastEventSeq !== lastRenderedEventSeq) {
+    lastRenderedEventSeq = state.lastEventSeq;
+    elEvents.innerHTML = '';
+    for (const e of state.events || []) {
+      const div = document.createElement('div');
+      const { klass, text } = classifyEvent(e);
+      div.className = `item ${klass}`;
+      div.textContent = text;
+      elEvents.appendChild(div);
+    }
   }
 
   elAchievements.innerHTML = '';
@@ -202,8 +366,10 @@ function updateHud(state) {
 }
 
 function render(state) {
-  const size = state.size || 40;
-  const cell = Math.floor(canvas.width / size);
+  const width = state.width || 40;
+  const height = state.height || width;
+  // Fractional cells keep large arenas on the canvas; grid lines only while they stay readable.
+  const cell = canvas.width / Math.max(width, height);
 
   ctx.clearRect(0, 0, canvas.width, canvas.height);
 
@@ -211,10 +377,11 @@ function render(state) {
   ctx.fillStyle = '#070a12';
   ctx.fillRect(0, 0, canvas.width, canvas.height);
 
-  // Arena tiles.
-  if (state.arena && state.arena.length) {
-    for (let y = 0; y < state.arena.length; y++) {
-      const row = state.arena[y];
+  // Arena tiles; drawn from the next frame on if the layout is still being fetched.
+  const arena = arenaRows(state.arenaHash);
+  if (arena) {
+    for (let y = 0; y < arena.length; y++) {
+      const row = arena[y];
       for (let x = 0; x < row.length; x++) {
         const c = row[x];
         if (c === '#') {
@@ -231,13 +398,15 @@ function render(state) {
     }
   }
 
-  // Trails.
-  for (const t of state.trails || []) {
-    ctx.fillStyle = normalizeColor(t.color, 0.62);
-    ctx.fillRect(t.x * cell, t.y * cell, cell, cell);
+  // Trails, keyed by y * width + x.
+  for (const [i, color] of state.trailMap || []) {
+    const x = i % width;
+    const y = Math.floor(i / width);
+    ctx.fillStyle = normalizeColor(color, 0.62);
+    ctx.fillRect(x * cell, y * cell, cell, cell);
     ctx.strokeStyle = 'rgba(255,255,255,0.18)';
     ctx.lineWidth = 1;
-    ctx.strokeRect(t.x * cell + 0.5, t.y * cell + 0.5, cell - 1, cell - 1);
+    ctx.strokeRect(x * cell + 0.5, y * cell + 0.5, cell - 1, cell - 1);
   }
 
   // Discs.
@@ -254,6 +423,15 @@ function render(state) {
     ctx.stroke();
   }
 
+  // Mass-battle drones.
+  if (state.swarm) {
+    const cells = state.swarm.cells || [];
+    ctx.fillStyle = normalizeColor(state.swarm.color, 0.95);
+    for (let k = 0; k + 1 < cells.length; k += 2) {
+      ctx.fillRect(cells[k] * cell, cells[k + 1] * cell, cell, cell);
+    }
+  }
+
   // Enemies.
   for (const e of state.enemies || []) {
     ctx.fillStyle = normalizeColor(e.color, 1.0);
@@ -272,17 +450,19 @@ function render(state) {
   ctx.strokeRect(p.x * cell + 0.5, p.y * cell + 0.5, cell - 1, cell - 1);
 
   // Grid lines.
+  if (cell < 4) return;
   ctx.strokeStyle = 'rgba(148, 163, 184, 0.14)';
   ctx.lineWidth = 1;
-  for (let i = 0; i <= size; i++) {
+  for (let x = 0; x <= width; x++) {
     ctx.beginPath();
-    ctx.moveTo(i * cell, 0);
-    ctx.lineTo(i * cell, size * cell);
+    ctx.moveTo(x * cell, 0);
+    ctx.lineTo(x * cell, height * cell);
     ctx.stroke();
-
+  }
+  for (let y = 0; y <= height; y++) {
     ctx.beginPath();
-    ctx.moveTo(0, i * cell);
-    ctx.lineTo(size * cell, i * cell);
+    ctx.moveTo(0, y * cell);
+    ctx.lineTo(width * cell, y * cell);
     ctx.stroke();
   }
 }
@@ -298,6 +478,7 @@ function normalizeColor(name, alpha) {
   if (key.includes('red')) return rgba(255, 90, 90, alpha);
   if (key.includes('gold')) return rgba(240, 200, 80, alpha);
   if (key.includes('yellow')) return rgba(255, 225, 70, alpha);
+  if (key.includes('orange')) return rgba(255, 150, 50, alpha);
   if (key.includes('green')) return rgba(70, 220, 140, alpha);
 
   return rgba(200, 210, 220, alpha);
@@ -0,0 +1,169 @@
+// Decoder for the binary state frames sent on /ws-bin (see BinaryStateCodec.java; the two
+// must change together). Produces the same objects as the JSON frames on /topic/session/{id}.
+(function (root) {
+  const VERSION = 2;
+  const DIRECTIONS = ['UP', 'DOWN', 'LEFT', 'RIGHT'];
+  const utf8 = new TextDecoder();
+
+  // Delta section bits, in wire order.
+  const S_PLAYER = 1;
+  const S_PLAYER_MOVE = 1 << 1;
+  const S_ENEMIES_GONE = 1 << 2;
+  const S_ENEMIES = 1 << 3;
+  const S_ENEMY_MOVES = 1 << 4;
+  const S_DISCS = 1 << 5;
+  const S_TRAILS_CLEARED = 1 << 6;
+  const S_TRAIL_DEL = 1 << 7;
+  const S_TRAIL_ADD = 1 << 8;
+  const S_SWARM = 1 << 9;
+  const S_EVENTS = 1 << 10;
+  const S_STORY = 1 << 11;
+  const S_ACHIEVEMENTS = 1 << 12;
+  const S_AWAITING = 1 << 13;
+  const S_RUNNING = 1 << 14;
+  const S_VICTORY = 1 << 15;
+
+  function decodeStateFrame(bytes) {
+    const view = new DataView(bytes.buffer, bytes.byteOffset, bytes.byteLength);
+    let pos = 0;
+
+    const u8 = () => bytes[pos++];
+    const varint = () => {
+      let v = 0;
+      let scale = 1;
+      for (;;) {
+        const b = bytes[pos++];
+        v += (b & 0x7f) * scale;
+        if (!(b & 0x80)) return v;
+        scale *= 128;
+      }
+    };
+    const string = () => {
+      const n = varint();
+      const s = utf8.decode(bytes.subarray(pos, pos + n));
+      pos += n;
+      return s;
+    };
+    const strings = () => {
+      const n = varint();
+      const out = new Array(n);
+      for (let i = 0; i < n; i++) out[i] = string();
+      return out;
+    };
+    const float64 = () => {
+      const v = view.getFloat64(pos, true);
+      pos += 8;
+      return v;
+    };
+
+    if (u8() !== VERSION) throw new Error('Unsupported state frame version');
+    const keyframe = u8() === 0;
+    const seq = varint();
+    const sessionId = string();
+    const palette = strings();
+    const color = () => palette[u8()];
+
+    const player = () => ({
+      playerName: string(),
+      characterName: string(),
+      color: color(),
+      x: varint(),
+      y: varint(),
+      direction: DIRECTIONS[u8()],
+      lives: float64(),
+      level: varint(),
+      xp: varint(),
+      xpForNextLevel: varint(),
+      discSlots: varint(),
+      activeDiscs: varint(),
+    });
+    const list = (item) => {
+      const n = varint();
+      const out = new Array(n);
+      for (let i = 0; i < n; i++) out[i] = item();
+      return out;
+    };
+    const enemy = () => ({
+      id: string(),
+      name: string(),
+      color: color(),
+      x: varint(),
+      y: varint(),
+      direction: DIRECTIONS[u8()],
+      lives: float64(),
+      discSlots: varint(),
+      activeDiscs: varint(),
+      type: string(),
+    });
+    const disc = () => ({ id: varint(), ownerColor: color(), x: varint(), y: varint(), flying: u8() === 1 });
+    const trail = () => ({ x: varint(), y: varint(), color: color() });
+    const move = () => ({ id: string(), x: varint(), y: varint(), direction: DIRECTIONS[u8()] });
+    const swarm = () => {
+      const c = color();
+      const alive = varint();
+      const n = varint();
+      const cells = new Array(n);
+      for (let i = 0; i < n; i++, pos += 2) cells[i] = view.getUint16(pos, true);
+      return { color: c, alive, cells };
+    };
+    const story = () => ({ id: string(), title: string(), text: string() });
+
+    if (keyframe) {
+      const frame = { sessionId, type: 'keyframe', seq };
+      frame.width = varint();
+      frame.height = varint();
+      frame.arenaId = string();
+      frame.arenaName = string();
+      frame.arenaHash = string();
+      const flags = u8();
+      frame.openArena = !!(flags & 1);
+      frame.awaitingChoice = !!(flags & 2);
+      frame.running = !!(flags & 4);
+      frame.victory = !!(flags & 8);
+      frame.player = player();
+      frame.enemies = list(enemy);
+      frame.discs = list(disc);
+      frame.trails = list(trail);
+      frame.swarm = flags & 16 ? swarm() : null;
+      frame.events = strings();
+      frame.lastEventSeq = varint();
+      frame.story = flags & 32 ? story() : null;
+      frame.achievements = strings();
+      return frame;
+    }
+
+    const frame = { sessionId, type: 'delta', seq };
+    const mask = varint();
+    const flags = u8();
+    if (mask & S_PLAYER) frame.player = player();
+    if (mask & S_PLAYER_MOVE) frame.playerMove = move();
+    if (mask & S_ENEMIES_GONE) frame.enemiesGone = strings();
+    if (mask & S_ENEMIES) frame.enemies = list(enemy);
+    if (mask & S_ENEMY_MOVES) frame.enemyMoves = list(move);
+    if (mask & S_DISCS) frame.discs = list(disc);
+    if (mask & S_TRAILS_CLEARED) frame.trailsCleared = true;
+    if (mask & S_TRAIL_DEL) {
+      const n = varint() * 2;
+      frame.trailDel = new Array(n);
+      for (let i = 0; i < n; i++) frame.trailDel[i] = varint();
+    }
+    if (mask & S_TRAIL_ADD) frame.trailAdd = list(trail);
+    if (mask & S_SWARM) frame.swarm = swarm();
+    if (mask & S_EVENTS) {
+      frame.events = strings();
+      frame.lastEventSeq = varint();
+    }
+    if (mask & S_STORY) frame.story = story();
+    if (mask & S_ACHIEVEMENTS) frame.achievements = strings();
+    if (mask & S_AWAITING) frame.awaitingChoice = !!(flags & 1);
+    if (mask & S_RUNNING) frame.running = !!(flags & 2);
+    if (mask & S_VICTORY) frame.victory = !!(flags & 4);
+    return frame;
+  }
+
+  if (typeof module !== 'undefined' && module.exports) {
+    module.exports = { decodeStateFrame };
+  } else {
+    root.decodeStateFrame = decodeStateFrame;
+  }
+})(this);
@@ -3,6 +3,9 @@ package com.foptron.game.data;
 import com.foptron.game.model.Arena;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ArenaLoaderTest {
@@ -13,12 +16,31 @@ public class ArenaLoaderTest {
         Arena a2 = ArenaLoader.load("ARENA2", "data/arenas/arena2.txt");
         Arena a3 = ArenaLoader.load("ARENA3", "data/arenas/arena3.txt");
 
-        assertEquals(40, a1.grid().length);
-        assertEquals(40, a2.grid().length);
-        assertEquals(40, a3.grid().length);
+        assertEquals(40, a1.height());
+        assertEquals(40, a2.height());
+        assertEquals(40, a3.height());
+
+        assertEquals(40, a1.width());
+        assertEquals(40, a2.width());
+        assertEquals(40, a3.width());
+    }
+
+    @Test
+    void contentHashFollowsTheTerrainOnly() {
+        Arena a1 = ArenaLoader.load("ARENA1", "data/arenas/arena1.txt");
+        Arena again = ArenaLoader.load("OTHER_ID", "data/arenas/arena1.txt");
+        Arena a2 = ArenaLoader.load("ARENA2", "data/arenas/arena2.txt");
+
+        assertEquals(a1.contentHash(), again.contentHash());
+        assertNotEquals(a1.contentHash(), a2.contentHash());
+        assertEquals(16, a1.contentHash().length());
+
+        Arena p1 = ArenaLoader.random("P1", "Procedural", false, new Random(5));
+        Arena p2 = ArenaLoader.random("P2", "Procedural", false, new Random(5));
+        Arena p3 = ArenaLoader.random("P3", "Procedural", false, new Random(6));
+        assertEquals(p1.contentHash(), p2.contentHash());
+        assertNotEquals(p1.contentHash(), p3.contentHash());
 
-        assertEquals(40, a1.grid()[0].length);
-        assertEquals(40, a2.grid()[0].length);
-        assertEquals(40, a3.grid()[0].length);
+        assertEquals(a1.rows(), List.of(a1.layout().split("\n")));
     }
 }
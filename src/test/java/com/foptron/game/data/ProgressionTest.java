@@ -0,0 +1,33 @@
+package com.foptron.game.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProgressionTest {
+
+    @Test
+    void storyTriggersAreIndexedByEvent() {
+        Progression p = new DataRepository().progression();
+
+        // Only the level-1 chapter opens the game; boss and choice chapters wait for their event.
+        List<StoryChapter> atStart = new ArrayList<>();
+        p.chapters().forLevels(0, 1, atStart::add);
+        assertEquals(1, atStart.size());
+        assertEquals("CH1", atStart.get(0).id());
+        assertEquals("Boot Sequence", atStart.get(0).title());
+
+        List<StoryChapter> onClu = p.chapters().onDefeat("CLU");
+        assertEquals(1, onClu.size());
+        assertEquals(List.of("RESTORE", "REWRITE"), onClu.get(0).choices());
+        assertEquals("END_REWRITE", p.chapters().onChoice("REWRITE").get(0).id());
+
+        List<String> reachedTen = new ArrayList<>();
+        p.achievements().forLevels(1, 10, a -> reachedTen.add(a.id()));
+        assertEquals(List.of("ACH_FIRST_WIN", "ACH_LEVEL_5", "ACH_LEVEL_10"), reachedTen);
+        assertEquals("Corrupted Core Purged", p.achievements().onDefeat("CLU").get(0).title());
+    }
+}
@@ -0,0 +1,51 @@
+package com.foptron.game.engine;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures heap allocated per simulation step on the calling thread.
+ * Not a unit test; run with:
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.foptron.game.engine.AllocationBenchmark -Dexec.args="50 2000"
+ * (sessions, measured steps per session). Event log strings and level restarts still allocate,
+ * so the figure is an average over whole games, not a strict zero.
+ */
+public final class AllocationBenchmark {
+
+    public static void main(String[] args) {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        List<GameSession> games = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            games.add(TestGames.newSession("A" + i, SimulationSettings.virtual(i)));
+        }
+
+        // Warm up so JIT escape analysis has kicked in before measuring.
+        runSteps(games, steps);
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long executed = runSteps(games, steps);
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        System.out.printf("sessions=%d steps=%d%n", sessions, executed);
+        System.out.printf("allocated: %d bytes total, %.1f bytes/step%n", allocated, (double) allocated / Math.max(1, executed));
+        System.out.printf("time: %.2f us/step%n", nanos / 1000.0 / Math.max(1, executed));
+    }
+
+    private static long runSteps(List<GameSession> games, int steps) {
+        long executed = 0;
+        for (GameSession s : games) {
+            for (int i = 0; i < steps && s.isRunning(); i++) {
+                s.tick();
+                executed++;
+            }
+        }
+        return executed;
+    }
+}
@@ -0,0 +1,71 @@
+package com.foptron.game.engine;
+
+import com.foptron.game.data.ArenaLoader;
+import com.foptron.game.model.Arena;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Memory and tick cost per arena size. Not a unit test; run with:
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.foptron.game.engine.ArenaScaleBenchmark -Dexec.args="10 2000"
+ * (sessions per size, steps per session). Heap figures come from used-heap deltas around a
+ * System.gc(), so treat them as estimates.
+ */
+public final class ArenaScaleBenchmark {
+
+    private static final int[] SIZES = {40, 128, 256, 512, 1024};
+
+    public static void main(String[] args) {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        usedHeap();
+
+        System.out.printf("%6s %12s %14s %12s %10s%n", "size", "arena KiB", "session KiB", "load ms", "us/step");
+        for (int size : SIZES) {
+            long base = usedHeap();
+            long loadStart = System.nanoTime();
+            Arena arena = ArenaLoader.random("SCALE", "Scale " + size, false, size, size, new Random(size));
+            long loadNanos = System.nanoTime() - loadStart;
+            long arenaBytes = usedHeap() - base;
+
+            long beforeSessions = usedHeap();
+            List<GameSession> games = new ArrayList<>(sessions);
+            for (int i = 0; i < sessions; i++) {
+                games.add(TestGames.newSession("S" + size + "-" + i, arena, SimulationSettings.virtual(i)));
+            }
+            long sessionBytes = (usedHeap() - beforeSessions) / sessions;
+
+            // Warm up, then measure.
+            runSteps(games, steps / 4);
+            long start = System.nanoTime();
+            long executed = runSteps(games, steps);
+            long nanos = System.nanoTime() - start;
+
+            System.out.printf("%6d %12d %14d %12.1f %10.2f%n",
+                    size, arenaBytes / 1024, sessionBytes / 1024, loadNanos / 1e6,
+                    nanos / 1000.0 / Math.max(1, executed));
+            games.clear();
+        }
+    }
+
+    private static long runSteps(List<GameSession> games, int steps) {
+        long executed = 0;
+        for (GameSession s : games) {
+            for (int i = 0; i < steps && s.isRunning(); i++) {
+                s.tick();
+                executed++;
+            }
+        }
+        return executed;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
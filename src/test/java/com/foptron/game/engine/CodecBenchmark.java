@@ -0,0 +1,73 @@
+package com.foptron.game.engine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foptron.web.ws.BinaryStateCodec;
+import com.foptron.web.ws.dto.GameStateDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the two state transports: Jackson JSON (what the STOMP topic sends, minus STOMP
+ * headers) against {@link BinaryStateCodec}, in bytes per frame and encode time, for
+ * keyframes and deltas separately. Not a unit test; run with:
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.foptron.game.engine.CodecBenchmark -Dexec.args="2000 0"
+ * (ticks recorded, swarm size).
+ */
+public final class CodecBenchmark {
+
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int swarmSize = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+
+        GameSession session = TestGames.newSession("bench-session", SimulationSettings.virtual(1L).withSwarmSize(swarmSize));
+
+        // Record one played game's frames, with a forced keyframe every 50 so both kinds are sampled.
+        List<Object> keyframes = new ArrayList<>();
+        List<Object> deltas = new ArrayList<>();
+        TestGames.playFrames(session, ticks, 50,
+                frame -> (frame instanceof GameStateDto ? keyframes : deltas).add(frame));
+
+        ObjectMapper json = new ObjectMapper();
+        System.out.printf("frames: %d keyframes, %d deltas (swarm=%d, level %d)%n",
+                keyframes.size(), deltas.size(), swarmSize, session.player().level());
+        report("keyframe", keyframes, json);
+        report("delta", deltas, json);
+    }
+
+    private static void report(String kind, List<Object> frames, ObjectMapper json) throws Exception {
+        if (frames.isEmpty()) return;
+        long jsonBytes = 0;
+        long binaryBytes = 0;
+        for (Object f : frames) {
+            jsonBytes += json.writeValueAsBytes(f).length;
+            binaryBytes += BinaryStateCodec.encode(f).length;
+        }
+
+        // Warm-up rounds, then timed rounds; the sink keeps the JIT from dropping the work.
+        long sink = 0;
+        for (int r = 0; r < ROUNDS; r++) {
+            for (Object f : frames) {
+                sink += json.writeValueAsBytes(f).length + BinaryStateCodec.encode(f).length;
+            }
+        }
+        long t0 = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            for (Object f : frames) sink += json.writeValueAsBytes(f).length;
+        }
+        long t1 = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            for (Object f : frames) sink += BinaryStateCodec.encode(f).length;
+        }
+        long t2 = System.nanoTime();
+
+        int n = frames.size();
+        double perFrame = ROUNDS * (double) n * 1000.0;
+        System.out.printf("%-8s json:   %6d bytes/frame  %7.2f us/frame%n", kind, jsonBytes / n, (t1 - t0) / perFrame);
+        System.out.printf("%-8s binary: %6d bytes/frame  %7.2f us/frame  (%.1fx smaller)%n",
+                kind, binaryBytes / n, (t2 - t1) / perFrame, (double) jsonBytes / Math.max(1, binaryBytes));
+        if (sink == 42) System.out.println();
+    }
+}
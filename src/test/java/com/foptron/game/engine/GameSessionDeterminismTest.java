@@ -0,0 +1,83 @@
+package com.foptron.game.engine;
+
+import com.foptron.game.ai.Brains;
+import com.foptron.game.ai.PlayerBrain;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.foptron.game.engine.TestGames.autopilotStep;
+import static com.foptron.game.engine.TestGames.newSession;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameSessionDeterminismTest {
+
+    @Test
+    void sameSeedOnVirtualClockReplaysIdentically() {
+        GameSession a = newSession(SimulationSettings.virtual(42L));
+        GameSession b = newSession(SimulationSettings.virtual(42L));
+
+        for (int i = 0; i < 3000; i++) {
+            a.tick();
+            b.tick();
+        }
+
+        assertEquals(3000, a.stepIndex());
+        assertEquals(a.stepIndex(), b.stepIndex());
+        assertEquals(a.player().level(), b.player().level());
+        assertEquals(a.player().lives(), b.player().lives());
+        assertEquals(a.player().pos(), b.player().pos());
+        assertEquals(a.enemies().size(), b.enemies().size());
+        assertEquals(a.lastEventSeq(), b.lastEventSeq());
+        assertEquals(a.recentEvents(12), b.recentEvents(12));
+    }
+
+    @Test
+    void prewarmedLevelsMatchLevelsBuiltOnTheTickThread() {
+        ExecutorService prewarm = Executors.newSingleThreadExecutor();
+        try {
+            GameSession inline = newSession(SimulationSettings.virtual(8L));
+            GameSession background = newSession(SimulationSettings.virtual(8L).withLevelPrewarm(prewarm));
+
+            PlayerBrain autopilot = Brains.autopilot();
+            for (int i = 0; i < 6000; i++) {
+                autopilotStep(inline, autopilot);
+                autopilotStep(background, autopilot);
+            }
+
+            assertTrue(inline.player().level() > 1, "should cross at least one level");
+            assertEquals(inline.player().level(), background.player().level());
+            assertEquals(inline.player().pos(), background.player().pos());
+            assertEquals(inline.arena().name(), background.arena().name());
+            assertEquals(inline.lastEventSeq(), background.lastEventSeq());
+            assertEquals(inline.recentEvents(12), background.recentEvents(12));
+        } finally {
+            prewarm.shutdownNow();
+        }
+    }
+
+    @Test
+    void unfinishedPrewarmIsBuiltInlineInsteadOfAwaited() {
+        // A pool so backed up that the plan never starts: the level change must not wait for it.
+        Executor stalled = task -> {};
+        GameSession inline = newSession(SimulationSettings.virtual(8L));
+        GameSession stalledPrewarm = newSession(SimulationSettings.virtual(8L).withLevelPrewarm(stalled));
+
+        PlayerBrain autopilot = Brains.autopilot();
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            for (int i = 0; i < 6000; i++) {
+                autopilotStep(inline, autopilot);
+                autopilotStep(stalledPrewarm, autopilot);
+            }
+        });
+
+        assertTrue(inline.player().level() > 1, "should cross at least one level");
+        assertEquals(inline.player().level(), stalledPrewarm.player().level());
+        assertEquals(inline.player().pos(), stalledPrewarm.player().pos());
+        assertEquals(inline.lastEventSeq(), stalledPrewarm.lastEventSeq());
+        assertEquals(inline.recentEvents(12), stalledPrewarm.recentEvents(12));
+    }
+}
@@ -0,0 +1,175 @@
+package com.foptron.game.engine;
+
+import com.foptron.game.model.Arena;
+import com.foptron.game.model.CellType;
+import com.foptron.game.model.Direction;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.foptron.game.engine.MoveResolver.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Each case is resolved once per order of adding its movers; every order must give every
+ * slot the same outcome, hit slot and partner.
+ */
+public class MoveResolverTest {
+
+    private static final int NO_PARTNER = -1;
+
+    @Test
+    void headOnCollidesBoth() {
+        Result r = resolveInEveryOrder(List.of(),
+                new Mover(2, 5, 5, Direction.RIGHT),
+                new Mover(3, 7, 5, Direction.LEFT));
+        r.assertSlot(2, CYCLE, 3, 3);
+        r.assertSlot(3, CYCLE, 2, 2);
+    }
+
+    @Test
+    void swapCollidesBoth() {
+        Result r = resolveInEveryOrder(List.of(),
+                new Mover(2, 5, 5, Direction.RIGHT),
+                new Mover(3, 6, 5, Direction.LEFT));
+        r.assertSlot(2, CYCLE, 3, 3);
+        r.assertSlot(3, CYCLE, 2, 2);
+    }
+
+    @Test
+    void followChainMovesTheHeadAndHitsItsJetwall() {
+        // The head moves on; the next one runs into the jetwall it lays, and the last one into
+        // the cycle that stopped in front of it.
+        Result r = resolveInEveryOrder(List.of(),
+                new Mover(2, 5, 5, Direction.RIGHT),
+                new Mover(3, 6, 5, Direction.RIGHT),
+                new Mover(4, 7, 5, Direction.RIGHT));
+        r.assertSlot(4, MOVE, OccupancyGrid.NO_CYCLE, NO_PARTNER);
+        r.assertSlot(3, TRAIL, OccupancyGrid.NO_CYCLE, NO_PARTNER);
+        r.assertSlot(2, CYCLE, 3, NO_PARTNER);
+    }
+
+    @Test
+    void followChainStopsBehindABlockedHead() {
+        Result r = resolveInEveryOrder(List.of(),
+                new Mover(2, 12, 5, Direction.RIGHT),
+                new Mover(3, 13, 5, Direction.RIGHT),
+                new Mover(4, 14, 5, Direction.RIGHT));
+        r.assertSlot(4, SOLID, OccupancyGrid.NO_CYCLE, NO_PARTNER);
+        r.assertSlot(3, CYCLE, 4, NO_PARTNER);
+        r.assertSlot(2, CYCLE, 3, NO_PARTNER);
+    }
+
+    @Test
+    void closedLoopLaysJetwallEverywhere() {
+        Result r = resolveInEveryOrder(List.of(),
+                new Mover(2, 5, 5, Direction.RIGHT),
+                new Mover(3, 6, 5, Direction.DOWN),
+                new Mover(4, 6, 6, Direction.LEFT),
+                new Mover(5, 5, 6, Direction.UP));
+        for (int slot = 2; slot <= 5; slot++) {
+            r.assertSlot(slot, TRAIL, OccupancyGrid.NO_CYCLE, NO_PARTNER);
+        }
+    }
+
+    @Test
+    void standingCycleBlocksAndAHeadOnNextToItStillPairs() {
+        // Slot 9 stands still at (6,8); slot 2 drives into it while 3 and 4 meet head-on.
+        Result r = resolveInEveryOrder(List.of(new Mover(9, 6, 8, Direction.UP)),
+                new Mover(2, 5, 8, Direction.RIGHT),
+                new Mover(3, 8, 3, Direction.DOWN),
+                new Mover(4, 8, 5, Direction.UP));
+        r.assertSlot(2, CYCLE, 9, NO_PARTNER);
+        r.assertSlot(3, CYCLE, 4, 4);
+        r.assertSlot(4, CYCLE, 3, 3);
+    }
+
+    @Test
+    void threeWayHeadOnPairsWithTheLowestSlot() {
+        Result r = resolveInEveryOrder(List.of(),
+                new Mover(4, 5, 5, Direction.RIGHT),
+                new Mover(3, 7, 5, Direction.LEFT),
+                new Mover(2, 6, 4, Direction.DOWN));
+        r.assertSlot(2, CYCLE, 3, 3);
+        r.assertSlot(3, CYCLE, 2, 2);
+        r.assertSlot(4, CYCLE, 2, 2);
+    }
+
+    /** Resolves the movers in every order and checks that all orders agree. */
+    private static Result resolveInEveryOrder(List<Mover> standing, Mover... movers) {
+        Result first = null;
+        for (List<Mover> order : permutations(List.of(movers))) {
+            Result r = resolve(standing, order);
+            if (first == null) {
+                first = r;
+            } else {
+                assertEquals(first.bySlot, r.bySlot, "order " + order);
+            }
+        }
+        return first;
+    }
+
+    private static Result resolve(List<Mover> standing, List<Mover> order) {
+        OccupancyGrid grid = new OccupancyGrid(walledArena());
+        for (Mover m : standing) grid.setCycle(grid.index(m.x, m.y), m.slot);
+        for (Mover m : order) grid.setCycle(grid.index(m.x, m.y), m.slot);
+
+        MoveResolver resolver = new MoveResolver();
+        resolver.beginTick();
+        resolver.beginRound();
+        for (Mover m : order) resolver.add(m.slot, m.x, m.y, m.dir, grid);
+        resolver.resolve(grid);
+
+        Result r = new Result();
+        for (int i = 0; i < resolver.size(); i++) {
+            int partner = resolver.partner(i);
+            r.bySlot.put(resolver.slot(i), List.of((int) resolver.outcome(i), resolver.otherSlot(i),
+                    partner == NONE ? NO_PARTNER : resolver.slot(partner)));
+        }
+        return r;
+    }
+
+    private static List<List<Mover>> permutations(List<Mover> movers) {
+        if (movers.size() <= 1) return List.of(movers);
+        List<List<Mover>> out = new ArrayList<>();
+        for (int i = 0; i < movers.size(); i++) {
+            List<Mover> rest = new ArrayList<>(movers);
+            Mover head = rest.remove(i);
+            for (List<Mover> tail : permutations(rest)) {
+                List<Mover> p = new ArrayList<>();
+                p.add(head);
+                p.addAll(tail);
+                out.add(p);
+            }
+        }
+        return out;
+    }
+
+    /** 16x16, walled, otherwise empty; x = 15 is wall. */
+    private static Arena walledArena() {
+        int size = Arena.MIN_SIZE;
+        CellType[][] cells = new CellType[size][size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                boolean border = x == 0 || y == 0 || x == size - 1 || y == size - 1;
+                cells[y][x] = border ? CellType.WALL : CellType.EMPTY;
+            }
+        }
+        return new Arena("MOVES", "Moves", false, cells);
+    }
+
+    private record Mover(int slot, int x, int y, Direction dir) {
+    }
+
+    private static final class Result {
+        // Slot -> [outcome, otherSlot, partner slot].
+        final Map<Integer, List<Integer>> bySlot = new TreeMap<>();
+
+        void assertSlot(int slot, byte outcome, int otherSlot, int partnerSlot) {
+            assertEquals(List.of((int) outcome, otherSlot, partnerSlot), bySlot.get(slot), "slot " + slot);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.foptron.game.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MpscRingBufferTest {
+
+    @Test
+    void offerFailsExactlyAtTheRoundedUpCapacity() {
+        assertEquals(2, new MpscRingBuffer<Integer>(1).capacity());
+        assertEquals(8, new MpscRingBuffer<Integer>(8).capacity());
+
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(5);
+        assertEquals(8, ring.capacity());
+        for (int i = 0; i < 8; i++) {
+            assertTrue(ring.offer(i), "offer " + i);
+        }
+        assertFalse(ring.offer(8));
+        assertEquals(8, ring.size());
+
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(8));
+        assertFalse(ring.offer(9));
+        for (int i = 1; i <= 8; i++) {
+            assertEquals(i, ring.poll());
+        }
+        assertNull(ring.poll());
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void concurrentProducersKeepTheirOrderAndLoseNothing() {
+        int producers = 4;
+        int perProducer = 50_000;
+        // Small on purpose, so producers keep running into a full ring and the indices wrap often.
+        // Waits yield rather than spin, so a single-CPU machine still gets to run the consumer.
+        MpscRingBuffer<Long> ring = new MpscRingBuffer<>(16);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                long producer = p;
+                Thread t = new Thread(() -> {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (long seq = 0; seq < perProducer; seq++) {
+                        Long element = producer << 32 | seq;
+                        while (!ring.offer(element)) {
+                            Thread.yield();
+                        }
+                    }
+                });
+                t.start();
+                threads.add(t);
+            }
+
+            long[] next = new long[producers];
+            long received = 0;
+            go.countDown();
+            while (received < (long) producers * perProducer) {
+                assertTrue(ring.size() <= ring.capacity());
+                Long e = ring.poll();
+                if (e == null) {
+                    Thread.yield();
+                    continue;
+                }
+                int producer = (int) (e >>> 32);
+                long seq = e & 0xFFFF_FFFFL;
+                // In order per producer, with no gap (lost) and no repeat (duplicated).
+                assertEquals(next[producer], seq, "producer " + producer);
+                next[producer]++;
+                received++;
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+            assertNull(ring.poll());
+            for (int p = 0; p < producers; p++) {
+                assertEquals(perProducer, next[p]);
+            }
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package com.foptron.game.engine;
+
+import com.foptron.game.model.Arena;
+import com.foptron.game.model.CellType;
+import com.foptron.game.model.Direction;
+import com.foptron.game.model.RayTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Patched ray clearances must always equal a fresh scan of the grid, whatever order jetwalls
+ * are laid, expired and cleared in.
+ */
+public class OccupancyGridRaysTest {
+
+    private static final String[] COLORS = {"#00e5ff", "#ff9800", "#e91e63"};
+
+    @Test
+    void clearanceMatchesABruteForceScanThroughLayExpireAndClear() {
+        // Wider than MAX_RUN so the cap is exercised, with obstacles and ramps in the way.
+        Arena arena = arena(40, 20, new Random(3));
+        OccupancyGrid grid = new OccupancyGrid(arena);
+        int[] owner = new int[arena.width() * arena.height()];
+        List<Integer> live = new ArrayList<>();
+        Random rng = new Random(11);
+
+        assertMatchesScan(grid, "fresh grid");
+        for (int op = 0; op < 600; op++) {
+            int roll = rng.nextInt(100);
+            if (roll < 2) {
+                grid.clearTrails();
+                live.clear();
+            } else if (roll < 35 && !live.isEmpty()) {
+                int idx = live.remove(rng.nextInt(live.size()));
+                assertTrue(grid.expireTrail(idx, owner[idx]));
+            } else {
+                int idx = rng.nextInt(owner.length);
+                if (grid.isSolid(idx)) continue;
+                int slot = 1 + rng.nextInt(COLORS.length);
+                if (!grid.hasTrail(idx)) live.add(idx);
+                grid.placeTrail(idx, COLORS[slot - 1], slot);
+                owner[idx] = slot;
+            }
+            assertMatchesScan(grid, "after op " + op);
+        }
+
+        grid.load(arena(40, 20, new Random(4)));
+        assertMatchesScan(grid, "after reload");
+    }
+
+    private static void assertMatchesScan(OccupancyGrid grid, String when) {
+        for (int idx = 0; idx < grid.width() * grid.height(); idx++) {
+            for (Direction d : Direction.values()) {
+                int expected = scan(grid, idx, d);
+                if (grid.clearance(idx, d) != expected) {
+                    fail(when + ": clearance(" + idx % grid.width() + "," + idx / grid.width() + ", " + d + ") = "
+                            + grid.clearance(idx, d) + ", scan says " + expected);
+                }
+            }
+        }
+    }
+
+    private static int scan(OccupancyGrid grid, int idx, Direction d) {
+        int x = idx % grid.width() + d.dx;
+        int y = idx / grid.width() + d.dy;
+        int run = 0;
+        while (run < RayTable.MAX_RUN && grid.inBounds(x, y) && !grid.isBlocked(grid.index(x, y))) {
+            run++;
+            x += d.dx;
+            y += d.dy;
+        }
+        return run;
+    }
+
+    private static Arena arena(int width, int height, Random rng) {
+        CellType[][] cells = new CellType[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                boolean border = x == 0 || y == 0 || x == width - 1 || y == height - 1;
+                int r = rng.nextInt(100);
+                cells[y][x] = border ? CellType.WALL
+                        : r < 6 ? CellType.OBSTACLE
+                        : r < 9 ? CellType.RAMP
+                        : CellType.EMPTY;
+            }
+        }
+        return new Arena("RAYS", "Rays", false, cells);
+    }
+}
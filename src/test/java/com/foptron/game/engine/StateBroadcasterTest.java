@@ -0,0 +1,95 @@
+package com.foptron.game.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateBroadcasterTest {
+
+    @Test
+    void sendsEachSessionsFramesInOrderOffTheCallingThread() throws Exception {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> senders = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(200);
+        StateBroadcaster broadcaster = new StateBroadcaster(List.of(sink((id, frame) -> {
+            received.add(id + ":" + frame);
+            senders.add(Thread.currentThread());
+            done.countDown();
+        })), true, 64);
+        try {
+            Thread a = new Thread(() -> submitAll(broadcaster, "A", 100));
+            Thread b = new Thread(() -> submitAll(broadcaster, "B", 100));
+            a.start();
+            b.start();
+            a.join();
+            b.join();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+
+            for (String session : List.of("A", "B")) {
+                List<String> frames = received.stream().filter(f -> f.startsWith(session + ":")).toList();
+                for (int i = 0; i < frames.size(); i++) {
+                    assertEquals(session + ":" + i, frames.get(i));
+                }
+            }
+            assertFalse(senders.contains(a) || senders.contains(b) || senders.contains(Thread.currentThread()));
+            assertEquals(200, broadcaster.stats().sent());
+        } finally {
+            broadcaster.shutdown();
+        }
+    }
+
+    @Test
+    void fullRingDropsInsteadOfBlocking() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        StateBroadcaster broadcaster = new StateBroadcaster(List.of(sink((id, frame) -> {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        })), true, 2);
+        try {
+            assertTrue(broadcaster.submit("A", 0));
+            assertTrue(sending.await(5, TimeUnit.SECONDS), "sender should be stuck on frame 0");
+
+            assertTrue(broadcaster.submit("A", 1));
+            assertTrue(broadcaster.submit("A", 2));
+            assertFalse(broadcaster.submit("A", 3));
+            assertEquals(1, broadcaster.stats().dropped());
+        } finally {
+            release.countDown();
+            broadcaster.shutdown();
+        }
+    }
+
+    private static void submitAll(StateBroadcaster broadcaster, String session, int n) {
+        for (int i = 0; i < n; i++) {
+            while (!broadcaster.submit(session, i)) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static StateFrameSink sink(BiConsumer<String, Object> publish) {
+        return new StateFrameSink() {
+            @Override
+            public boolean hasViewers(String sessionId) {
+                return true;
+            }
+
+            @Override
+            public void publish(String sessionId, Object frame) {
+                publish.accept(sessionId, frame);
+            }
+        };
+    }
+}
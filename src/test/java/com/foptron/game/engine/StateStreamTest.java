@@ -0,0 +1,156 @@
+package com.foptron.game.engine;
+
+import com.foptron.game.ai.Brains;
+import com.foptron.game.ai.PlayerBrain;
+import com.foptron.web.ws.dto.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.foptron.game.engine.TestGames.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateStreamTest {
+
+    @Test
+    void deltasReplayToTheFullState() {
+        replay(SimulationSettings.virtual(11L));
+    }
+
+    @Test
+    void deltasReplayWithExpiringJetwalls() {
+        replay(SimulationSettings.virtual(12L).withLimitedJetwalls(true));
+    }
+
+    @Test
+    void deltasReplayInMassBattle() {
+        replay(SimulationSettings.virtual(13L).withSwarmSize(300));
+    }
+
+    @Test
+    void resyncRequestForcesAKeyframe() {
+        GameSession session = newSession(SimulationSettings.virtual(3L));
+        StateStream stream = new StateStream();
+
+        assertInstanceOf(GameStateDto.class, stream.next(session));
+        session.tick();
+        assertInstanceOf(StateDeltaDto.class, stream.next(session));
+
+        stream.requestKeyframe();
+        session.tick();
+        GameStateDto key = assertInstanceOf(GameStateDto.class, stream.next(session));
+        assertEquals(3, key.seq());
+    }
+
+    private static void replay(SimulationSettings settings) {
+        GameSession session = newSession(settings);
+        StateStream stream = new StateStream();
+        ClientModel client = new ClientModel();
+        PlayerBrain autopilot = Brains.autopilot();
+
+        int keyframes = 0;
+        for (int i = 0; i < 4000; i++) {
+            Object frame = stream.next(session);
+            if (frame instanceof GameStateDto key) keyframes++;
+            client.apply(frame);
+            client.assertMatches(GameStateMapper.toDto(session, stream.seq()));
+            autopilotStep(session, autopilot);
+        }
+        assertTrue(keyframes < 100, "keyframes should be rare: " + keyframes);
+    }
+
+    /** What game.js keeps, rebuilt the same way. */
+    private static final class ClientModel {
+        long seq;
+        PlayerDto player;
+        Map<String, EnemyDto> enemies = new LinkedHashMap<>();
+        List<DiscDto> discs;
+        Map<List<Integer>, String> trails = new HashMap<>();
+        SwarmDto swarm;
+        List<String> events;
+        long lastEventSeq;
+        StoryDto story;
+        List<String> achievements;
+        boolean awaitingChoice;
+        boolean running;
+        boolean victory;
+
+        void apply(Object frame) {
+            if (frame instanceof GameStateDto k) {
+                seq = k.seq();
+                player = k.player();
+                enemies.clear();
+                k.enemies().forEach(e -> enemies.put(e.id(), e));
+                discs = k.discs();
+                trails.clear();
+                k.trails().forEach(t -> trails.put(List.of(t.x(), t.y()), t.color()));
+                swarm = k.swarm();
+                events = k.events();
+                lastEventSeq = k.lastEventSeq();
+                story = k.story();
+                achievements = k.achievements();
+                awaitingChoice = k.awaitingChoice();
+                running = k.running();
+                victory = k.victory();
+                return;
+            }
+            StateDeltaDto d = (StateDeltaDto) frame;
+            assertEquals(seq + 1, d.seq(), "sequence gap");
+            seq = d.seq();
+            if (d.player() != null) player = d.player();
+            if (d.playerMove() != null) player = moved(player, d.playerMove());
+            if (d.enemiesGone() != null) d.enemiesGone().forEach(enemies::remove);
+            if (d.enemies() != null) d.enemies().forEach(e -> enemies.put(e.id(), e));
+            if (d.enemyMoves() != null) d.enemyMoves().forEach(m -> enemies.put(m.id(), moved(enemies.get(m.id()), m)));
+            if (d.discs() != null) discs = d.discs();
+            if (Boolean.TRUE.equals(d.trailsCleared())) trails.clear();
+            if (d.trailDel() != null) {
+                for (int i = 0; i < d.trailDel().length; i += 2) {
+                    trails.remove(List.of(d.trailDel()[i], d.trailDel()[i + 1]));
+                }
+            }
+            if (d.trailAdd() != null) d.trailAdd().forEach(t -> trails.put(List.of(t.x(), t.y()), t.color()));
+            if (d.swarm() != null) swarm = d.swarm();
+            if (d.events() != null) {
+                List<String> merged = new ArrayList<>(d.events());
+                merged.addAll(events);
+                events = merged.subList(0, Math.min(GameStateMapper.RECENT_EVENTS, merged.size()));
+                lastEventSeq = d.lastEventSeq();
+            }
+            if (d.story() != null) story = d.story();
+            if (d.achievements() != null) achievements = d.achievements();
+            if (d.awaitingChoice() != null) awaitingChoice = d.awaitingChoice();
+            if (d.running() != null) running = d.running();
+            if (d.victory() != null) victory = d.victory();
+        }
+
+        void assertMatches(GameStateDto full) {
+            assertEquals(full.player(), player);
+            Map<String, EnemyDto> expectedEnemies = new LinkedHashMap<>();
+            full.enemies().forEach(e -> expectedEnemies.put(e.id(), e));
+            assertEquals(expectedEnemies, enemies);
+            assertEquals(full.discs(), discs);
+            Map<List<Integer>, String> expectedTrails = new HashMap<>();
+            full.trails().forEach(t -> expectedTrails.put(List.of(t.x(), t.y()), t.color()));
+            assertEquals(expectedTrails, trails);
+            if (full.swarm() != null) assertArrayEquals(full.swarm().cells(), swarm.cells());
+            assertEquals(full.events(), events);
+            assertEquals(full.lastEventSeq(), lastEventSeq);
+            assertEquals(full.story(), story);
+            assertEquals(full.achievements(), achievements);
+            assertEquals(full.awaitingChoice(), awaitingChoice);
+            assertEquals(full.running(), running);
+            assertEquals(full.victory(), victory);
+        }
+
+        private static PlayerDto moved(PlayerDto p, MoveDto m) {
+            return new PlayerDto(p.playerName(), p.characterName(), p.color(), m.x(), m.y(), m.direction(),
+                    p.lives(), p.level(), p.xp(), p.xpForNextLevel(), p.discSlots(), p.activeDiscs());
+        }
+
+        private static EnemyDto moved(EnemyDto e, MoveDto m) {
+            return new EnemyDto(e.id(), e.name(), e.color(), m.x(), m.y(), m.direction(),
+                    e.lives(), e.discSlots(), e.activeDiscs(), e.type());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.foptron.game.engine;
+
+import com.foptron.game.data.ArenaLoader;
+import com.foptron.game.model.Arena;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Step cost of a mass battle at several swarm sizes. Not a unit test; run with:
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.foptron.game.engine.SwarmBenchmark -Dexec.args="3000"
+ * (steps per size). Drones crash as jetwalls fill the arena and the level restarts with a full
+ * swarm once they are gone, so the per-drone figure is divided by the drones actually alive.
+ */
+public final class SwarmBenchmark {
+
+    private static final int[] SWARM_SIZES = {100, 500, 2000};
+
+    public static void main(String[] args) {
+        int steps = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        System.out.printf("%7s %9s %10s %10s %14s %12s%n", "drones", "arena", "us/step", "avg alive", "ns/drone-step", "bytes/step");
+        for (int size : SWARM_SIZES) {
+            // Keep the starting density comparable: roughly one drone per 32 cells.
+            int side = Math.max(Arena.DEFAULT_SIZE, (int) Math.ceil(Math.sqrt(size * 32.0)));
+            Arena arena = ArenaLoader.random("SWARM", "Swarm " + size, false, side, side, new Random(size));
+            GameSession s = TestGames.newSession("swarm-" + size, arena, SimulationSettings.virtual(size).withSwarmSize(size));
+
+            run(s, steps / 4);
+
+            long aliveSum = 0;
+            long executed = 0;
+            long before = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < steps && s.isRunning(); i++) {
+                s.tick();
+                aliveSum += s.dronesAlive();
+                executed++;
+            }
+            long nanos = System.nanoTime() - start;
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+            double avgAlive = (double) aliveSum / Math.max(1, executed);
+            System.out.printf("%7d %9s %10.2f %10.0f %14.1f %12.1f%n",
+                    size, side + "x" + side, nanos / 1000.0 / Math.max(1, executed), avgAlive,
+                    nanos / Math.max(1.0, aliveSum), (double) allocated / Math.max(1, executed));
+        }
+    }
+
+    private static void run(GameSession s, int steps) {
+        for (int i = 0; i < steps && s.isRunning(); i++) {
+            s.tick();
+        }
+    }
+}
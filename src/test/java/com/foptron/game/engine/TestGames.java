@@ -0,0 +1,78 @@
+package com.foptron.game.engine;
+
+import com.foptron.game.ai.Brains;
+import com.foptron.game.ai.EnemyAction;
+import com.foptron.game.ai.PlayerBrain;
+import com.foptron.game.data.DataRepository;
+import com.foptron.game.entity.Tron;
+import com.foptron.game.model.Arena;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The game tests and benchmarks play: Tron on the bundled data, steered by the autopilot.
+ * {@link StateStream} is package-private, so {@link #playFrames} is how tests in other packages
+ * get the frames a viewer of a played game would receive.
+ */
+public final class TestGames {
+
+    private static final DataRepository DATA = new DataRepository();
+
+    private TestGames() {
+    }
+
+    public static GameSession newSession(SimulationSettings settings) {
+        return newSession("T1", settings);
+    }
+
+    public static GameSession newSession(String sessionId, SimulationSettings settings) {
+        return newSession(sessionId, "AUTO", DATA.arenas(), false, settings);
+    }
+
+    /** A session that only ever plays {@code arena}. */
+    public static GameSession newSession(String sessionId, Arena arena, SimulationSettings settings) {
+        return newSession(sessionId, arena.id(), Map.of(arena.id(), arena), false, settings);
+    }
+
+    public static GameSession newSession(String sessionId, boolean manualStepMode, SimulationSettings settings) {
+        return newSession(sessionId, "AUTO", DATA.arenas(), manualStepMode, settings);
+    }
+
+    private static GameSession newSession(String sessionId, String arenaMode, Map<String, Arena> arenas,
+                                          boolean manualStepMode, SimulationSettings settings) {
+        return new GameSession(
+                sessionId,
+                "Tester",
+                arenaMode,
+                new Tron("P1", DATA.characters().get("TRON")),
+                arenas,
+                DATA.enemies(),
+                DATA.progression(),
+                manualStepMode,
+                settings
+        );
+    }
+
+    /** Lets the autopilot steer for one tick, then ticks. */
+    public static void autopilotStep(GameSession session, PlayerBrain autopilot) {
+        EnemyAction action = autopilot.decide(session, session.player());
+        session.applyInput(action.direction(), action.throwDisc());
+        session.tick();
+    }
+
+    /**
+     * Plays up to {@code ticks} autopilot steps, or until the game ends, handing {@code frames}
+     * the frame a viewer would get before each step. A keyframe is forced every
+     * {@code keyframeEvery} steps; 0 leaves it to the stream.
+     */
+    public static void playFrames(GameSession session, int ticks, int keyframeEvery, Consumer<Object> frames) {
+        StateStream stream = new StateStream();
+        PlayerBrain autopilot = Brains.autopilot();
+        for (int i = 0; i < ticks && session.isRunning(); i++) {
+            if (keyframeEvery > 0 && i % keyframeEvery == 0) stream.requestKeyframe();
+            frames.accept(stream.next(session));
+            autopilotStep(session, autopilot);
+        }
+    }
+}
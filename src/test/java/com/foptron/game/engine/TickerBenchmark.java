@@ -0,0 +1,62 @@
+package com.foptron.game.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the sharded platform-thread scheduler with per-session virtual threads.
+ * Not a unit test; run with:
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.foptron.game.engine.TickerBenchmark -Dexec.args="10000 10 0.1"
+ * (sessions, seconds, fraction of sessions actively playing; the rest sit idle in manual-step mode).
+ */
+public final class TickerBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        double activeFraction = args.length > 2 ? Double.parseDouble(args[2]) : 0.1;
+
+        System.out.printf("sessions=%d seconds=%d active=%.0f%% cores=%d%n",
+                sessions, seconds, activeFraction * 100, Runtime.getRuntime().availableProcessors());
+
+        run("sharded", new ShardedTickScheduler(0, 100, TickerBenchmark::tick), sessions, seconds, activeFraction);
+        run("virtual", new VirtualThreadSessionLoops(100, TickerBenchmark::tick), sessions, seconds, activeFraction);
+    }
+
+    private static void tick(SessionHandle h) {
+        GameSession s = h.session();
+        if (!s.isManualStepMode()) {
+            s.tick();
+        }
+    }
+
+    private static void run(String name, SessionTicker ticker, int sessions, int seconds, double activeFraction)
+            throws InterruptedException {
+        List<SessionHandle> handles = new ArrayList<>(sessions);
+        int active = (int) Math.round(sessions * activeFraction);
+        for (int i = 0; i < sessions; i++) {
+            GameSession s = TestGames.newSession("B" + i, i >= active, SimulationSettings.defaults());
+            handles.add(new SessionHandle("B" + i, s, null, 64));
+        }
+
+        for (SessionHandle h : handles) {
+            ticker.register(h);
+        }
+        Thread.sleep(seconds * 1000L);
+
+        List<TickStats> stats = ticker.stats();
+        long ticks = 0;
+        long overruns = 0;
+        double maxLag = 0;
+        for (TickStats st : stats) {
+            ticks += st.ticks();
+            overruns += st.overruns();
+            maxLag = Math.max(maxLag, st.maxLagMs());
+        }
+        ticker.shutdown();
+
+        // Shards count one tick per loop pass; per-session loops count one per session.
+        System.out.printf("%-8s loops=%d loopTicks=%d overruns=%d maxLagMs=%.2f%n",
+                name, stats.size(), ticks, overruns, maxLag);
+    }
+}
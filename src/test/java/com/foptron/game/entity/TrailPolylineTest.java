@@ -0,0 +1,75 @@
+package com.foptron.game.entity;
+
+import com.foptron.game.model.Pos;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TrailPolylineTest {
+
+    @Test
+    void storesTurnPointsAndBreaksButReplaysEveryCell() {
+        TrailPolyline trail = new TrailPolyline();
+        int[][] cells = {
+                {1, 1}, {2, 1}, {3, 1}, {4, 1},   // straight run right
+                {4, 2}, {4, 3},                   // turn down
+                {10, 10}, {10, 9}                 // respawn elsewhere, then up
+        };
+        for (int[] c : cells) {
+            trail.extend(Pos.pack(c[0], c[1]));
+        }
+
+        assertEquals(cells.length, trail.cellCount());
+        assertArrayEquals(new int[] {
+                Pos.pack(1, 1), Pos.pack(4, 1), Pos.pack(4, 3),
+                TrailPolyline.BREAK,
+                Pos.pack(10, 10), Pos.pack(10, 9)
+        }, trail.toArray());
+
+        List<Integer> replayed = new ArrayList<>();
+        trail.forEachCell(replayed::add);
+        List<Integer> expected = new ArrayList<>();
+        for (int[] c : cells) {
+            expected.add(Pos.pack(c[0], c[1]));
+        }
+        assertEquals(expected, replayed);
+
+        trail.clear();
+        assertEquals(0, trail.cellCount());
+        assertEquals(0, trail.pointCount());
+    }
+
+    @Test
+    void dropOldestTrimsTheTailOneCellAtATime() {
+        TrailPolyline trail = new TrailPolyline();
+        int[][] cells = {{1, 1}, {2, 1}, {3, 1}, {3, 2}, {8, 8}, {9, 8}};
+        for (int[] c : cells) {
+            trail.extend(Pos.pack(c[0], c[1]));
+        }
+
+        for (int dropped = 1; dropped <= cells.length; dropped++) {
+            trail.dropOldest();
+            List<Integer> replayed = new ArrayList<>();
+            trail.forEachCell(replayed::add);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = dropped; i < cells.length; i++) {
+                expected.add(Pos.pack(cells[i][0], cells[i][1]));
+            }
+            assertEquals(expected, replayed);
+            assertEquals(cells.length - dropped, trail.cellCount());
+        }
+        assertEquals(0, trail.pointCount());
+
+        // A trimmed-then-extended trail keeps straight runs compact.
+        trail.extend(Pos.pack(5, 5));
+        trail.extend(Pos.pack(5, 6));
+        trail.extend(Pos.pack(5, 7));
+        trail.dropOldest();
+        trail.extend(Pos.pack(5, 8));
+        assertArrayEquals(new int[] {Pos.pack(5, 6), Pos.pack(5, 8)}, trail.toArray());
+    }
+}
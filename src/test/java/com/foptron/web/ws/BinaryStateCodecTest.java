@@ -0,0 +1,321 @@
+package com.foptron.web.ws;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foptron.game.engine.SimulationSettings;
+import com.foptron.game.engine.TestGames;
+import com.foptron.game.model.Direction;
+import com.foptron.web.ws.dto.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Every frame of a played game must decode back to the same JSON the STOMP topic would send.
+ * {@link Reader} follows {@code static/js/state-codec.js}; the JS decoder itself is run over the
+ * same frames when {@code node} is on the PATH, and that test is skipped otherwise.
+ */
+public class BinaryStateCodecTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final Path JS_DECODER = Path.of("src/main/resources/static/js/state-codec.js");
+
+    // Decodes <i>.bin with the real decoder and compares it to <i>.json for every frame.
+    private static final String JS_CHECK = """
+            const { decodeStateFrame } = require(process.argv[1]);
+            const assert = require('assert');
+            const fs = require('fs');
+            const path = require('path');
+            const [dir, count] = [process.argv[2], Number(process.argv[3])];
+            for (let i = 0; i < count; i++) {
+              const bin = fs.readFileSync(path.join(dir, i + '.bin'));
+              const decoded = decodeStateFrame(new Uint8Array(bin.buffer, bin.byteOffset, bin.length));
+              const expected = JSON.parse(fs.readFileSync(path.join(dir, i + '.json'), 'utf8'));
+              assert.deepStrictEqual(JSON.parse(JSON.stringify(decoded)), expected, 'frame ' + i);
+            }
+            """;
+
+    @Test
+    void keyframesAndDeltasRoundTrip() {
+        roundTrip(playedFrames(SimulationSettings.virtual(21L).withLimitedJetwalls(true)));
+    }
+
+    @Test
+    void massBattleFramesRoundTrip() {
+        roundTrip(playedFrames(SimulationSettings.virtual(22L).withSwarmSize(300)));
+    }
+
+    @Test
+    void everySectionAndFlagRoundTrips() {
+        roundTrip(handBuiltFrames());
+    }
+
+    @Test
+    void jsDecoderMatchesTheJsonTopic(@TempDir Path dir) throws Exception {
+        assumeTrue(nodeAvailable(), "node is not on the PATH");
+        List<Object> frames = new ArrayList<>(handBuiltFrames());
+        frames.addAll(playedFrames(SimulationSettings.virtual(21L).withLimitedJetwalls(true)));
+        frames.addAll(playedFrames(SimulationSettings.virtual(22L).withSwarmSize(300)));
+        for (int i = 0; i < frames.size(); i++) {
+            Files.write(dir.resolve(i + ".bin"), BinaryStateCodec.encode(frames.get(i)));
+            Files.write(dir.resolve(i + ".json"), JSON.writeValueAsBytes(frames.get(i)));
+        }
+
+        Process node = new ProcessBuilder("node", "-e", JS_CHECK,
+                JS_DECODER.toAbsolutePath().toString(), dir.toString(), String.valueOf(frames.size()))
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(node.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(node.waitFor(60, TimeUnit.SECONDS));
+        assertEquals(0, node.exitValue(), output);
+    }
+
+    private static List<Object> handBuiltFrames() {
+        PlayerDto player = new PlayerDto("Zoë", "Tron", "#00e5ff", 39, 0, "LEFT", 2.7, 99, 1L << 40, 5000, 3, 2);
+        EnemyDto enemy = new EnemyDto("E1", "Rinzler", "#ff9800", 12, 300, "DOWN", 0.25, 2, 1, "Elite");
+        DiscDto disc = new DiscDto(1 << 20, "#ff9800", 5, 6, true);
+        TrailCellDto trail = new TrailCellDto(1000, 2047, "#e91e63");
+        SwarmDto swarm = new SwarmDto("#e91e63", 3, new int[] {0, 0, 2047, 1, 65535, 300});
+        StoryDto story = new StoryDto("CH2", "The Grid", "Line one\nline two — ünïcode");
+
+        GameStateDto keyframe = new GameStateDto("s-1", GameStateDto.TYPE, Long.MAX_VALUE, 2048, 16, "ARENA1",
+                "Arena One", "0123456789abcdef", true, player, List.of(enemy), List.of(disc), List.of(trail), swarm,
+                List.of("a", ""), 7, story, List.of("FIRST_BLOOD"), true, false, true);
+        StateDeltaDto delta = new StateDeltaDto("s-1", StateDeltaDto.TYPE, 1L << 35, player,
+                new MoveDto("P1", 1, 2, "UP"), List.of(enemy), List.of(new MoveDto("E1", 3, 4, "RIGHT")),
+                List.of("E2", "E3"), List.of(disc), Boolean.TRUE, new int[] {1, 2, 3, 4, 2047, 2047}, List.of(trail),
+                swarm, List.of("new"), 8L, story, List.of("SURVIVOR"), Boolean.FALSE, Boolean.FALSE, Boolean.TRUE);
+        StateDeltaDto empty = new StateDeltaDto("s-1", StateDeltaDto.TYPE, 2, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, null, null, null);
+        return List.of(keyframe, delta, empty);
+    }
+
+    /** A played game's frames, with a forced keyframe every 100 ticks. */
+    private static List<Object> playedFrames(SimulationSettings settings) {
+        List<Object> frames = new ArrayList<>();
+        TestGames.playFrames(TestGames.newSession(settings), 1500, 100, frames::add);
+        long keyframes = frames.stream().filter(GameStateDto.class::isInstance).count();
+        long deltas = frames.size() - keyframes;
+        assertTrue(keyframes > 1 && deltas > keyframes, keyframes + " keyframes, " + deltas + " deltas");
+        return frames;
+    }
+
+    private static void roundTrip(List<Object> frames) {
+        for (int i = 0; i < frames.size(); i++) {
+            Object frame = frames.get(i);
+            Object decoded = new Reader(BinaryStateCodec.encode(frame)).frame();
+            assertEquals(frame.getClass(), decoded.getClass());
+            assertEquals(JSON.valueToTree(frame), JSON.valueToTree(decoded), "frame " + i);
+        }
+    }
+
+    private static boolean nodeAvailable() {
+        try {
+            Process p = new ProcessBuilder("node", "--version").redirectErrorStream(true).start();
+            p.getInputStream().readAllBytes();
+            return p.waitFor(10, TimeUnit.SECONDS) && p.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+        private final List<String> palette = new ArrayList<>();
+
+        Reader(byte[] buf) {
+            this.buf = buf;
+        }
+
+        Object frame() {
+            assertEquals(BinaryStateCodec.VERSION, u8());
+            int type = u8();
+            long seq = varint();
+            String sessionId = string();
+            int colors = (int) varint();
+            for (int i = 0; i < colors; i++) {
+                palette.add(string());
+            }
+            Object frame = type == 0 ? keyframe(sessionId, seq) : delta(sessionId, seq);
+            assertEquals(buf.length, pos, "trailing bytes");
+            return frame;
+        }
+
+        private GameStateDto keyframe(String sessionId, long seq) {
+            int width = (int) varint();
+            int height = (int) varint();
+            String arenaId = string();
+            String arenaName = string();
+            String arenaHash = string();
+            int flags = u8();
+            PlayerDto player = player();
+            List<EnemyDto> enemies = enemies();
+            List<DiscDto> discs = discs();
+            List<TrailCellDto> trails = trailCells();
+            SwarmDto swarm = (flags & 16) != 0 ? swarm() : null;
+            List<String> events = strings();
+            long lastEventSeq = varint();
+            StoryDto story = (flags & 32) != 0 ? story() : null;
+            List<String> achievements = strings();
+            return new GameStateDto(sessionId, GameStateDto.TYPE, seq, width, height, arenaId, arenaName,
+                    arenaHash, (flags & 1) != 0, player, enemies, discs, trails, swarm, events, lastEventSeq,
+                    story, achievements, (flags & 2) != 0, (flags & 4) != 0, (flags & 8) != 0);
+        }
+
+        private StateDeltaDto delta(String sessionId, long seq) {
+            int mask = (int) varint();
+            int flags = u8();
+            PlayerDto player = has(mask, 0) ? player() : null;
+            MoveDto playerMove = has(mask, 1) ? move() : null;
+            List<String> enemiesGone = has(mask, 2) ? strings() : null;
+            List<EnemyDto> enemies = has(mask, 3) ? enemies() : null;
+            List<MoveDto> enemyMoves = null;
+            if (has(mask, 4)) {
+                int n = (int) varint();
+                enemyMoves = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    enemyMoves.add(move());
+                }
+            }
+            List<DiscDto> discs = has(mask, 5) ? discs() : null;
+            Boolean trailsCleared = has(mask, 6) ? Boolean.TRUE : null;
+            int[] trailDel = null;
+            if (has(mask, 7)) {
+                trailDel = new int[(int) varint() * 2];
+                for (int i = 0; i < trailDel.length; i++) {
+                    trailDel[i] = (int) varint();
+                }
+            }
+            List<TrailCellDto> trailAdd = has(mask, 8) ? trailCells() : null;
+            SwarmDto swarm = has(mask, 9) ? swarm() : null;
+            List<String> events = null;
+            Long lastEventSeq = null;
+            if (has(mask, 10)) {
+                events = strings();
+                lastEventSeq = varint();
+            }
+            StoryDto story = has(mask, 11) ? story() : null;
+            List<String> achievements = has(mask, 12) ? strings() : null;
+            Boolean awaiting = has(mask, 13) ? (flags & 1) != 0 : null;
+            Boolean running = has(mask, 14) ? (flags & 2) != 0 : null;
+            Boolean victory = has(mask, 15) ? (flags & 4) != 0 : null;
+            return new StateDeltaDto(sessionId, StateDeltaDto.TYPE, seq, player, playerMove, enemies, enemyMoves,
+                    enemiesGone, discs, trailsCleared, trailDel, trailAdd, swarm, events, lastEventSeq, story,
+                    achievements, awaiting, running, victory);
+        }
+
+        private PlayerDto player() {
+            return new PlayerDto(string(), string(), color(), (int) varint(), (int) varint(), direction(),
+                    float64(), (int) varint(), varint(), varint(), (int) varint(), (int) varint());
+        }
+
+        private List<EnemyDto> enemies() {
+            int n = (int) varint();
+            List<EnemyDto> out = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                out.add(new EnemyDto(string(), string(), color(), (int) varint(), (int) varint(), direction(),
+                        float64(), (int) varint(), (int) varint(), string()));
+            }
+            return out;
+        }
+
+        private List<DiscDto> discs() {
+            int n = (int) varint();
+            List<DiscDto> out = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                out.add(new DiscDto((int) varint(), color(), (int) varint(), (int) varint(), u8() != 0));
+            }
+            return out;
+        }
+
+        private List<TrailCellDto> trailCells() {
+            int n = (int) varint();
+            List<TrailCellDto> out = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                out.add(new TrailCellDto((int) varint(), (int) varint(), color()));
+            }
+            return out;
+        }
+
+        private MoveDto move() {
+            return new MoveDto(string(), (int) varint(), (int) varint(), direction());
+        }
+
+        private SwarmDto swarm() {
+            String color = color();
+            int alive = (int) varint();
+            int[] cells = new int[(int) varint()];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = u8() | u8() << 8;
+            }
+            return new SwarmDto(color, alive, cells);
+        }
+
+        private StoryDto story() {
+            return new StoryDto(string(), string(), string());
+        }
+
+        private List<String> strings() {
+            int n = (int) varint();
+            List<String> out = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                out.add(string());
+            }
+            return out;
+        }
+
+        private static boolean has(int mask, int bit) {
+            return (mask & (1 << bit)) != 0;
+        }
+
+        private String color() {
+            return palette.get(u8());
+        }
+
+        private String direction() {
+            return DIRECTIONS[u8()].name();
+        }
+
+        private int u8() {
+            return buf[pos++] & 0xFF;
+        }
+
+        private double float64() {
+            long bits = 0;
+            for (int i = 0; i < 8; i++) {
+                bits |= (long) u8() << (8 * i);
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        private long varint() {
+            long v = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = u8();
+                v |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return v;
+            }
+        }
+
+        private String string() {
+            int n = (int) varint();
+            String s = new String(buf, pos, n, StandardCharsets.UTF_8);
+            pos += n;
+            return s;
+        }
+    }
+}